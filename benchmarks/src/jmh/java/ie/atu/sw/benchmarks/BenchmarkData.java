@@ -0,0 +1,132 @@
+package ie.atu.sw.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ie.atu.sw.embedding.DataBase;
+
+/**
+ * Builds the inputs shared by the benchmarks: the real Google-1000 common words
+ * plus a generated embeddings file, so that no embeddings have to be
+ * downloaded. The vectors are random but seeded, so every run measures the
+ * same data.
+ */
+final class BenchmarkData {
+	static final long SEED = 42;
+	static final int RARE_WORDS = 20_000; // Words with a vector that are not common
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Gets the Google-1000 file, from `-Dsimplifier.google1000` (set by the
+	 * Gradle build) or relative to the repository root.
+	 */
+	static Path google1000() {
+		return Path.of(System.getProperty("simplifier.google1000", "Resources/google-1000.txt"));
+	}
+
+	/**
+	 * Reads the common words.
+	 * 
+	 * Time Complexity: O(n)
+	 * - Rationale: Reads the `n` lines of the file once.
+	 */
+	static List<String> commonWords() throws IOException {
+		List<String> words = new ArrayList<>();
+		for (String line : Files.readAllLines(google1000(), StandardCharsets.UTF_8)) {
+			if (!line.isBlank()) {
+				words.add(line.trim().toLowerCase());
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Gets the name of the i-th generated word that is not a common word.
+	 */
+	static String rareWord(int i) {
+		return "rare" + i;
+	}
+
+	/**
+	 * Generates a random vector with components in [-1, 1).
+	 */
+	static double[] randomVector(Random random, int dimension) {
+		double[] vector = new double[dimension];
+		for (int i = 0; i < dimension; i++) {
+			vector[i] = random.nextDouble() * 2 - 1;
+		}
+		return vector;
+	}
+
+	/**
+	 * Writes a text embeddings file ("word v1 v2 ...") with a vector for every
+	 * common word and for `RARE_WORDS` generated words.
+	 * 
+	 * Time Complexity: O(w * n)
+	 * - Rationale: Writes `w` rows of `n` components.
+	 * 
+	 * @return The temporary file, deleted when the JVM exits.
+	 */
+	static Path writeEmbeddings(List<String> commonWords, int dimension) throws IOException {
+		Path file = Files.createTempFile("embeddings-" + dimension + "-", ".txt");
+		file.toFile().deleteOnExit();
+		Random random = new Random(SEED);
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (String word : commonWords) {
+				writeRow(writer, word, randomVector(random, dimension));
+			}
+			for (int i = 0; i < RARE_WORDS; i++) {
+				writeRow(writer, rareWord(i), randomVector(random, dimension));
+			}
+		}
+		return file;
+	}
+
+	private static void writeRow(BufferedWriter writer, String word, double[] vector) throws IOException {
+		writer.write(word);
+		for (double value : vector) {
+			writer.write(' ');
+			writer.write(Float.toString((float) value)); // As precise as published embeddings
+		}
+		writer.newLine();
+	}
+
+	/**
+	 * Loads the common words and generated embeddings of the given dimension
+	 * through the same `DataBase` methods the application uses.
+	 */
+	static DataBase loadDataBase(int dimension) throws IOException {
+		DataBase database = new DataBase();
+		database.loadGoogleWords(google1000().toString());
+		database.loadWordEmbeddings(writeEmbeddings(commonWords(), dimension).toString());
+		return database;
+	}
+
+	/**
+	 * Generates text of `words` words: two rare words (replaced) for every
+	 * common word (kept), with a punctuation mark every ten words.
+	 */
+	static String text(List<String> commonWords, int words) {
+		Random random = new Random(SEED);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				text.append(' ');
+			}
+			text.append(i % 3 == 2 ? commonWords.get(random.nextInt(commonWords.size()))
+					: rareWord(random.nextInt(RARE_WORDS)));
+			if (i % 10 == 9) {
+				text.append(',');
+			}
+		}
+		return text.append('.').toString();
+	}
+}
@@ -0,0 +1,103 @@
+package ie.atu.sw.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ie.atu.sw.embedding.DataBase;
+
+/**
+ * Measures the `DataBase` lookups: the row of a token read in place from a
+ * text, which is what `Simplify` does for every token, and the `String` based
+ * vector and common word lookups of the public API. Every invocation looks up
+ * the next word of a fixed list, so the lookups cannot be hoisted out of the
+ * loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DataBaseBenchmark {
+	private static final int WORDS = 1024; // A power of two, see `next()`
+
+	@Param({ "300" })
+	public int dimension;
+
+	private DataBase database;
+	private String[] commonWords;
+	private String[] rareWords;
+	private String[] unknownWords;
+	private String text; // The rare words, space separated, as a tokenized input
+	private String capitalizedText; // The same words capitalized, which need case folding
+	private int[] starts;
+	private int[] ends;
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		database = BenchmarkData.loadDataBase(dimension);
+		List<String> common = BenchmarkData.commonWords();
+		commonWords = new String[WORDS];
+		rareWords = new String[WORDS];
+		unknownWords = new String[WORDS];
+		StringBuilder words = new StringBuilder();
+		starts = new int[WORDS];
+		ends = new int[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			// New strings, as a caller of the public API passes, so no hash code is cached
+			commonWords[i] = new String(common.get(i % common.size()));
+			rareWords[i] = BenchmarkData.rareWord(i * 7 % BenchmarkData.RARE_WORDS);
+			unknownWords[i] = "unknown" + i;
+			starts[i] = words.length();
+			words.append(rareWords[i]);
+			ends[i] = words.length();
+			words.append(' ');
+		}
+		text = words.toString();
+		capitalizedText = text.replace("rare", "Rare");
+	}
+
+	private int next() {
+		return next = (next + 1) & (WORDS - 1);
+	}
+
+	@Benchmark
+	public int indexOfInText() {
+		int i = next();
+		return database.snapshot().indexOf(text, starts[i], ends[i]);
+	}
+
+	@Benchmark
+	public int indexOfInCapitalizedText() {
+		int i = next();
+		return database.snapshot().indexOf(capitalizedText, starts[i], ends[i]);
+	}
+
+	@Benchmark
+	public double[] getVectorCommon() {
+		return database.getVector(commonWords[next()]);
+	}
+
+	@Benchmark
+	public double[] getVectorRare() {
+		return database.getVector(rareWords[next()]);
+	}
+
+	@Benchmark
+	public double[] getVectorUnknown() {
+		return database.getVector(unknownWords[next()]);
+	}
+
+	@Benchmark
+	public boolean isCommonWord() {
+		return database.isCommonWord(rareWords[next()]);
+	}
+}
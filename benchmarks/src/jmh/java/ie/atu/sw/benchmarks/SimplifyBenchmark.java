@@ -0,0 +1,55 @@
+package ie.atu.sw.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.menu.Simplify;
+import ie.atu.sw.settingmenu.Configuration;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
+
+/**
+ * Measures `Simplify.simplifyText`, without a replacement cache, on a sentence
+ * and on a long document, against the Google-1000 candidates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SimplifyBenchmark {
+	@Param({ "short", "long" })
+	public String input;
+
+	@Param({ "300" })
+	public int dimension;
+
+	@Param({ "Cosine" })
+	public String algorithm;
+
+	private Simplify simplify;
+	private String text;
+
+	@Setup
+	public void setUp() throws IOException {
+		DataBase database = BenchmarkData.loadDataBase(dimension);
+		Configuration config = new Configuration();
+		config.setSelectedAlgorithms(List.of(SimilarityAlgorithmFactory.getAlgorithm(algorithm)));
+		simplify = new Simplify(database, config);
+		List<String> commonWords = BenchmarkData.commonWords();
+		text = BenchmarkData.text(commonWords, "short".equals(input) ? 12 : 2_000);
+	}
+
+	@Benchmark
+	public String simplifyText() {
+		return simplify.simplifyText(text);
+	}
+}
@@ -0,0 +1,67 @@
+package ie.atu.sw.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ie.atu.sw.utils.VectorUtils;
+
+/**
+ * Measures every `VectorUtils` metric on one pair of vectors, for the usual
+ * embedding dimensions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class VectorUtilsBenchmark {
+	@Param({ "50", "100", "300" })
+	public int dimension;
+
+	private double[] vector1;
+	private double[] vector2;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(BenchmarkData.SEED);
+		vector1 = BenchmarkData.randomVector(random, dimension);
+		vector2 = BenchmarkData.randomVector(random, dimension);
+	}
+
+	@Benchmark
+	public double euclideanDistance() {
+		return VectorUtils.euclideanDistance(vector1, vector2);
+	}
+
+	@Benchmark
+	public double cosineSimilarity() {
+		return VectorUtils.cosineSimilarity(vector1, vector2);
+	}
+
+	@Benchmark
+	public double jaccardSimilarity() {
+		return VectorUtils.jaccardSimilarity(vector1, vector2);
+	}
+
+	@Benchmark
+	public double manhattanDistance() {
+		return VectorUtils.manhattanDistance(vector1, vector2);
+	}
+
+	@Benchmark
+	public double pearsonCorrelation() {
+		return VectorUtils.pearsonCorrelation(vector1, vector2);
+	}
+
+	@Benchmark
+	public double chebyshevDistance() {
+		return VectorUtils.chebyshevDistance(vector1, vector2);
+	}
+}
@@ -1,20 +1,178 @@
 package ie.atu.sw;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.embedding.DataBase;
 import ie.atu.sw.menu.Menu;
+import ie.atu.sw.metrics.Metrics;
+import ie.atu.sw.server.SimplifierServer;
+import ie.atu.sw.settingmenu.Configuration;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
 
 /**
  * Initiates the application
  */
 public class Runner {
+	private static final String USAGE = "Usage: java ie.atu.sw.Runner [--server --embeddings <file> "
+			+ "[--google <file>] [--table <file>] [--port <port>] [--algorithms <name,...>] [--method <method>]]\n"
+			+ "       java ie.atu.sw.Runner --build-table --embeddings <file> --output <file> [--google <file>] "
+			+ "[--algorithms <name,...>]...";
+
 	/**
 	 * Main Method to start the Application
 	 *
 	 * @author Dylan Boyle
 	 * 
-	 * @param args
+	 * @param args No arguments for the interactive menu, `--server` and its
+	 *             options to serve simplifications over HTTP, or
+	 *             `--build-table` and its options to precompute replacements.
 	 */
 	public static void main(String[] args) {
+		Metrics.start(); // Only with -Dsimplifier.metrics=true
+		if (args.length > 0 && "--server".equals(args[0])) {
+			startServer(args);
+			return;
+		}
+		if (args.length > 0 && "--build-table".equals(args[0])) {
+			buildTable(args);
+			return;
+		}
+		if (args.length > 0) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
 		Menu menu = new Menu();
 		menu.heading();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Loads the files given on the command line and serves simplifications
+	 * until the JVM is stopped.
+	 * 
+	 * Time Complexity: O(w * n)
+	 * - Rationale: Dominated by loading the `w` word embeddings of size `n`.
+	 */
+	private static void startServer(String[] args) {
+		String embeddingsPath = null;
+		String googlePath = "Resources/google-1000.txt";
+		String tablePath = null;
+		int port = 8080;
+		Configuration config = new Configuration();
+		try {
+			for (int i = 1; i < args.length; i++) {
+				String option = args[i];
+				if (i + 1 >= args.length) {
+					throw new IllegalArgumentException("Missing value for " + option);
+				}
+				String value = args[++i];
+				switch (option) {
+					case "--embeddings" -> embeddingsPath = value;
+					case "--google" -> googlePath = value;
+					case "--table" -> tablePath = value;
+					case "--port" -> port = Integer.parseInt(value);
+					case "--algorithms" -> config.setSelectedAlgorithms(parseAlgorithms(value));
+					case "--method" -> config.setReplacementMethod(parseMethod(value));
+					default -> throw new IllegalArgumentException("Unknown option " + option);
+				}
+			}
+			if (embeddingsPath == null) {
+				throw new IllegalArgumentException("--embeddings is required");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		DataBase dataBase = new DataBase();
+		dataBase.loadGoogleWords(googlePath);
+		try {
+			dataBase.loadWordEmbeddings(embeddingsPath);
+			if (tablePath != null) {
+				dataBase.loadReplacementTable(tablePath);
+			}
+			SimplifierServer server = new SimplifierServer(dataBase, config);
+			server.start(port);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2)));
+			System.out.println("Serving POST /simplify and GET /health on http://localhost:" + server.getPort());
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Error starting the server: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Precomputes the replacement of every word of the embeddings file and
+	 * writes the table, which `--table` and the configuration menu load.
+	 * 
+	 * Time Complexity: O(s * w * k * n / p)
+	 * - Rationale: See `DataBase.buildReplacementTable`.
+	 */
+	private static void buildTable(String[] args) {
+		String embeddingsPath = null;
+		String googlePath = "Resources/google-1000.txt";
+		String outputPath = null;
+		List<List<AbstractSimilarityAlgorithm>> selections = new ArrayList<>();
+		try {
+			for (int i = 1; i < args.length; i++) {
+				String option = args[i];
+				if (i + 1 >= args.length) {
+					throw new IllegalArgumentException("Missing value for " + option);
+				}
+				String value = args[++i];
+				switch (option) {
+					case "--embeddings" -> embeddingsPath = value;
+					case "--google" -> googlePath = value;
+					case "--output" -> outputPath = value;
+					case "--algorithms" -> selections.add(parseAlgorithms(value));
+					default -> throw new IllegalArgumentException("Unknown option " + option);
+				}
+			}
+			if (embeddingsPath == null || outputPath == null) {
+				throw new IllegalArgumentException("--embeddings and --output are required");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		if (selections.isEmpty()) { // Every algorithm on its own
+			for (String name : SimilarityAlgorithmFactory.getAvailableAlgorithms()) {
+				selections.add(List.of(SimilarityAlgorithmFactory.getAlgorithm(name)));
+			}
+		}
+
+		DataBase dataBase = new DataBase();
+		dataBase.loadGoogleWords(googlePath);
+		try {
+			dataBase.loadWordEmbeddings(embeddingsPath);
+			dataBase.buildReplacementTable(outputPath, selections);
+		} catch (IOException | IllegalStateException e) {
+			System.err.println("Error building the replacement table: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static String parseMethod(String name) {
+		String method = SimplifierServer.findMethod(name);
+		if (method == null) {
+			throw new IllegalArgumentException("Unknown method " + name);
+		}
+		return method;
+	}
+
+	private static List<AbstractSimilarityAlgorithm> parseAlgorithms(String names) {
+		List<AbstractSimilarityAlgorithm> algorithms = new ArrayList<>();
+		for (String name : names.split(",")) {
+			AbstractSimilarityAlgorithm algorithm = SimilarityAlgorithmFactory.getAlgorithm(name.trim());
+			if (algorithm == null) {
+				throw new IllegalArgumentException("Unknown algorithm " + name.trim());
+			}
+			algorithms.add(algorithm);
+		}
+		return algorithms;
+	}
+}
@@ -1,5 +1,7 @@
 package ie.atu.sw.abstractalgorithms;
 
+import ie.atu.sw.utils.VectorMetrics;
+
 /**
  * Abstract class for similarity algorithms, providing a framework for
  * implementing specific similarity computations.
@@ -64,4 +66,114 @@ public abstract class AbstractSimilarityAlgorithm {
      * @return The similarity score between the two vectors.
      */
     public abstract double calculate(double[] vector1, double[] vector2);
-}
\ No newline at end of file
+
+    /**
+     * Calculates the similarity from sums that were already accumulated in a
+     * single fused pass over the two vectors.
+     * 
+     * Time Complexity: O(1) for the built-in algorithms, O(n) otherwise.
+     * - Rationale: The built-in algorithms override this method and derive their
+     * score from the stored sums. Algorithms that do not know about
+     * `VectorMetrics` fall back to `calculate(double[], double[])`.
+     * 
+     * @param metrics The sums accumulated for the pair of vectors.
+     * @param vector1 The first vector.
+     * @param vector2 The second vector.
+     * @return The similarity score between the two vectors.
+     */
+    public double calculate(VectorMetrics metrics, double[] vector1, double[] vector2) {
+        return calculate(vector1, vector2);
+    }
+
+    /**
+     * Scores a query against a range of rows of a row-major matrix in one call.
+     * Row `r` starts at index `r * stride` and has as many components as the
+     * query; its score is written to `scores[r - from]`. The arguments are
+     * validated once for the whole range.
+     * 
+     * Time Complexity: O((to - from) * n)
+     * - Rationale: Each of the rows of size `n` is read once. This default
+     * adapter copies every row into a reused array and calls
+     * `calculate(double[], double[])`, so algorithms that only implement that
+     * method keep working; the built-in algorithms override it with a loop on
+     * `SimilarityKernels` that reads the matrix in place.
+     * 
+     * @param query  The query vector.
+     * @param matrix The row-major matrix.
+     * @param from   The first row to score (inclusive).
+     * @param to     The last row to score (exclusive).
+     * @param stride The number of elements between the starts of two rows.
+     * @param scores Receives the `to - from` scores.
+     * @throws IllegalArgumentException If the range does not fit the matrix,
+     *                                  the stride is shorter than the query or
+     *                                  `scores` is too small.
+     */
+    public void calculateAll(double[] query, double[] matrix, int from, int to, int stride, double[] scores) {
+        checkBulkArguments(query, matrix, from, to, stride, scores);
+        double[] row = new double[query.length];
+        for (int r = from; r < to; r++) {
+            System.arraycopy(matrix, r * stride, row, 0, query.length);
+            scores[r - from] = calculate(query, row);
+        }
+    }
+
+    /**
+     * Scores a query against every row of a row-major matrix; the number of
+     * rows is `scores.length`.
+     * 
+     * Time Complexity: O(k * n)
+     * - Rationale: See `calculateAll(double[], double[], int, int, int,
+     * double[])` over the `k` rows.
+     * 
+     * @param query  The query vector.
+     * @param matrix The row-major matrix.
+     * @param stride The number of elements between the starts of two rows.
+     * @param scores Receives one score per row.
+     */
+    public final void calculateAll(double[] query, double[] matrix, int stride, double[] scores) {
+        calculateAll(query, matrix, 0, scores.length, stride, scores);
+    }
+
+    /**
+     * Validates the arguments of a bulk `calculateAll` call.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: A fixed number of comparisons.
+     */
+    protected static void checkBulkArguments(double[] query, double[] matrix, int from, int to, int stride,
+            double[] scores) {
+        if (from < 0 || to < from || scores.length < to - from) {
+            throw new IllegalArgumentException("Invalid row range " + from + " to " + to);
+        }
+        if (to > from && (stride < query.length || (long) (to - 1) * stride + query.length > matrix.length)) {
+            throw new IllegalArgumentException("Vectors must have the same length");
+        }
+    }
+
+    /**
+     * Checks if the algorithm needs the distance sums (L1, L2, L-infinity and
+     * min/max) of a fused pass.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Returns a constant.
+     * 
+     * @return True if the distance sums must be accumulated, false otherwise.
+     */
+    public boolean usesDistanceSums() {
+        return false;
+    }
+
+    /**
+     * Checks if `calculate(VectorMetrics, double[], double[])` reads the vectors
+     * themselves rather than only the accumulated sums. Callers that keep the
+     * candidates in a flat matrix only copy a row out for algorithms that do.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Returns a constant.
+     * 
+     * @return True if the vectors must be passed, false otherwise.
+     */
+    public boolean usesVectors() {
+        return true;
+    }
+}
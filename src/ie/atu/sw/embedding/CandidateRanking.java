@@ -0,0 +1,13 @@
+package ie.atu.sw.embedding;
+
+import java.util.List;
+
+/**
+ * The nearest and farthest candidates of a query word, both collected in a
+ * single scan of the candidate store.
+ *
+ * @param nearest  The most similar candidates, best first.
+ * @param farthest The least similar candidates, least similar first.
+ */
+public record CandidateRanking(List<ScoredWord> nearest, List<ScoredWord> farthest) {
+}
@@ -0,0 +1,196 @@
+package ie.atu.sw.embedding;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Immutable store of the replacement candidates, i.e. the Google-1000 words
+ * that also have a vector in the word embeddings file. The candidate vectors
+ * are copied out of the embedding matrix into one contiguous, row-major array
+ * with a fixed stride, so that scoring a token is a plain linear walk over
+ * memory rather than a filtered scan of the whole vocabulary. The candidates
+ * are few enough to keep in double precision.
+ *
+ * The sum and the sum of squares of every candidate vector are computed once
+ * when the store is built, so at query time Cosine and Pearson only need the
+ * dot product.
+ */
+public final class CandidateStore {
+	/**
+	 * Shared empty store used before both files have been loaded.
+	 */
+	public static final CandidateStore EMPTY = new CandidateStore(new String[0], new double[0], 0);
+
+	private final String[] words;
+	private final double[] data;
+	private final int dimension;
+	private final double[] sums;
+	private final double[] squares;
+
+	private CandidateStore(String[] words, double[] data, int dimension) {
+		this.words = words;
+		this.data = data;
+		this.dimension = dimension;
+		this.sums = new double[words.length];
+		this.squares = new double[words.length];
+		for (int c = 0; c < words.length; c++) {
+			double sum = 0.0, sumOfSquares = 0.0;
+			for (int i = c * dimension; i < (c + 1) * dimension; i++) {
+				sum += data[i];
+				sumOfSquares += data[i] * data[i];
+			}
+			sums[c] = sum;
+			squares[c] = sumOfSquares;
+		}
+	}
+
+	/**
+	 * Builds a candidate store from the common words and the word embeddings.
+	 *
+	 * Time Complexity: O(c * n)
+	 * - Rationale: Iterates once over the `c` common words, performs an O(1)
+	 * row lookup for each of them, copies the `n` components of every row found
+	 * and sums them up for the per-vector statistics.
+	 *
+	 * @param commonWords The Google-1000 words (already lowercased).
+	 * @param embeddings  The word embeddings.
+	 * @return A frozen store holding every common word that has a vector.
+	 */
+	public static CandidateStore build(Set<String> commonWords, EmbeddingMatrix embeddings) {
+		int dimension = embeddings.getDimension();
+		String[] words = new String[commonWords.size()];
+		int[] rows = new int[commonWords.size()];
+		int count = 0;
+		for (String word : commonWords) {
+			int row = embeddings.indexOf(word);
+			if (row >= 0) {
+				words[count] = word;
+				rows[count] = row;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return EMPTY;
+		}
+		double[] data = new double[count * dimension];
+		for (int c = 0; c < count; c++) {
+			embeddings.copyRow(rows[c], data, c * dimension);
+		}
+		return new CandidateStore(Arrays.copyOf(words, count), data, dimension);
+	}
+
+	/**
+	 * Gets the number of candidates in the store.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns the length of an array.
+	 *
+	 * @return The number of candidates.
+	 */
+	public int size() {
+		return words.length;
+	}
+
+	/**
+	 * Checks whether the store has no candidates.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Compares the length of an array with zero.
+	 *
+	 * @return True if there are no candidates, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return words.length == 0;
+	}
+
+	/**
+	 * Gets the candidate word at the given index.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Array access by index.
+	 *
+	 * @param index Index of the candidate.
+	 * @return The candidate word.
+	 */
+	public String getWord(int index) {
+		return words[index];
+	}
+
+	/**
+	 * Gets the number of components per vector, i.e. the row stride of
+	 * `getData()`.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Gets the backing row-major array. The vector of candidate `i` starts at
+	 * `getOffset(i)`. The array must not be modified.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a reference.
+	 */
+	public double[] getData() {
+		return data;
+	}
+
+	public int getOffset(int index) {
+		return index * dimension;
+	}
+
+	/**
+	 * Gets the sum of the components of a candidate vector.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Precomputed when the store was built.
+	 *
+	 * @param index Index of the candidate.
+	 * @return The sum of the components.
+	 */
+	public double getSum(int index) {
+		return sums[index];
+	}
+
+	/**
+	 * Gets the sum of the squared components of a candidate vector.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Precomputed when the store was built.
+	 *
+	 * @param index Index of the candidate.
+	 * @return The sum of the squared components.
+	 */
+	public double getSquares(int index) {
+		return squares[index];
+	}
+
+	/**
+	 * Gets the Euclidean (L2) norm of a candidate vector.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: A square root of a precomputed sum.
+	 *
+	 * @param index Index of the candidate.
+	 * @return The norm of the vector.
+	 */
+	public double getNorm(int index) {
+		return Math.sqrt(squares[index]);
+	}
+
+	/**
+	 * Copies the vector of the candidate at the given index.
+	 *
+	 * Time Complexity: O(n)
+	 * - Rationale: Copies the `n` components of the row.
+	 *
+	 * @param index Index of the candidate.
+	 * @return A copy of the candidate vector.
+	 */
+	public double[] getVector(int index) {
+		return Arrays.copyOfRange(data, index * dimension, (index + 1) * dimension);
+	}
+}
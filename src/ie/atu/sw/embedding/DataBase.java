@@ -3,20 +3,126 @@ package ie.atu.sw.embedding;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.metrics.LoadEvent;
+import ie.atu.sw.metrics.Metrics;
+import ie.atu.sw.utils.CosineSimilarity;
+import ie.atu.sw.utils.EuclideanDistance;
+
 public class DataBase {
-	private Set<String> commonWords;
-	private Map<String, double[]> wordVectors;
+	/**
+	 * Everything a simplification reads, frozen. A reload or a settings change
+	 * builds a new snapshot off to the side and publishes it with a single
+	 * volatile write, so a reader that takes a snapshot sees one consistent
+	 * version of the data until it is done, without taking a lock.
+	 * 
+	 * @param commonWords         The Google-1000 words, unmodifiable.
+	 * @param embeddings          The word embeddings.
+	 * @param commonRows          The rows of the embeddings holding a common
+	 *                            word; must not be modified.
+	 * @param candidates          The common words that have a vector.
+	 * @param cosineIndex         The approximate cosine index, or null.
+	 * @param euclideanIndex      The approximate Euclidean index, or null.
+	 * @param quantizedCandidates The int8 copy of the candidates, or null.
+	 * @param replacementTable    The table bound to this data, or null.
+	 * @param version             Incremented by every publication.
+	 */
+	public record Snapshot(Set<String> commonWords, EmbeddingMatrix embeddings, BitSet commonRows,
+			CandidateStore candidates, HnswIndex cosineIndex, HnswIndex euclideanIndex,
+			QuantizedCandidateStore quantizedCandidates, ReplacementTable replacementTable, long version) {
+
+		private static final Snapshot EMPTY = new Snapshot(Set.of(), EmbeddingMatrix.EMPTY, new BitSet(),
+				CandidateStore.EMPTY, null, null, null, null, 0);
+
+		/**
+		 * Checks if a word is in the common words set. A word with a vector is
+		 * looked up by its row, which is what `Simplify` does anyway.
+		 * 
+		 * Time Complexity: O(l)
+		 * - Rationale: A case-insensitive vocabulary probe and a bit test; only
+		 * words without a vector are lowercased for a hash set lookup.
+		 */
+		public boolean isCommonWord(String word) {
+			int row = embeddings.indexOfIgnoreCase(word, 0, word.length());
+			return row >= 0 ? commonRows.get(row) : commonWords.contains(word.toLowerCase());
+		}
 
-	public DataBase() {
-		this.commonWords = new HashSet<>();
-		this.wordVectors = new HashMap<>();
+		/**
+		 * Looks up the row of a word, whatever its case, in the embeddings. The
+		 * word is read in place from the text, so no `String` is created.
+		 * 
+		 * Time Complexity: O(l)
+		 * - Rationale: See `EmbeddingMatrix.indexOfIgnoreCase`.
+		 * 
+		 * @param text  The text holding the word.
+		 * @param start The position of the first character.
+		 * @param end   The position after the last character.
+		 * @return The row of the word, or -1 if it has no vector.
+		 */
+		public int indexOf(CharSequence text, int start, int end) {
+			return embeddings.indexOfIgnoreCase(text, start, end);
+		}
+
+		/**
+		 * Checks if the word of a row is a common word.
+		 * 
+		 * Time Complexity: O(1)
+		 * - Rationale: A bit test.
+		 */
+		public boolean isCommonRow(int row) {
+			return commonRows.get(row);
+		}
+
+		/**
+		 * Retrieves the vector representation of a word.
+		 * 
+		 * Time Complexity: O(n)
+		 * - Rationale: A constant-time row lookup, then the `n` components are
+		 * decoded into a new array.
+		 * 
+		 * @return The vector of the word, or null if not found.
+		 */
+		public double[] getVector(String word) {
+			int row = embeddings.indexOfIgnoreCase(word, 0, word.length());
+			return row >= 0 ? embeddings.getVector(row) : null;
+		}
+
+		/**
+		 * Retrieves the approximate index matching a similarity algorithm.
+		 * 
+		 * Time Complexity: O(1)
+		 * - Rationale: Checks the type of the algorithm.
+		 * 
+		 * @return The index built for the candidates, or null if the algorithm is
+		 *         not supported or no index is enabled.
+		 */
+		public HnswIndex getApproximateIndex(AbstractSimilarityAlgorithm algorithm) {
+			if (algorithm instanceof CosineSimilarity) {
+				return cosineIndex;
+			}
+			if (algorithm instanceof EuclideanDistance) {
+				return euclideanIndex;
+			}
+			return null;
+		}
 	}
 
+	// The only field readers touch; everything below is only used by writers,
+	// which are serialized by the lock
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+	private volatile EmbeddingMatrix.Precision precision = EmbeddingMatrix.Precision.FLOAT32;
+	private int indexM;
+	private int indexEfConstruction;
+	private boolean quantizationEnabled;
+
 	/**
 	 * Loads Google-1000 words from a file into a set.
 	 * 
@@ -29,87 +135,604 @@ public class DataBase {
 	 * @param filePath Path to the Google-1000 words file.
 	 */
 	public void loadGoogleWords(String filePath) {
-		try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-			String line;
-			while ((line = br.readLine()) != null) {
-				commonWords.add(line.trim().toLowerCase());
-			}
-			System.out.println("Loaded " + commonWords.size() + " common words.");
+		try {
+			loadGoogleWords(filePath, new LoadProgress());
 		} catch (IOException e) {
 			System.err.println("Error loading Google-1000 File: " + e.getMessage());
 		}
 	}
 
 	/**
-	 * Loads word embeddings from a file into a map.
+	 * Loads Google-1000 words from a file, reporting the bytes read. The words
+	 * replace the loaded ones. They are read without holding the lock, so
+	 * another file can load at the same time; only publishing the new snapshot
+	 * is serialized.
 	 * 
-	 * Time Complexity: O(n * m)
-	 * - Rationale: Iterates through the file with `n` lines. For each line,
-	 * splits into token, which takes O(m). Each vector is tored in a HasMap
-	 * with O(1) insertion time per entry. Overall complexity is O(n * m), where
-	 * n is the number of lines and m is the average number of tokens per line.
+	 * Time Complexity: O(n + c * d)
+	 * - Rationale: Reads the `n` lines, then rebuilds the candidate store of
+	 * `c` words of dimension `d`.
 	 * 
-	 * @param filePath Path to the word embeddings file.
+	 * @param filePath Path to the Google-1000 words file.
+	 * @param progress Receives the file size and the bytes read.
+	 * @throws IOException If the file cannot be read.
 	 */
-	public void loadWordEmbeddings(String filePath) throws IOException {
+	public void loadGoogleWords(String filePath, LoadProgress progress) throws IOException {
+		long start = Metrics.now();
+		LoadEvent event = new LoadEvent();
+		event.begin();
+		Set<String> loaded = new HashSet<>();
+		long lines = 0;
 		try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+			progress.setTotal(Files.size(Path.of(filePath)));
 			String line;
 			while ((line = br.readLine()) != null) {
-				String[] parts = line.split("[,\\s]+"); // Handles both commas and spaces
-				if (parts.length < 2) {
-					System.err.println("Skipping malformed line: " + line);
-					continue;
-				}
-				String word = parts[0];
-				double[] vector = new double[parts.length - 1];
-				for (int i = 1; i < parts.length; i++) {
-					try {
-						vector[i - 1] = Double.parseDouble(parts[i]);
-					} catch (NumberFormatException e) {
-						System.err.println("Skipping invalid value in line: " + line);
-						continue;
-					}
-				}
-				wordVectors.put(word.toLowerCase(), vector);
+				loaded.add(line.trim().toLowerCase());
+				progress.add(line.length() + 1);
+				lines++;
 			}
-			System.out.println("Loaded " + wordVectors.size() + " word embeddings.");
 		}
+		synchronized (this) {
+			publish(Collections.unmodifiableSet(loaded), snapshot.embeddings(), snapshot.replacementTable());
+		}
+		progress.complete();
+		Metrics.LOAD_COMMON_WORDS.recordSince(start);
+		if (event.shouldCommit()) {
+			event.path = filePath;
+			event.format = "common words";
+			event.bytes = progress.getTotal();
+			event.lines = lines;
+			event.words = loaded.size();
+			event.commit();
+		}
+		System.out.println("Loaded " + loaded.size() + " common words.");
+	}
+
+	/**
+	 * Loads word embeddings from a file into the embedding matrix, replacing the
+	 * loaded embeddings. Binary snapshots written by `saveEmbeddingSnapshot`
+	 * are recognised by their magic number and mapped instead of parsed.
+	 * 
+	 * Time Complexity: O(n * m / p)
+	 * - Rationale: The file with `n` lines of `m` tokens is cut into byte
+	 * ranges that `p` cores parse in parallel; see `EmbeddingTextParser`. Each
+	 * vector is copied into the contiguous matrix with O(1) amortized row
+	 * insertion.
+	 * 
+	 * @param filePath Path to the word embeddings file.
+	 */
+	public void loadWordEmbeddings(String filePath) throws IOException {
+		loadWordEmbeddings(filePath, new LoadProgress());
+	}
+
+	/**
+	 * Loads word embeddings from a file, reporting the bytes parsed. Parsing
+	 * does not hold the lock, so another file can load at the same time; only
+	 * publishing the new snapshot is serialized. Simplifications running
+	 * meanwhile keep the snapshot they started with.
+	 * 
+	 * Time Complexity: O(n * m / p)
+	 * - Rationale: See `loadWordEmbeddings(String)`.
+	 * 
+	 * @param filePath Path to the word embeddings file.
+	 * @param progress Receives the file size and the bytes parsed.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public void loadWordEmbeddings(String filePath, LoadProgress progress) throws IOException {
+		if (EmbeddingSnapshot.isSnapshot(Path.of(filePath))) {
+			loadEmbeddingSnapshot(filePath, progress);
+			return;
+		}
+		long start = Metrics.now();
+		LoadEvent event = new LoadEvent();
+		event.begin();
+		EmbeddingTextParser parser = new EmbeddingTextParser(Path.of(filePath), precision);
+		EmbeddingMatrix loaded = parser.parse(progress);
+		if (parser.getSkipped() > 0) {
+			System.err.println("Skipped " + parser.getSkipped() + " lines whose dimension differs from "
+					+ parser.getDimension() + ".");
+		}
+
+		synchronized (this) {
+			publish(snapshot.commonWords(), loaded, snapshot.replacementTable());
+		}
+		Metrics.LOAD_EMBEDDINGS.recordSince(start);
+		if (event.shouldCommit()) {
+			event.path = filePath;
+			event.format = "embeddings text";
+			event.bytes = progress.getTotal();
+			event.lines = parser.getLines();
+			event.malformedLines = parser.getMalformed();
+			event.skippedLines = parser.getSkipped();
+			event.words = loaded.size();
+			event.commit();
+		}
+		System.out.println("Loaded " + loaded.size() + " word embeddings.");
+	}
+
+	/**
+	 * Maps a binary embedding snapshot, replacing the loaded embeddings. The
+	 * vectors stay off the heap in the mapped file and keep the precision they
+	 * were written with.
+	 * 
+	 * Time Complexity: O(w * l)
+	 * - Rationale: Only the `w` words of average length `l` are decoded; see
+	 * `EmbeddingSnapshot.open`.
+	 * 
+	 * @param filePath Path to the snapshot file.
+	 * @param progress Completed once the snapshot is mapped.
+	 */
+	private void loadEmbeddingSnapshot(String filePath, LoadProgress progress) throws IOException {
+		long start = System.nanoTime();
+		LoadEvent event = new LoadEvent();
+		event.begin();
+		progress.setTotal(Files.size(Path.of(filePath)));
+		EmbeddingMatrix mapped = EmbeddingSnapshot.open(Path.of(filePath));
+		synchronized (this) {
+			publish(snapshot.commonWords(), mapped, snapshot.replacementTable());
+		}
+		progress.complete();
+		Metrics.LOAD_EMBEDDINGS.recordSince(start);
+		if (event.shouldCommit()) {
+			event.path = filePath;
+			event.format = "embeddings snapshot";
+			event.bytes = progress.getTotal();
+			event.words = mapped.size();
+			event.commit();
+		}
+		System.out.println("Loaded " + mapped.size() + " word embeddings from snapshot in "
+				+ (System.nanoTime() - start) / 1_000_000 + " ms (" + mapped.getMappedBytes() / (1024 * 1024)
+				+ " MB mapped).");
+	}
+
+	/**
+	 * Writes the loaded word embeddings to a binary snapshot, which
+	 * `loadWordEmbeddings` maps instead of parsing.
+	 * 
+	 * Time Complexity: O(w * n)
+	 * - Rationale: See `EmbeddingSnapshot.write`.
+	 * 
+	 * @param filePath Path to the snapshot file (overwritten).
+	 */
+	public void saveEmbeddingSnapshot(String filePath) throws IOException {
+		EmbeddingMatrix matrix = snapshot.embeddings();
+		if (matrix.isEmpty()) {
+			throw new IllegalStateException("No word embeddings are loaded.");
+		}
+		EmbeddingSnapshot.write(matrix, Path.of(filePath));
+		System.out.println("Saved " + matrix.size() + " word embeddings to " + filePath + ".");
 	}
 
 	/**
 	 * Checks if a word is in the common words set.
 	 * 
-	 * Time Complexity: O(1)
-	 * - Rationale: Checking for membership in a `HashSet` is a constant-time
-	 * operation due to its hash-based implementation.
+	 * Time Complexity: O(l)
+	 * - Rationale: A probe of the vocabulary index and a test in the bit set of
+	 * common rows; see `Snapshot.isCommonWord`.
 	 * 
 	 * @param word The word to check.
 	 * @return True if the word is common, false otherwise.
 	 */
 	public boolean isCommonWord(String word) {
-		return commonWords.contains(word.toLowerCase());
+		return snapshot.isCommonWord(word);
 	}
 
 	/**
 	 * Retrieves the vector representation of a word.
 	 * 
-	 * Time Complexity: O(1)
-	 * - Rationale: Retrieving a value from a HashMap is a constant-time
-	 * operation, as it uses hashing to access the value.
+	 * Time Complexity: O(n)
+	 * - Rationale: Finding the row of the word is one probe of the vocabulary
+	 * index; its `n` components are then decoded into a new array.
 	 * 
 	 * @param word The word to look up.
 	 * @return The vector representation of the word, or null if not found.
 	 */
 	public double[] getVector(String word) {
-		return wordVectors.get(word.toLowerCase());
+		return snapshot.getVector(word);
 	}
 
-	public Set<String> getCommonWords() {
-		return commonWords;
+	/**
+	 * Retrieves the embedding matrix.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a reference.
+	 * 
+	 * @return The loaded word embeddings.
+	 */
+	public EmbeddingMatrix getEmbeddings() {
+		return snapshot.embeddings();
+	}
+
+	/**
+	 * Retrieves the current snapshot of the data. Callers that read several
+	 * parts of the data, e.g. a whole simplification, take it once so that a
+	 * reload in the meantime does not mix two versions.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: One volatile read.
+	 * 
+	 * @return The snapshot published last.
+	 */
+	public Snapshot snapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Changes the storage precision of the embeddings. The loaded embeddings are
+	 * converted right away (a mapped snapshot is copied onto the heap) and later
+	 * text files are loaded with the new precision.
+	 * 
+	 * Time Complexity: O(w * n)
+	 * - Rationale: Converts the `w` rows of `n` components; see
+	 * `EmbeddingMatrix.withPrecision`.
+	 * 
+	 * @param precision The storage precision.
+	 */
+	public synchronized void setPrecision(EmbeddingMatrix.Precision precision) {
+		this.precision = precision;
+		EmbeddingMatrix current = snapshot.embeddings();
+		if (!current.isEmpty() && current.getPrecision() != precision) {
+			EmbeddingMatrix converted = current.withPrecision(precision);
+			publish(snapshot.commonWords(), converted, snapshot.replacementTable());
+			System.out.println("Stored " + converted.size() + " word embeddings as " + precision + " in "
+					+ converted.getMemoryBytes() / (1024 * 1024) + " MB.");
+		}
+	}
+
+	public EmbeddingMatrix.Precision getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Retrieves the precomputed replacement candidates.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a reference to a store that was built when the files
+	 * were loaded.
+	 * 
+	 * @return The common words that have a vector, frozen at load time.
+	 */
+	public CandidateStore getCandidates() {
+		return snapshot.candidates();
+	}
+
+	/**
+	 * Ranks the candidates against a word and returns both its `k` nearest and
+	 * its `k` farthest candidates. The word itself is never one of its own
+	 * neighbours.
+	 * 
+	 * Time Complexity: O(c * n + c * log k)
+	 * - Rationale: The `c` candidate vectors of size `n` are scored in one pass,
+	 * and each score is offered to two bounded heaps of size `k`.
+	 * 
+	 * @param word      The word to look up.
+	 * @param k         The number of nearest and farthest candidates to return.
+	 * @param algorithm The similarity algorithm to rank with.
+	 * @return The ranking, with empty lists if the word has no vector.
+	 */
+	public CandidateRanking rank(String word, int k, AbstractSimilarityAlgorithm algorithm) {
+		String lowerWord = word.toLowerCase();
+		Snapshot data = snapshot;
+		double[] query = data.getVector(lowerWord);
+		CandidateStore store = data.candidates();
+		if (query == null || store.isEmpty()) {
+			return new CandidateRanking(List.of(), List.of());
+		}
+
+		double[] scores = new ScoringEngine(List.of(algorithm)).score(query, store);
+		TopKCollector nearest = new TopKCollector(k, algorithm.isHigherBetter());
+		TopKCollector farthest = new TopKCollector(k, !algorithm.isHigherBetter());
+		for (int i = 0; i < store.size(); i++) {
+			if (store.getWord(i).equals(lowerWord)) {
+				continue;
+			}
+			nearest.offer(i, scores[i]);
+			farthest.offer(i, scores[i]);
+		}
+		return new CandidateRanking(List.of(nearest.drain(store)), List.of(farthest.drain(store)));
+	}
+
+	/**
+	 * Finds the `k` candidates most similar to a word.
+	 * 
+	 * Time Complexity: O(c * n + c * log k)
+	 * - Rationale: See `rank`.
+	 * 
+	 * @param word      The word to look up.
+	 * @param k         The number of candidates to return.
+	 * @param algorithm The similarity algorithm to rank with.
+	 * @return The nearest candidates with their scores, best first.
+	 */
+	public List<ScoredWord> topK(String word, int k, AbstractSimilarityAlgorithm algorithm) {
+		return rank(word, k, algorithm).nearest();
 	}
 
-	public Map<String, double[]> getWordVectors() {
-		return wordVectors;
+	/**
+	 * Finds the `k` candidates least similar to a word.
+	 * 
+	 * Time Complexity: O(c * n + c * log k)
+	 * - Rationale: See `rank`.
+	 * 
+	 * @param word      The word to look up.
+	 * @param k         The number of candidates to return.
+	 * @param algorithm The similarity algorithm to rank with.
+	 * @return The farthest candidates with their scores, least similar first.
+	 */
+	public List<ScoredWord> bottomK(String word, int k, AbstractSimilarityAlgorithm algorithm) {
+		return rank(word, k, algorithm).farthest();
+	}
+
+	/**
+	 * Gets the version of the loaded data, which changes every time either file
+	 * is (re)loaded.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads a single field.
+	 * 
+	 * @return The current data version.
+	 */
+	public long getVersion() {
+		return snapshot.version();
+	}
+
+	/**
+	 * Builds the candidate store and everything derived from it for new data,
+	 * off to the side, then publishes it all as the next snapshot. The
+	 * replacement table is kept if it matches the new data. Called with the
+	 * lock held.
+	 * 
+	 * Time Complexity: O(c * n + w)
+	 * - Rationale: Performs one row lookup for each of the `c` common words,
+	 * marks its row as common and copies the `n` components of every row found;
+	 * rebinding a replacement table fingerprints the `w` words. Enabled indexes
+	 * and quantization add their own build cost.
+	 */
+	private void publish(Set<String> commonWords, EmbeddingMatrix embeddings, ReplacementTable table) {
+		CandidateStore candidates = CandidateStore.build(commonWords, embeddings);
+		HnswIndex[] indexes = indexM > 0 ? buildIndexes(candidates) : new HnswIndex[2];
+		QuantizedCandidateStore quantized = quantizationEnabled ? buildQuantizedCandidates(candidates) : null;
+		if (table != null) {
+			try {
+				table = table.bind(embeddings, candidates);
+			} catch (IllegalArgumentException e) {
+				table = null;
+				System.err.println("Dropped the replacement table: " + e.getMessage());
+			}
+		}
+		BitSet commonRows = new BitSet(embeddings.size());
+		for (String word : commonWords) {
+			int row = embeddings.indexOf(word);
+			if (row >= 0) {
+				commonRows.set(row);
+			}
+		}
+		snapshot = new Snapshot(commonWords, embeddings, commonRows, candidates, indexes[0], indexes[1], quantized,
+				table, snapshot.version() + 1);
+		Metrics.VOCABULARY_SIZE.set(embeddings.size());
+		Metrics.COMMON_WORDS.set(commonWords.size());
+		Metrics.CANDIDATES.set(candidates.size());
+	}
+
+	/**
+	 * Publishes the current data with other derived structures. Called with the
+	 * lock held.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Allocates one snapshot.
+	 */
+	private void publish(HnswIndex[] indexes, QuantizedCandidateStore quantized, ReplacementTable table) {
+		Snapshot current = snapshot;
+		snapshot = new Snapshot(current.commonWords(), current.embeddings(), current.commonRows(),
+				current.candidates(), indexes[0], indexes[1], quantized, table, current.version() + 1);
+	}
+
+	/**
+	 * Enables the approximate (HNSW) search indexes and builds them over the
+	 * current candidates. They are rebuilt whenever either file is reloaded.
+	 * 
+	 * Time Complexity: O(c * log c * efConstruction * n / p)
+	 * - Rationale: Builds one HNSW graph per supported metric on `p` threads;
+	 * see `HnswIndex`.
+	 * 
+	 * @param m              Number of links per node.
+	 * @param efConstruction Beam width used while building.
+	 */
+	public synchronized void enableApproximateIndex(int m, int efConstruction) {
+		if (m < 2 || efConstruction < 1) {
+			throw new IllegalArgumentException("M must be at least 2 and efConstruction at least 1");
+		}
+		this.indexM = m;
+		this.indexEfConstruction = efConstruction;
+		Snapshot current = snapshot;
+		publish(buildIndexes(current.candidates()), current.quantizedCandidates(), current.replacementTable());
+	}
+
+	/**
+	 * Disables and releases the approximate search indexes.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Drops two references.
+	 */
+	public synchronized void disableApproximateIndex() {
+		this.indexM = 0;
+		Snapshot current = snapshot;
+		publish(new HnswIndex[2], current.quantizedCandidates(), current.replacementTable());
+	}
+
+	/**
+	 * Retrieves the approximate index matching a similarity algorithm.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Checks the type of the algorithm.
+	 * 
+	 * @param algorithm The similarity algorithm.
+	 * @return The index built for the current candidates, or null if the
+	 *         algorithm is not supported or no index is enabled.
+	 */
+	public HnswIndex getApproximateIndex(AbstractSimilarityAlgorithm algorithm) {
+		return snapshot.getApproximateIndex(algorithm);
+	}
+
+	/**
+	 * Builds the cosine and Euclidean HNSW indexes over the given candidates.
+	 * 
+	 * Time Complexity: O(c * log c * efConstruction * n / p)
+	 * - Rationale: See `HnswIndex`.
+	 * 
+	 * @return The cosine and the Euclidean index, null if there are no
+	 *         candidates.
+	 */
+	private HnswIndex[] buildIndexes(CandidateStore store) {
+		if (store.isEmpty()) {
+			return new HnswIndex[2];
+		}
+		long start = System.nanoTime();
+		HnswIndex[] indexes = {
+				HnswIndex.build(store, HnswIndex.Metric.COSINE, indexM, indexEfConstruction),
+				HnswIndex.build(store, HnswIndex.Metric.EUCLIDEAN, indexM, indexEfConstruction) };
+		System.out.println("Built approximate indexes over " + store.size() + " candidates in "
+				+ (System.nanoTime() - start) / 1_000_000 + " ms.");
+		return indexes;
+	}
+
+	/**
+	 * Enables int8 quantized scoring and quantizes the current candidates. The
+	 * quantized copy speeds up the candidate scan and is kept next to the
+	 * candidates, so it adds memory; see `setPrecision` to store the embeddings
+	 * themselves as int8. It is rebuilt whenever either file is reloaded.
+	 * 
+	 * Time Complexity: O(c * n)
+	 * - Rationale: See `QuantizedCandidateStore.build`.
+	 */
+	public synchronized void enableQuantization() {
+		this.quantizationEnabled = true;
+		Snapshot current = snapshot;
+		publish(new HnswIndex[] { current.cosineIndex(), current.euclideanIndex() },
+				buildQuantizedCandidates(current.candidates()), current.replacementTable());
+	}
+
+	/**
+	 * Disables quantized scoring and releases the quantized candidates.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Drops a reference.
+	 */
+	public synchronized void disableQuantization() {
+		this.quantizationEnabled = false;
+		Snapshot current = snapshot;
+		publish(new HnswIndex[] { current.cosineIndex(), current.euclideanIndex() }, null,
+				current.replacementTable());
+	}
+
+	/**
+	 * Retrieves the int8 quantized copy of the current candidates.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a reference.
+	 * 
+	 * @return The quantized candidates, or null if quantization is disabled or
+	 *         the vectors could not be quantized.
+	 */
+	public QuantizedCandidateStore getQuantizedCandidates() {
+		return snapshot.quantizedCandidates();
+	}
+
+	/**
+	 * Quantizes the given candidates.
+	 * 
+	 * Time Complexity: O(c * n)
+	 * - Rationale: See `QuantizedCandidateStore.build`.
+	 * 
+	 * @return The quantized candidates, or null if they cannot be quantized.
+	 */
+	private QuantizedCandidateStore buildQuantizedCandidates(CandidateStore store) {
+		QuantizedCandidateStore quantized = QuantizedCandidateStore.build(store);
+		if (quantized != null) {
+			System.out.println("Quantized " + store.size() + " candidates into " + quantized.getMemoryBytes() / 1024
+					+ " KB.");
+		} else if (!store.isEmpty()) {
+			System.err.println("Unable to quantize candidates: every component is zero or not finite.");
+		}
+		return quantized;
+	}
+
+	/**
+	 * Precomputes the replacement of every loaded word, writes the table to a
+	 * file and uses it from then on. See `ReplacementTable.build`.
+	 * 
+	 * Time Complexity: O(s * w * k * n / p)
+	 * - Rationale: Each of the `s` selections scores the `w` words against the
+	 * `k` candidates of size `n` on `p` cores.
+	 * 
+	 * @param filePath   Path to the table file (overwritten).
+	 * @param selections The algorithm selections to precompute.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void buildReplacementTable(String filePath, List<List<AbstractSimilarityAlgorithm>> selections)
+			throws IOException {
+		Snapshot data = snapshot;
+		EmbeddingMatrix matrix = data.embeddings();
+		CandidateStore store = data.candidates();
+		long start = System.nanoTime();
+		ReplacementTable table = ReplacementTable.build(matrix, store, selections);
+		table.write(Path.of(filePath));
+		System.out.println("Precomputed " + table.getKeys().size() + " replacement columns for " + table.size()
+				+ " words in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+		synchronized (this) {
+			Snapshot current = snapshot;
+			if (current.candidates() == store) { // Unless a file was reloaded meanwhile
+				publish(new HnswIndex[] { current.cosineIndex(), current.euclideanIndex() },
+						current.quantizedCandidates(), table);
+			}
+		}
+	}
+
+	/**
+	 * Loads a replacement table written by `buildReplacementTable`. It is used
+	 * only while the loaded files are the ones it was built from.
+	 * 
+	 * Time Complexity: O(w * l)
+	 * - Rationale: See `ReplacementTable.bind`.
+	 * 
+	 * @param filePath Path to the table file.
+	 * @throws IOException              If the file cannot be read.
+	 * @throws IllegalArgumentException If the table was built from other files.
+	 */
+	public synchronized void loadReplacementTable(String filePath) throws IOException {
+		Snapshot current = snapshot;
+		ReplacementTable table = ReplacementTable.open(Path.of(filePath)).bind(current.embeddings(),
+				current.candidates());
+		publish(new HnswIndex[] { current.cosineIndex(), current.euclideanIndex() },
+				current.quantizedCandidates(), table);
+		System.out.println("Loaded " + table.getKeys().size() + " replacement columns for " + table.size()
+				+ " words.");
+	}
+
+	/**
+	 * Stops using the replacement table.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Drops a reference.
+	 */
+	public synchronized void clearReplacementTable() {
+		Snapshot current = snapshot;
+		publish(new HnswIndex[] { current.cosineIndex(), current.euclideanIndex() },
+				current.quantizedCandidates(), null);
+	}
+
+	/**
+	 * Retrieves the replacement table.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a reference.
+	 * 
+	 * @return The table bound to the loaded files, or null if none is loaded.
+	 */
+	public ReplacementTable getReplacementTable() {
+		return snapshot.replacementTable();
+	}
+
+	public Set<String> getCommonWords() {
+		return snapshot.commonWords();
 	}
 
 }
@@ -0,0 +1,689 @@
+package ie.atu.sw.embedding;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable storage engine for the word embeddings. Every vector is a row of
+ * one contiguous, row-major array with a fixed stride (the dimension), and a
+ * `VocabularyIndex` gives O(1) access to the row of a word without keeping a
+ * `String` per word. Compared with one `double[]` per word this removes the
+ * per-array object headers and halves (float32), quarters (bfloat16) or cuts
+ * to an eighth (int8) the space taken by the components, and a scan over
+ * consecutive rows walks memory linearly.
+ *
+ * Rows are read in place with `get` and `copyRow`; `getVector` decodes a row
+ * into a new `double[]` for the APIs that work with arrays. The components
+ * either live on the heap or, for a matrix opened with `EmbeddingSnapshot`,
+ * in read-only memory-mapped segments of the snapshot file. The Euclidean
+ * norm of every row is kept alongside.
+ */
+public final class EmbeddingMatrix {
+	/**
+	 * Storage format of the components.
+	 */
+	public enum Precision {
+		/**
+		 * IEEE 754 single precision, 4 bytes per component.
+		 */
+		FLOAT32(4),
+
+		/**
+		 * The upper half of a float32 (8-bit exponent, 7-bit mantissa), 2 bytes
+		 * per component. Keeps the range of float32 with about 3 significant
+		 * digits.
+		 */
+		BFLOAT16(2),
+
+		/**
+		 * Symmetric 8-bit codes with one float32 scale per row: component `x` is
+		 * stored as `round(x / scale)` in [-127, 127] where `scale = max|x| / 127`
+		 * over the row. Keeps about 2 significant digits of the largest
+		 * components of each row.
+		 */
+		INT8(1);
+
+		private final int componentBytes;
+
+		Precision(int componentBytes) {
+			this.componentBytes = componentBytes;
+		}
+
+		/**
+		 * Gets the number of bytes each component takes.
+		 *
+		 * Time Complexity: O(1)
+		 * - Rationale: Returns a field.
+		 */
+		public int getComponentBytes() {
+			return componentBytes;
+		}
+	}
+
+	private static final int INT8_LEVELS = 127;
+
+	/**
+	 * Shared empty matrix used before a word embeddings file has been loaded.
+	 */
+	public static final EmbeddingMatrix EMPTY = new Builder(Precision.FLOAT32).build();
+
+	private final VocabularyIndex vocabulary;
+	private final int dimension;
+	private final Precision precision;
+	private final float[] floats; // FLOAT32 components on the heap, null otherwise
+	private final short[] halves; // BFLOAT16 components on the heap, null otherwise
+	private final byte[] codes; // INT8 components on the heap, null otherwise
+	private final float[] scales; // INT8 scale of every row, on the heap or mapped; null otherwise
+	private final ByteBuffer[] segments; // Memory-mapped components, null otherwise
+	private final int rowsPerSegment;
+	private final float[] norms;
+
+	private EmbeddingMatrix(VocabularyIndex vocabulary, int dimension, Precision precision, float[] floats,
+			short[] halves, byte[] codes, float[] scales, ByteBuffer[] segments, int rowsPerSegment,
+			float[] norms) {
+		this.vocabulary = vocabulary;
+		this.dimension = dimension;
+		this.precision = precision;
+		this.floats = floats;
+		this.halves = halves;
+		this.codes = codes;
+		this.scales = scales;
+		this.segments = segments;
+		this.rowsPerSegment = rowsPerSegment;
+		this.norms = norms != null ? norms : computeNorms();
+	}
+
+	private static EmbeddingMatrix onHeap(VocabularyIndex vocabulary, int dimension, Precision precision,
+			float[] floats, short[] halves, byte[] codes, float[] scales) {
+		return new EmbeddingMatrix(vocabulary, dimension, precision, floats, halves, codes, scales, null, 0, null);
+	}
+
+	/**
+	 * Creates a matrix whose components are read from memory-mapped segments.
+	 * Each segment holds `rowsPerSegment` whole rows (the last one may hold
+	 * fewer), so no row straddles two segments.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Stores references; nothing is copied.
+	 *
+	 * @param segments Little-endian buffers positioned at their first row.
+	 * @param norms    The precomputed Euclidean norm of every row.
+	 * @param scales   The scale of every row for INT8, null otherwise.
+	 */
+	static EmbeddingMatrix mapped(VocabularyIndex vocabulary, int dimension, Precision precision,
+			ByteBuffer[] segments, int rowsPerSegment, float[] norms, float[] scales) {
+		return new EmbeddingMatrix(vocabulary, dimension, precision, null, null, null, scales, segments,
+				rowsPerSegment, norms);
+	}
+
+	/**
+	 * Gets the number of words (rows) in the matrix.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns the size of the vocabulary.
+	 */
+	public int size() {
+		return vocabulary.size();
+	}
+
+	public boolean isEmpty() {
+		return vocabulary.size() == 0;
+	}
+
+	/**
+	 * Gets the number of components per vector, i.e. the row stride.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	public Precision getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Looks up the row of a word without allocating.
+	 *
+	 * Time Complexity: O(l) expected
+	 * - Rationale: See `VocabularyIndex.indexOf`; `l` is the word length.
+	 *
+	 * @param word The word, already lowercased.
+	 * @return The row of the word, or -1 if the word has no vector.
+	 */
+	public int indexOf(String word) {
+		return vocabulary.indexOf(word);
+	}
+
+	/**
+	 * Looks up the row of a slice of a text whatever its case, without
+	 * allocating.
+	 *
+	 * Time Complexity: O(l) expected
+	 * - Rationale: See `VocabularyIndex.indexOfIgnoreCase`.
+	 *
+	 * @param text  The text holding the word.
+	 * @param start The position of the first character.
+	 * @param end   The position after the last character.
+	 * @return The row of the word, or -1 if the word has no vector.
+	 */
+	public int indexOfIgnoreCase(CharSequence text, int start, int end) {
+		return vocabulary.indexOfIgnoreCase(text, start, end);
+	}
+
+	/**
+	 * Gets the word stored in a row.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Decodes the `l` UTF-8 bytes of the word from the vocabulary.
+	 */
+	public String getWord(int row) {
+		return vocabulary.getWord(row);
+	}
+
+	VocabularyIndex getVocabulary() {
+		return vocabulary;
+	}
+
+	/**
+	 * Reads one component in place.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Array access at `row * dimension + column`.
+	 *
+	 * @param row    The row of the word.
+	 * @param column The component index.
+	 * @return The component widened to a double.
+	 */
+	public double get(int row, int column) {
+		if (segments != null) {
+			ByteBuffer segment = segments[row / rowsPerSegment];
+			int index = (row % rowsPerSegment) * dimension + column;
+			if (precision == Precision.FLOAT32) {
+				return segment.getFloat(index * 4);
+			}
+			return precision == Precision.BFLOAT16 ? decode(segment.getShort(index * 2))
+					: (double) segment.get(index) * scales[row];
+		}
+		int index = row * dimension + column;
+		if (floats != null) {
+			return floats[index];
+		}
+		return halves != null ? decode(halves[index]) : (double) codes[index] * scales[row];
+	}
+
+	/**
+	 * Copies one row into an existing array.
+	 *
+	 * Time Complexity: O(n)
+	 * - Rationale: Copies the `n` components of the row.
+	 *
+	 * @param row    The row of the word.
+	 * @param target The array to write to.
+	 * @param offset The position in `target` of the first component.
+	 */
+	public void copyRow(int row, double[] target, int offset) {
+		if (segments != null) {
+			ByteBuffer segment = segments[row / rowsPerSegment];
+			int start = (row % rowsPerSegment) * dimension;
+			if (precision == Precision.FLOAT32) {
+				for (int i = 0; i < dimension; i++) {
+					target[offset + i] = segment.getFloat((start + i) * 4);
+				}
+			} else if (precision == Precision.BFLOAT16) {
+				for (int i = 0; i < dimension; i++) {
+					target[offset + i] = decode(segment.getShort((start + i) * 2));
+				}
+			} else {
+				double scale = scales[row];
+				for (int i = 0; i < dimension; i++) {
+					target[offset + i] = segment.get(start + i) * scale;
+				}
+			}
+			return;
+		}
+		int start = row * dimension;
+		if (floats != null) {
+			for (int i = 0; i < dimension; i++) {
+				target[offset + i] = floats[start + i];
+			}
+		} else if (halves != null) {
+			for (int i = 0; i < dimension; i++) {
+				target[offset + i] = decode(halves[start + i]);
+			}
+		} else {
+			double scale = scales[row];
+			for (int i = 0; i < dimension; i++) {
+				target[offset + i] = codes[start + i] * scale;
+			}
+		}
+	}
+
+	/**
+	 * Reads the INT8 code of one component.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Array access at `row * dimension + column`.
+	 */
+	byte getCode(int row, int column) {
+		if (segments != null) {
+			return segments[row / rowsPerSegment].get((row % rowsPerSegment) * dimension + column);
+		}
+		return codes[row * dimension + column];
+	}
+
+	/**
+	 * Gets the INT8 scale of a row, i.e. the value of code 1.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Array access by index.
+	 */
+	float getScale(int row) {
+		return scales[row];
+	}
+
+	/**
+	 * Decodes one row into a new array.
+	 *
+	 * Time Complexity: O(n)
+	 * - Rationale: See `copyRow`.
+	 *
+	 * @param row The row of the word.
+	 * @return The vector of the word.
+	 */
+	public double[] getVector(int row) {
+		double[] vector = new double[dimension];
+		copyRow(row, vector, 0);
+		return vector;
+	}
+
+	/**
+	 * Gets the precomputed Euclidean norm of a row.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Array access by index.
+	 */
+	public double getNorm(int row) {
+		return norms[row];
+	}
+
+	/**
+	 * Checks if the components are read from a memory-mapped file rather than
+	 * kept on the heap.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Checks a field.
+	 */
+	public boolean isMapped() {
+		return segments != null;
+	}
+
+	/**
+	 * Gets the approximate heap footprint of the components, their scales, the
+	 * norms and the vocabulary. Memory-mapped components are not counted.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Arithmetic on array lengths.
+	 */
+	public long getMemoryBytes() {
+		long components = floats != null ? 4L * floats.length
+				: halves != null ? 2L * halves.length : codes != null ? codes.length : 0L;
+		long rowScales = scales != null ? 4L * scales.length : 0L;
+		return components + rowScales + 4L * norms.length + vocabulary.getMemoryBytes();
+	}
+
+	/**
+	 * Gets the number of bytes of components read from a memory-mapped file.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Arithmetic on the matrix size.
+	 */
+	public long getMappedBytes() {
+		return segments != null ? (long) size() * dimension * precision.getComponentBytes() : 0L;
+	}
+
+	/**
+	 * Computes the Euclidean norm of every row.
+	 *
+	 * Time Complexity: O(w * n)
+	 * - Rationale: Reads the `n` components of each of the `w` rows once.
+	 */
+	private float[] computeNorms() {
+		float[] result = new float[size()];
+		double[] row = new double[dimension];
+		for (int r = 0; r < result.length; r++) {
+			copyRow(r, row, 0);
+			double sum = 0.0;
+			for (double value : row) {
+				sum += value * value;
+			}
+			result[r] = (float) Math.sqrt(sum);
+		}
+		return result;
+	}
+
+	/**
+	 * Converts the matrix to another storage precision, on the heap. Converting
+	 * to a wider precision does not restore the discarded digits.
+	 *
+	 * Time Complexity: O(w * n)
+	 * - Rationale: Every one of the `w * n` components is converted once and the
+	 * norms are recomputed; the vocabulary is shared.
+	 *
+	 * @param target The precision to convert to.
+	 * @return This matrix if it already has that precision, a converted copy
+	 *         otherwise.
+	 */
+	public EmbeddingMatrix withPrecision(Precision target) {
+		if (target == precision) {
+			return this;
+		}
+		int length = size() * dimension;
+		double[] row = new double[dimension];
+		if (target == Precision.FLOAT32) {
+			float[] converted = new float[length];
+			for (int r = 0; r < size(); r++) {
+				copyRow(r, row, 0);
+				for (int i = 0; i < dimension; i++) {
+					converted[r * dimension + i] = (float) row[i];
+				}
+			}
+			return onHeap(vocabulary, dimension, target, converted, null, null, null);
+		}
+		if (target == Precision.BFLOAT16) {
+			short[] converted = new short[length];
+			for (int r = 0; r < size(); r++) {
+				copyRow(r, row, 0);
+				for (int i = 0; i < dimension; i++) {
+					converted[r * dimension + i] = encode((float) row[i]);
+				}
+			}
+			return onHeap(vocabulary, dimension, target, null, converted, null, null);
+		}
+		byte[] converted = new byte[length];
+		float[] rowScales = new float[size()];
+		for (int r = 0; r < size(); r++) {
+			copyRow(r, row, 0);
+			rowScales[r] = quantize(row, dimension, converted, r * dimension);
+		}
+		return onHeap(vocabulary, dimension, target, null, null, converted, rowScales);
+	}
+
+	/**
+	 * Rounds a float to the nearest bfloat16, ties to even.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: A few bit operations.
+	 */
+	static short encode(float value) {
+		int bits = Float.floatToRawIntBits(value);
+		if (Float.isNaN(value)) {
+			return (short) ((bits >>> 16) | 0x40); // Keep it a (quiet) NaN
+		}
+		return (short) ((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+	}
+
+	static float decode(short value) {
+		return Float.intBitsToFloat(value << 16);
+	}
+
+	/**
+	 * Encodes the first `length` components of `values` as INT8 codes into
+	 * `target`, starting at `offset`.
+	 *
+	 * Time Complexity: O(n)
+	 * - Rationale: Two passes over the `n` components, one to find the scale
+	 * and one to encode them.
+	 *
+	 * @return The scale of the row, 0 for an all-zero row.
+	 */
+	static float quantize(double[] values, int length, byte[] target, int offset) {
+		double maxAbs = 0.0;
+		for (int i = 0; i < length; i++) {
+			maxAbs = Math.max(maxAbs, Math.abs(values[i]));
+		}
+		float scale = (float) (maxAbs / INT8_LEVELS);
+		double inverse = scale == 0.0f ? 0.0 : 1.0 / scale;
+		for (int i = 0; i < length; i++) {
+			long code = Math.round(values[i] * inverse);
+			target[offset + i] = (byte) Math.max(-INT8_LEVELS, Math.min(INT8_LEVELS, code));
+		}
+		return scale;
+	}
+
+	/**
+	 * Accumulates rows into growable arrays and freezes them into a matrix. The
+	 * first row fixes the dimension; adding a word again replaces its row. A
+	 * builder hands its word index over to the matrix it builds, so it cannot be
+	 * used again afterwards.
+	 */
+	public static final class Builder {
+		private final Precision precision;
+		private final VocabularyIndex vocabulary = new VocabularyIndex();
+		private float[] floats;
+		private short[] halves;
+		private byte[] codes;
+		private float[] scales;
+		private int dimension = -1;
+		private int size;
+		private boolean built;
+
+		/**
+		 * Constructor for the Builder class.
+		 *
+		 * Time Complexity: O(1)
+		 * - Rationale: Allocates small initial arrays.
+		 *
+		 * @param precision The storage precision of the matrix to build.
+		 */
+		public Builder(Precision precision) {
+			this.precision = precision;
+		}
+
+		/**
+		 * Constructor for a builder whose dimension is known up front, e.g. one of
+		 * several builders that parse parts of the same file.
+		 *
+		 * Time Complexity: O(n)
+		 * - Rationale: Allocates room for 16 rows of `n` components.
+		 *
+		 * @param precision The storage precision of the matrix to build.
+		 * @param dimension The number of components of every row, or a negative
+		 *                  value to let the first row fix it.
+		 */
+		public Builder(Precision precision, int dimension) {
+			this.precision = precision;
+			if (dimension >= 0) {
+				this.dimension = dimension;
+				allocate(16 * Math.max(dimension, 1));
+			}
+		}
+
+		/**
+		 * Adds (or replaces) the vector of a word.
+		 *
+		 * Time Complexity: O(n) amortized
+		 * - Rationale: Copies the `n` components; the arrays grow by doubling.
+		 *
+		 * @param word   The word, already lowercased.
+		 * @param values The components; only the first `length` are used.
+		 * @param length The number of components.
+		 * @return False if `length` differs from the dimension of the rows added
+		 *         before, in which case nothing is added.
+		 */
+		public boolean add(String word, double[] values, int length) {
+			if (built) {
+				throw new IllegalStateException("Matrix already built");
+			}
+			if (dimension < 0) {
+				dimension = length;
+				allocate(16 * Math.max(length, 1));
+			} else if (length != dimension) {
+				return false;
+			}
+
+			int row = rowFor(vocabulary.add(word));
+			int start = row * dimension;
+			if (floats != null) {
+				for (int i = 0; i < length; i++) {
+					floats[start + i] = (float) values[i];
+				}
+			} else if (halves != null) {
+				for (int i = 0; i < length; i++) {
+					halves[start + i] = encode((float) values[i]);
+				}
+			} else {
+				scales[row] = quantize(values, length, codes, start);
+			}
+			return true;
+		}
+
+		/**
+		 * Adds every row of an existing matrix.
+		 *
+		 * Time Complexity: O(w * n)
+		 * - Rationale: Copies the `w` rows of `n` components.
+		 *
+		 * @param matrix The matrix to copy.
+		 * @return False if the matrix has a different dimension, in which case
+		 *         nothing is added.
+		 */
+		public boolean addAll(EmbeddingMatrix matrix) {
+			if (matrix.isEmpty()) {
+				return true;
+			}
+			if (dimension >= 0 && matrix.dimension != dimension) {
+				return false;
+			}
+			double[] row = new double[matrix.dimension];
+			for (int r = 0; r < matrix.size(); r++) {
+				matrix.copyRow(r, row, 0);
+				add(matrix.getWord(r), row, row.length);
+			}
+			return true;
+		}
+
+		/**
+		 * Moves every row of another builder with the same precision into this
+		 * one, in the order they were added there. Nothing is converted, so this
+		 * is how the partial results of a parallel parse are merged.
+		 *
+		 * Time Complexity: O(w * n)
+		 * - Rationale: Copies the `w` rows of `n` components with array copies.
+		 *
+		 * @param other The builder to copy; it must not be used afterwards.
+		 * @return False if the other builder has a different precision or
+		 *         dimension, in which case nothing is added.
+		 */
+		public boolean addAll(Builder other) {
+			if (built) {
+				throw new IllegalStateException("Matrix already built");
+			}
+			if (other.size == 0) {
+				return true;
+			}
+			if (other.precision != precision || (dimension >= 0 && other.dimension != dimension)) {
+				return false;
+			}
+			if (dimension < 0) {
+				dimension = other.dimension;
+				allocate(Math.max(other.size, 16) * Math.max(dimension, 1));
+			}
+			for (int r = 0; r < other.size; r++) {
+				int row = rowFor(vocabulary.add(other.vocabulary, r));
+				int start = row * dimension;
+				if (floats != null) {
+					System.arraycopy(other.floats, r * dimension, floats, start, dimension);
+				} else if (halves != null) {
+					System.arraycopy(other.halves, r * dimension, halves, start, dimension);
+				} else {
+					System.arraycopy(other.codes, r * dimension, codes, start, dimension);
+					scales[row] = other.scales[r];
+				}
+			}
+			other.built = true;
+			return true;
+		}
+
+		public int getDimension() {
+			return dimension;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Makes room for the components of a row just returned by the
+		 * vocabulary, which is new if it is the next row.
+		 *
+		 * Time Complexity: O(1) amortized
+		 * - Rationale: The arrays grow by doubling.
+		 */
+		private int rowFor(int row) {
+			if (row == size) {
+				size++;
+				ensureCapacity(size);
+			}
+			return row;
+		}
+
+		/**
+		 * Freezes the rows added so far into a matrix.
+		 *
+		 * Time Complexity: O(w * n)
+		 * - Rationale: Trims the arrays to the `w` rows of `n` components and
+		 * computes the norm of every row.
+		 */
+		public EmbeddingMatrix build() {
+			built = true;
+			int width = Math.max(dimension, 0);
+			vocabulary.trim();
+			if (precision == Precision.FLOAT32) {
+				float[] trimmed = floats != null ? Arrays.copyOf(floats, size * width) : new float[0];
+				return onHeap(vocabulary, width, precision, trimmed, null, null, null);
+			}
+			if (precision == Precision.BFLOAT16) {
+				short[] trimmed = halves != null ? Arrays.copyOf(halves, size * width) : new short[0];
+				return onHeap(vocabulary, width, precision, null, trimmed, null, null);
+			}
+			byte[] trimmed = codes != null ? Arrays.copyOf(codes, size * width) : new byte[0];
+			float[] rowScales = scales != null ? Arrays.copyOf(scales, size) : new float[0];
+			return onHeap(vocabulary, width, precision, null, null, trimmed, rowScales);
+		}
+
+		private void allocate(int components) {
+			if (precision == Precision.FLOAT32) {
+				floats = new float[components];
+			} else if (precision == Precision.BFLOAT16) {
+				halves = new short[components];
+			} else {
+				codes = new byte[components];
+				scales = new float[16];
+			}
+		}
+
+		private void ensureCapacity(int rowCount) {
+			long needed = (long) rowCount * dimension;
+			if (needed > Integer.MAX_VALUE - 8) {
+				throw new IllegalStateException("Too many embedding components for a single array: " + needed);
+			}
+			int current = floats != null ? floats.length : halves != null ? halves.length : codes.length;
+			if (needed > current) {
+				int grown = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * current));
+				if (floats != null) {
+					floats = Arrays.copyOf(floats, grown);
+				} else if (halves != null) {
+					halves = Arrays.copyOf(halves, grown);
+				} else {
+					codes = Arrays.copyOf(codes, grown);
+				}
+			}
+			if (scales != null && rowCount > scales.length) {
+				scales = Arrays.copyOf(scales, Math.max(rowCount, 2 * scales.length));
+			}
+		}
+	}
+}
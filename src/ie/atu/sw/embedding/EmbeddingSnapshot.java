@@ -0,0 +1,291 @@
+package ie.atu.sw.embedding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compact binary snapshot of an `EmbeddingMatrix`, written once and then
+ * opened with `FileChannel.map` instead of being parsed.
+ *
+ * Layout (little-endian):
+ * - Header (64 bytes): magic "VTSEMBED", format version, dimension, row
+ * count, precision, then the offset and length of the vocabulary block, the
+ * offset of the vector block, the offset of the norms block and the file
+ * length.
+ * - Vocabulary block: for every row, the length of the word in UTF-8 bytes
+ * (int) followed by the bytes.
+ * - Vector block, aligned to 64 bytes: the row-major float32, bfloat16 or
+ * int8 components.
+ * - Norms block, aligned to 8 bytes: one float32 Euclidean norm per row.
+ * - Scales block, int8 only, right after the norms: one float32 scale per
+ * row.
+ *
+ * Opening a snapshot copies only the vocabulary bytes into the word index and
+ * reads the per-row floats. The vectors stay in the mapped file, off the heap
+ * and in the page cache, which every JVM mapping the same file shares. Files
+ * larger than 2 GB are mapped as several segments of whole rows.
+ */
+public final class EmbeddingSnapshot {
+	private static final byte[] MAGIC = "VTSEMBED".getBytes(StandardCharsets.US_ASCII);
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int VECTOR_ALIGNMENT = 64;
+	private static final long MAX_SEGMENT_SIZE = 1L << 30; // Bytes per mapped vector segment
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private EmbeddingSnapshot() {
+	}
+
+	/**
+	 * Checks if a file starts with the snapshot magic.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads the first 8 bytes.
+	 *
+	 * @param path The file to check.
+	 * @return True if the file looks like a snapshot, false otherwise.
+	 */
+	public static boolean isSnapshot(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+				// Keep reading until the magic is complete or the file ends
+			}
+			return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes a matrix to a snapshot file.
+	 *
+	 * Time Complexity: O(w * n)
+	 * - Rationale: Writes the `n` components of each of the `w` rows once,
+	 * through a fixed-size buffer.
+	 *
+	 * @param matrix The matrix to write.
+	 * @param path   The snapshot file (overwritten).
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(EmbeddingMatrix matrix, Path path) throws IOException {
+		int rowCount = matrix.size();
+		int dimension = matrix.getDimension();
+		EmbeddingMatrix.Precision precision = matrix.getPrecision();
+		int elementSize = precision.getComponentBytes();
+		boolean scaled = precision == EmbeddingMatrix.Precision.INT8;
+
+		VocabularyIndex words = matrix.getVocabulary();
+		long vocabularyLength = 0;
+		for (int r = 0; r < rowCount; r++) {
+			vocabularyLength += 4 + words.getWordLength(r);
+		}
+		long vocabularyOffset = HEADER_SIZE;
+		long vectorOffset = align(vocabularyOffset + vocabularyLength, VECTOR_ALIGNMENT);
+		long normsOffset = align(vectorOffset + (long) rowCount * dimension * elementSize, 8);
+		long fileLength = normsOffset + (scaled ? 8L : 4L) * rowCount;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.put(MAGIC);
+			buffer.putInt(FORMAT_VERSION);
+			buffer.putInt(dimension);
+			buffer.putInt(rowCount);
+			buffer.putInt(precision.ordinal());
+			buffer.putLong(vocabularyOffset);
+			buffer.putLong(vocabularyLength);
+			buffer.putLong(vectorOffset);
+			buffer.putLong(normsOffset);
+			buffer.putLong(fileLength);
+
+			for (int r = 0; r < rowCount; r++) {
+				byte[] word = words.getWordBytes(r);
+				ensureRoom(channel, buffer, 4);
+				buffer.putInt(word.length);
+				for (int i = 0; i < word.length;) {
+					ensureRoom(channel, buffer, 1);
+					int chunk = Math.min(word.length - i, buffer.remaining());
+					buffer.put(word, i, chunk);
+					i += chunk;
+				}
+			}
+			pad(channel, buffer, vectorOffset - (vocabularyOffset + vocabularyLength));
+
+			double[] row = new double[dimension];
+			for (int r = 0; r < rowCount; r++) {
+				if (scaled) {
+					for (int i = 0; i < dimension; i++) {
+						ensureRoom(channel, buffer, 1);
+						buffer.put(matrix.getCode(r, i));
+					}
+					continue;
+				}
+				matrix.copyRow(r, row, 0);
+				for (int i = 0; i < dimension; i++) {
+					ensureRoom(channel, buffer, elementSize);
+					if (elementSize == 4) {
+						buffer.putFloat((float) row[i]);
+					} else {
+						buffer.putShort(EmbeddingMatrix.encode((float) row[i]));
+					}
+				}
+			}
+			pad(channel, buffer, normsOffset - (vectorOffset + (long) rowCount * dimension * elementSize));
+
+			for (int r = 0; r < rowCount; r++) {
+				ensureRoom(channel, buffer, 4);
+				buffer.putFloat((float) matrix.getNorm(r));
+			}
+			for (int r = 0; scaled && r < rowCount; r++) {
+				ensureRoom(channel, buffer, 4);
+				buffer.putFloat(matrix.getScale(r));
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * Opens a snapshot file. The vocabulary is copied into the word index and
+	 * the norms (and int8 scales) are read into arrays; the vectors are mapped,
+	 * not read.
+	 *
+	 * Time Complexity: O(w * l)
+	 * - Rationale: Hashes and copies the `w` words of average length `l`; mapping the
+	 * vector block costs O(1) per segment, its pages are loaded on demand.
+	 *
+	 * @param path The snapshot file.
+	 * @return A matrix backed by the mapped file.
+	 * @throws IOException If the file cannot be read or is not a valid
+	 *                     snapshot.
+	 */
+	public static EmbeddingMatrix open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw invalid(path, "file is shorter than the header");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			byte[] magic = new byte[MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw invalid(path, "bad magic");
+			}
+			int version = header.getInt();
+			int dimension = header.getInt();
+			int rowCount = header.getInt();
+			int precisionCode = header.getInt();
+			long vocabularyOffset = header.getLong();
+			long vocabularyLength = header.getLong();
+			long vectorOffset = header.getLong();
+			long normsOffset = header.getLong();
+			long fileLength = header.getLong();
+
+			if (version != FORMAT_VERSION) {
+				throw invalid(path, "unsupported format version " + version);
+			}
+			if (precisionCode < 0 || precisionCode >= EmbeddingMatrix.Precision.values().length) {
+				throw invalid(path, "unknown precision " + precisionCode);
+			}
+			EmbeddingMatrix.Precision precision = EmbeddingMatrix.Precision.values()[precisionCode];
+			boolean scaled = precision == EmbeddingMatrix.Precision.INT8;
+			long rowBytes = (long) dimension * precision.getComponentBytes();
+			if (dimension < 1 || rowCount < 0 || fileLength != size || vocabularyOffset < HEADER_SIZE
+					|| vocabularyLength > Integer.MAX_VALUE || vocabularyOffset + vocabularyLength > vectorOffset
+					|| vectorOffset + rowCount * rowBytes > normsOffset || normsOffset + (scaled ? 8L : 4L) * rowCount > size
+					|| rowBytes > MAX_SEGMENT_SIZE) {
+				throw invalid(path, "inconsistent header");
+			}
+
+			VocabularyIndex words = new VocabularyIndex(rowCount);
+			ByteBuffer vocabulary = channel.map(FileChannel.MapMode.READ_ONLY, vocabularyOffset, vocabularyLength)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			byte[] bytes = new byte[64];
+			for (int r = 0; r < rowCount; r++) {
+				if (vocabulary.remaining() < 4) {
+					throw invalid(path, "truncated vocabulary");
+				}
+				int length = vocabulary.getInt();
+				if (length < 0 || length > vocabulary.remaining()) {
+					throw invalid(path, "truncated vocabulary");
+				}
+				if (bytes.length < length) {
+					bytes = new byte[Math.max(length, bytes.length * 2)];
+				}
+				vocabulary.get(bytes, 0, length);
+				if (words.add(bytes, 0, length) != r) {
+					throw invalid(path, "duplicate word");
+				}
+			}
+			words.trim();
+
+			float[] norms = new float[rowCount];
+			if (rowCount > 0) {
+				channel.map(FileChannel.MapMode.READ_ONLY, normsOffset, 4L * rowCount)
+						.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(norms);
+			}
+			float[] scales = scaled ? new float[rowCount] : null;
+			if (scaled && rowCount > 0) {
+				channel.map(FileChannel.MapMode.READ_ONLY, normsOffset + 4L * rowCount, 4L * rowCount)
+						.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(scales);
+			}
+
+			int rowsPerSegment = (int) Math.min(Integer.MAX_VALUE, MAX_SEGMENT_SIZE / rowBytes);
+			int segmentCount = rowCount == 0 ? 0 : (rowCount + rowsPerSegment - 1) / rowsPerSegment;
+			ByteBuffer[] segments = new ByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long firstRow = (long) i * rowsPerSegment;
+				long segmentRows = Math.min(rowsPerSegment, rowCount - firstRow);
+				MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY,
+						vectorOffset + firstRow * rowBytes, segmentRows * rowBytes);
+				segments[i] = segment.order(ByteOrder.LITTLE_ENDIAN);
+			}
+			// The mappings stay valid after the channel is closed
+			return EmbeddingMatrix.mapped(words, dimension, precision, segments, Math.max(rowsPerSegment, 1), norms,
+					scales);
+		}
+	}
+
+	private static IOException invalid(Path path, String reason) {
+		return new IOException("Not a valid embedding snapshot (" + reason + "): " + path);
+	}
+
+	private static long align(long offset, int alignment) {
+		return (offset + alignment - 1) / alignment * alignment;
+	}
+
+	/**
+	 * Makes room for `bytes` more bytes, writing the buffer out if needed.
+	 */
+	private static void ensureRoom(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * Writes `count` zero bytes.
+	 */
+	private static void pad(FileChannel channel, ByteBuffer buffer, long count) throws IOException {
+		for (long i = 0; i < count; i++) {
+			ensureRoom(channel, buffer, 1);
+			buffer.put((byte) 0);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,447 @@
+package ie.atu.sw.embedding;
+
+import ie.atu.sw.utils.AsciiDoubleParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a text embeddings file ("word v1 v2 ..." per line, separated by
+ * commas and/or whitespace) on all cores.
+ *
+ * The file is cut into byte ranges that end right after a newline, and every
+ * range is memory-mapped and parsed by its own task on the common fork-join
+ * pool into its own `EmbeddingMatrix.Builder`. Numbers are parsed straight
+ * from the mapped bytes with `AsciiDoubleParser`, so no String is created per
+ * line or per number. The partial builders are merged in file order, which
+ * keeps the row order and the "last duplicate wins" rule of a sequential
+ * read. Ranges are mapped one at a time, so files larger than 2 GB work.
+ *
+ * Lines are handled exactly as `line.split("[,\\s]+")` would: a line with
+ * fewer than two fields is reported and skipped, an invalid number is reported
+ * and read as 0.0, and a line whose number of values differs from the first
+ * well-formed line of the file is counted as skipped. A first line made of
+ * exactly two integers is the "word count, dimension" header of the fastText
+ * `.vec` format and is skipped.
+ */
+public final class EmbeddingTextParser {
+	private static final long CHUNK_SIZE = 16L * 1024 * 1024; // Bytes per parsing task
+	private static final int BOUNDARY_WINDOW = 64 * 1024;
+	private static final int PROGRESS_STEP = 1024 * 1024; // Bytes parsed between two progress updates
+
+	private final Path path;
+	private final EmbeddingMatrix.Precision precision;
+	private LoadProgress progress = new LoadProgress();
+	private int dimension = -1;
+	private long lines;
+	private int malformed;
+	private int skipped;
+
+	/**
+	 * Constructor for the EmbeddingTextParser class.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Assigns fields.
+	 *
+	 * @param path      The text embeddings file.
+	 * @param precision The storage precision of the parsed matrix.
+	 */
+	public EmbeddingTextParser(Path path, EmbeddingMatrix.Precision precision) {
+		this.path = path;
+		this.precision = precision;
+	}
+
+	/**
+	 * The rows parsed from one byte range of the file.
+	 */
+	private record Chunk(EmbeddingMatrix.Builder builder, long lines, int malformed, int skipped) {
+	}
+
+	/**
+	 * Parses the whole file.
+	 *
+	 * Time Complexity: O(b / p + w * n)
+	 * - Rationale: The `b` bytes of the file are parsed by `p` cores in
+	 * parallel; merging the partial results copies the `w` rows of `n`
+	 * components once more, sequentially.
+	 *
+	 * @return The parsed matrix.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public EmbeddingMatrix parse() throws IOException {
+		return parse(new LoadProgress());
+	}
+
+	/**
+	 * Parses the whole file, reporting the bytes parsed so far.
+	 *
+	 * Time Complexity: O(b / p + w * n)
+	 * - Rationale: See `parse()`.
+	 *
+	 * @param progress Receives the file size, then the parsed bytes about
+	 *                 every megabyte of each range.
+	 * @return The parsed matrix.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public EmbeddingMatrix parse(LoadProgress progress) throws IOException {
+		this.progress = progress;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			progress.setTotal(size);
+			List<Long> boundaries = findBoundaries(channel, size);
+			long header = findHeader(channel, boundaries);
+			if (header > 0) {
+				boundaries.set(0, header); // The first range starts after the header
+				progress.add(header);
+			}
+			dimension = findDimension(channel, boundaries);
+
+			List<Future<Chunk>> futures = new ArrayList<>();
+			for (int i = 0; i + 1 < boundaries.size(); i++) {
+				long start = boundaries.get(i);
+				long end = boundaries.get(i + 1);
+				futures.add(ForkJoinPool.commonPool().submit(() -> parseChunk(channel, start, end)));
+			}
+
+			EmbeddingMatrix.Builder merged = new EmbeddingMatrix.Builder(precision, dimension);
+			lines = 0;
+			malformed = 0;
+			skipped = 0;
+			for (Future<Chunk> future : futures) {
+				Chunk chunk = join(future);
+				merged.addAll(chunk.builder());
+				lines += chunk.lines();
+				malformed += chunk.malformed();
+				skipped += chunk.skipped();
+			}
+			return merged.build();
+		}
+	}
+
+	/**
+	 * Gets the number of values per row, fixed by the first well-formed line.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 *
+	 * @return The dimension, or -1 if the file had no well-formed line.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Gets the number of lines of the file.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public long getLines() {
+		return lines;
+	}
+
+	/**
+	 * Gets the number of lines skipped because they have no value.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public int getMalformed() {
+		return malformed;
+	}
+
+	/**
+	 * Gets the number of lines skipped because their number of values differs
+	 * from the dimension.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public int getSkipped() {
+		return skipped;
+	}
+
+	private static Chunk join(Future<Chunk> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing word embeddings", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException io) {
+				throw io.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Cuts the file into ranges of about `CHUNK_SIZE` bytes, each ending right
+	 * after a newline (or at the end of the file).
+	 *
+	 * Time Complexity: O(b / CHUNK_SIZE * l)
+	 * - Rationale: For every nominal cut, reads forward to the end of the line
+	 * of length `l` it falls into.
+	 *
+	 * @return The start of every range followed by the file size.
+	 */
+	private static List<Long> findBoundaries(FileChannel channel, long size) throws IOException {
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(0L);
+		ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+		long position = CHUNK_SIZE;
+		while (position < size) {
+			long cut = -1;
+			long scan = position;
+			while (cut < 0 && scan < size) {
+				window.clear();
+				int read = channel.read(window, scan);
+				if (read <= 0) {
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					if (window.get(i) == '\n') {
+						cut = scan + i + 1;
+						break;
+					}
+				}
+				scan += read;
+			}
+			if (cut < 0 || cut >= size) {
+				break; // The rest of the file is a single line
+			}
+			if (cut - boundaries.get(boundaries.size() - 1) > Integer.MAX_VALUE) {
+				throw new IOException("Line longer than 2 GB in " + channel);
+			}
+			boundaries.add(cut);
+			position = cut + CHUNK_SIZE;
+		}
+		if (size - boundaries.get(boundaries.size() - 1) > Integer.MAX_VALUE) {
+			throw new IOException("Line longer than 2 GB in " + channel);
+		}
+		boundaries.add(size);
+		return boundaries;
+	}
+
+	/**
+	 * Finds the length of the header line of a fastText `.vec` file, i.e. a
+	 * first line holding exactly two integers: the word count and the
+	 * dimension. A real row has a word and at least one value, so only a
+	 * one-dimensional file whose first word is a number looks the same.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Reads the first line of length `l`.
+	 *
+	 * @return The number of bytes of the header line including its
+	 *         terminator, or 0 if the file has no header.
+	 */
+	private static long findHeader(FileChannel channel, List<Long> boundaries) throws IOException {
+		long length = boundaries.get(1) - boundaries.get(0);
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, boundaries.get(0), length);
+		int limit = buffer.limit();
+		int end = lineEnd(buffer, 0, limit);
+		if (countFields(buffer, 0, end) != 2 || isSeparator(buffer.get(0))) {
+			return 0;
+		}
+		for (int p = 0; p < end; p++) {
+			byte b = buffer.get(p);
+			if (!isSeparator(b) && (b < '0' || b > '9')) {
+				return 0;
+			}
+		}
+		return nextLine(buffer, end, limit);
+	}
+
+	/**
+	 * Finds the number of values on the first line that has at least two
+	 * fields, which every other row must match.
+	 *
+	 * Time Complexity: O(b)
+	 * - Rationale: Usually only reads the first line, but scans the whole file
+	 * of `b` bytes in the worst case.
+	 *
+	 * @return The dimension, or -1 if there is no such line.
+	 */
+	private static int findDimension(FileChannel channel, List<Long> boundaries) throws IOException {
+		for (int c = 0; c + 1 < boundaries.size(); c++) {
+			long start = boundaries.get(c);
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, boundaries.get(c + 1) - start);
+			int limit = buffer.limit();
+			int p = 0;
+			while (p < limit) {
+				int end = lineEnd(buffer, p, limit);
+				int fields = countFields(buffer, p, end);
+				if (fields >= 2) {
+					return fields - 1;
+				}
+				p = nextLine(buffer, end, limit);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses every line of one byte range.
+	 *
+	 * Time Complexity: O(r)
+	 * - Rationale: Reads each of the `r` bytes of the range once (twice for the
+	 * characters of a number).
+	 */
+	private Chunk parseChunk(FileChannel channel, long start, long end) {
+		ByteBuffer buffer;
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		EmbeddingMatrix.Builder builder = new EmbeddingMatrix.Builder(precision, dimension);
+		double[] vector = new double[Math.max(dimension, 0)];
+		byte[] wordBytes = new byte[64];
+		long lines = 0;
+		int malformed = 0;
+		int rejected = 0;
+
+		int limit = buffer.limit();
+		int p = 0;
+		int reported = 0;
+		while (p < limit) {
+			if (p - reported >= PROGRESS_STEP) {
+				progress.add(p - reported);
+				reported = p;
+			}
+			lines++;
+			int lineStart = p;
+			int lineEnd = lineEnd(buffer, p, limit);
+			p = nextLine(buffer, lineEnd, limit);
+
+			// The word; a leading separator makes it empty, as with String.split
+			int q = lineStart;
+			while (q < lineEnd && !isSeparator(buffer.get(q))) {
+				q++;
+			}
+			int wordLength = q - lineStart;
+			if (wordBytes.length < wordLength) {
+				wordBytes = new byte[Math.max(wordLength, wordBytes.length * 2)];
+			}
+			buffer.get(lineStart, wordBytes, 0, wordLength);
+
+			int length = 0;
+			while (true) {
+				while (q < lineEnd && isSeparator(buffer.get(q))) {
+					q++;
+				}
+				if (q >= lineEnd) {
+					break;
+				}
+				int numberStart = q;
+				while (q < lineEnd && !isSeparator(buffer.get(q))) {
+					q++;
+				}
+				double value;
+				try {
+					value = AsciiDoubleParser.parse(buffer, numberStart, q);
+				} catch (NumberFormatException e) {
+					System.err.println("Skipping invalid value in line: " + decode(buffer, lineStart, lineEnd));
+					value = 0.0;
+				}
+				if (length < vector.length) {
+					vector[length] = value;
+				}
+				length++;
+			}
+			if (length < 1) {
+				System.err.println("Skipping malformed line: " + decode(buffer, lineStart, lineEnd));
+				malformed++;
+				continue;
+			}
+			if (length != dimension) {
+				rejected++; // Every row of the matrix has the same dimension
+				continue;
+			}
+			String word = new String(wordBytes, 0, wordLength, StandardCharsets.UTF_8);
+			builder.add(word.toLowerCase(), vector, length);
+		}
+		progress.add(limit - reported);
+		return new Chunk(builder, lines, malformed, rejected);
+	}
+
+	/**
+	 * Counts the fields of a line the way `split("[,\\s]+")` does, i.e. a
+	 * leading separator yields an empty first field.
+	 */
+	private static int countFields(ByteBuffer buffer, int from, int to) {
+		int fields = 0;
+		int q = from;
+		if (q < to && isSeparator(buffer.get(q))) {
+			fields++;
+		}
+		while (q < to) {
+			while (q < to && isSeparator(buffer.get(q))) {
+				q++;
+			}
+			if (q < to) {
+				fields++;
+			}
+			while (q < to && !isSeparator(buffer.get(q))) {
+				q++;
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * Finds the end of the line starting at `from`, i.e. the position of its
+	 * '\n' or '\r', or `limit`.
+	 */
+	private static int lineEnd(ByteBuffer buffer, int from, int limit) {
+		int p = from;
+		while (p < limit) {
+			byte b = buffer.get(p);
+			if (b == '\n' || b == '\r') {
+				break;
+			}
+			p++;
+		}
+		return p;
+	}
+
+	/**
+	 * Skips the terminator at `end`, treating "\r\n" as one, like
+	 * `BufferedReader.readLine`.
+	 */
+	private static int nextLine(ByteBuffer buffer, int end, int limit) {
+		if (end >= limit) {
+			return limit;
+		}
+		if (buffer.get(end) == '\r' && end + 1 < limit && buffer.get(end + 1) == '\n') {
+			return end + 2;
+		}
+		return end + 1;
+	}
+
+	/**
+	 * Matches the regular expression `[,\\s]`.
+	 */
+	private static boolean isSeparator(byte b) {
+		return b == ' ' || b == ',' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+	}
+
+	private static String decode(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		buffer.get(from, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,467 @@
+package ie.atu.sw.embedding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import ie.atu.sw.utils.SimilarityKernels;
+
+/**
+ * Hierarchical Navigable Small World (HNSW) graph over the candidate vectors,
+ * used to find approximate nearest neighbours without scanning every
+ * candidate.
+ *
+ * Every candidate is a node on layer 0 and, with exponentially decreasing
+ * probability, on higher layers. A query greedily descends from the sparse top
+ * layer to layer 0, where a beam of `efSearch` nodes is explored. The graph is
+ * built by inserting the candidates concurrently on the common fork-join pool;
+ * each node's adjacency lists are guarded by the node's own monitor, so only
+ * writers of the same node contend.
+ */
+public class HnswIndex {
+	/**
+	 * Distance functions supported by the index.
+	 */
+	public enum Metric {
+		/** 1 - cosine similarity. */
+		COSINE,
+		/** Euclidean (L2) distance. */
+		EUCLIDEAN
+	}
+
+	/**
+	 * A node together with its distance to the query.
+	 */
+	private record Neighbour(int node, double distance) {
+	}
+
+	private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+	private static final Comparator<Neighbour> NEAREST_FIRST = Comparator.comparingDouble(Neighbour::distance);
+	private static final Comparator<Neighbour> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+	private final CandidateStore store;
+	private final Metric metric;
+	private final int m;
+	private final int maxLevelZeroLinks;
+	private final int efConstruction;
+	private final int[] levels;
+	// links[node][level] = { count, neighbour1, neighbour2, ... }
+	private final int[][][] links;
+	private final Object entryLock = new Object();
+	private volatile int entryPoint = -1;
+	private volatile int maxLevel = -1;
+
+	/**
+	 * Builds an index over every candidate of the store.
+	 *
+	 * Time Complexity: O(c * log c * efConstruction * n / p)
+	 * - Rationale: Each of the `c` candidates is inserted with a beam search of
+	 * width `efConstruction` over O(log c) layers, computing distances over `n`
+	 * dimensions. Insertions run on `p` threads.
+	 *
+	 * @param store          The candidates to index.
+	 * @param metric         The distance function.
+	 * @param m              Number of links per node on the upper layers (layer 0
+	 *                       keeps twice as many).
+	 * @param efConstruction Beam width used while building.
+	 * @return The built index.
+	 */
+	public static HnswIndex build(CandidateStore store, Metric metric, int m, int efConstruction) {
+		if (m < 2 || efConstruction < 1) {
+			throw new IllegalArgumentException("M must be at least 2 and efConstruction at least 1");
+		}
+		HnswIndex index = new HnswIndex(store, metric, m, efConstruction);
+		// Insert only once the index is fully constructed, as the worker threads
+		// read its fields
+		if (store.size() > 0) {
+			IntStream.range(1, store.size()).parallel().forEach(index::insert);
+		}
+		return index;
+	}
+
+	/**
+	 * Draws the level of every node and allocates its adjacency lists. Only node
+	 * 0, the entry point, is in the graph afterwards.
+	 *
+	 * Time Complexity: O(c * m)
+	 * - Rationale: Allocates O(m) links for each of the `c` candidates; the
+	 * expected number of levels per node is constant.
+	 */
+	private HnswIndex(CandidateStore store, Metric metric, int m, int efConstruction) {
+		this.store = store;
+		this.metric = metric;
+		this.m = m;
+		this.maxLevelZeroLinks = 2 * m;
+		this.efConstruction = Math.max(efConstruction, m);
+
+		int size = store.size();
+		this.levels = new int[size];
+		this.links = new int[size][][];
+
+		// A fixed seed makes the node levels reproducible for a given candidate
+		// store. The links are not: the concurrent insertions interleave
+		// differently from one build to the next
+		Random random = new Random(42);
+		double levelMultiplier = 1.0 / Math.log(m);
+		for (int node = 0; node < size; node++) {
+			int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+			levels[node] = level;
+			links[node] = new int[level + 1][];
+			for (int l = 0; l <= level; l++) {
+				links[node][l] = new int[(l == 0 ? maxLevelZeroLinks : m) + 1];
+			}
+		}
+
+		if (size > 0) {
+			entryPoint = 0;
+			maxLevel = levels[0];
+		}
+	}
+
+	public CandidateStore getStore() {
+		return store;
+	}
+
+	public Metric getMetric() {
+		return metric;
+	}
+
+	public int size() {
+		return store.size();
+	}
+
+	/**
+	 * Finds the approximate `k` nearest candidates to a query vector.
+	 *
+	 * Time Complexity: O(log c * efSearch * n)
+	 * - Rationale: Greedy descent through O(log c) layers, then a beam search of
+	 * width `efSearch` on layer 0; each distance costs O(n).
+	 *
+	 * @param query    The query vector.
+	 * @param k        The number of neighbours to return.
+	 * @param efSearch The beam width; larger is slower but more accurate.
+	 * @return Candidate indices, nearest first.
+	 */
+	public int[] search(double[] query, int k, int efSearch) {
+		int entry = entryPoint;
+		if (entry < 0) {
+			return new int[0];
+		}
+		if (query.length != store.getDimension()) {
+			throw new IllegalArgumentException("Vectors must have the same length");
+		}
+		double queryNorm = norm(query, 0, query.length);
+		Neighbour current = new Neighbour(entry, distance(query, queryNorm, entry));
+		for (int level = maxLevel; level > 0; level--) {
+			current = greedyClosest(query, queryNorm, current, level);
+		}
+
+		PriorityQueue<Neighbour> results = searchLayer(query, queryNorm, current, Math.max(efSearch, k), 0);
+		List<Neighbour> sorted = new ArrayList<>(results);
+		sorted.sort(NEAREST_FIRST);
+		int[] nearest = new int[Math.min(k, sorted.size())];
+		for (int i = 0; i < nearest.length; i++) {
+			nearest[i] = sorted.get(i).node();
+		}
+		return nearest;
+	}
+
+	/**
+	 * Inserts one node into the graph.
+	 *
+	 * Time Complexity: O(log c * efConstruction * n)
+	 * - Rationale: See `build`.
+	 */
+	private void insert(int node) {
+		double[] vector = store.getVector(node);
+		double nodeNorm = store.getNorm(node);
+		int level = levels[node];
+
+		int entry;
+		int topLevel;
+		synchronized (entryLock) {
+			entry = entryPoint;
+			topLevel = maxLevel;
+		}
+
+		Neighbour current = new Neighbour(entry, distance(vector, nodeNorm, entry));
+		for (int l = topLevel; l > level; l--) {
+			current = greedyClosest(vector, nodeNorm, current, l);
+		}
+
+		for (int l = Math.min(level, topLevel); l >= 0; l--) {
+			PriorityQueue<Neighbour> candidates = searchLayer(vector, nodeNorm, current, efConstruction, l);
+			List<Neighbour> nearestFirst = new ArrayList<>(candidates);
+			nearestFirst.removeIf(candidate -> candidate.node() == node);
+			if (nearestFirst.isEmpty()) {
+				continue;
+			}
+			nearestFirst.sort(NEAREST_FIRST);
+			List<Neighbour> selected = selectNeighbours(nearestFirst, m);
+
+			setNeighbours(node, vector, nodeNorm, selected, l);
+			for (Neighbour neighbour : selected) {
+				connect(neighbour.node(), node, neighbour.distance(), l);
+			}
+			current = nearestFirst.get(0);
+		}
+
+		if (level > topLevel) {
+			synchronized (entryLock) {
+				if (level > maxLevel) {
+					maxLevel = level;
+					entryPoint = node;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills the adjacency list of a node being inserted with its selected
+	 * neighbours. Another inserter may already have reached the node through a
+	 * higher layer and linked back into this list, so those links are merged
+	 * in rather than overwritten, and the list is pruned with the selection
+	 * heuristic if it overflows.
+	 *
+	 * Time Complexity: O(M^2 * n)
+	 * - Rationale: Merging compares the up to `2M` links already there with the
+	 * `M` selected ones; pruning is the same as in `connect`.
+	 */
+	private void setNeighbours(int node, double[] vector, double nodeNorm, List<Neighbour> selected, int level) {
+		synchronized (links[node]) {
+			int[] list = links[node][level];
+			int count = list[0];
+			int capacity = list.length - 1;
+			List<Neighbour> merged = new ArrayList<>(selected);
+			for (int i = 1; i <= count; i++) {
+				int linked = list[i];
+				if (selected.stream().noneMatch(neighbour -> neighbour.node() == linked)) {
+					merged.add(new Neighbour(linked, distance(vector, nodeNorm, linked)));
+				}
+			}
+			if (merged.size() > capacity) {
+				merged.sort(NEAREST_FIRST);
+				merged = selectNeighbours(merged, capacity);
+			}
+			list[0] = merged.size();
+			for (int i = 0; i < merged.size(); i++) {
+				list[i + 1] = merged.get(i).node();
+			}
+		}
+	}
+
+	/**
+	 * Adds a back link from `node` to `newNeighbour`, pruning the adjacency list
+	 * with the selection heuristic if it overflows.
+	 *
+	 * Time Complexity: O(M^2 * n)
+	 * - Rationale: Pruning compares each of the up to `2M` neighbours with the
+	 * ones already kept.
+	 */
+	private void connect(int node, int newNeighbour, double distance, int level) {
+		synchronized (links[node]) {
+			int[] list = links[node][level];
+			int count = list[0];
+			int capacity = list.length - 1;
+			if (count < capacity) {
+				list[count + 1] = newNeighbour;
+				list[0] = count + 1;
+				return;
+			}
+
+			double[] vector = store.getVector(node);
+			List<Neighbour> all = new ArrayList<>(count + 1);
+			all.add(new Neighbour(newNeighbour, distance));
+			for (int i = 1; i <= count; i++) {
+				all.add(new Neighbour(list[i], distance(vector, store.getNorm(node), list[i])));
+			}
+			all.sort(NEAREST_FIRST);
+			List<Neighbour> kept = selectNeighbours(all, capacity);
+			list[0] = kept.size();
+			for (int i = 0; i < kept.size(); i++) {
+				list[i + 1] = kept.get(i).node();
+			}
+		}
+	}
+
+	/**
+	 * Selects up to `max` neighbours with the HNSW heuristic: a candidate is kept
+	 * only if it is closer to the base node than to every neighbour already
+	 * kept, which spreads the links in different directions. Remaining slots are
+	 * filled with the closest discarded candidates.
+	 *
+	 * Time Complexity: O(s * max * n)
+	 * - Rationale: Each of the `s` candidates is compared with up to `max` kept
+	 * neighbours.
+	 */
+	private List<Neighbour> selectNeighbours(List<Neighbour> nearestFirst, int max) {
+		List<Neighbour> kept = new ArrayList<>(max);
+		List<Neighbour> discarded = new ArrayList<>();
+		for (Neighbour candidate : nearestFirst) {
+			if (kept.size() >= max) {
+				break;
+			}
+			double[] vector = store.getVector(candidate.node());
+			boolean diverse = true;
+			for (Neighbour other : kept) {
+				if (distance(vector, store.getNorm(candidate.node()), other.node()) < candidate.distance()) {
+					diverse = false;
+					break;
+				}
+			}
+			(diverse ? kept : discarded).add(candidate);
+		}
+		for (int i = 0; kept.size() < max && i < discarded.size(); i++) {
+			kept.add(discarded.get(i));
+		}
+		return kept;
+	}
+
+	/**
+	 * Moves greedily to the closest node on one layer.
+	 *
+	 * Time Complexity: O(h * M * n)
+	 * - Rationale: Each of the `h` hops evaluates up to `M` neighbours.
+	 */
+	private Neighbour greedyClosest(double[] query, double queryNorm, Neighbour start, int level) {
+		Neighbour current = start;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int neighbour : neighbours(current.node(), level)) {
+				double d = distance(query, queryNorm, neighbour);
+				if (d < current.distance()) {
+					current = new Neighbour(neighbour, d);
+					changed = true;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Beam search on one layer.
+	 *
+	 * Time Complexity: O(ef * M * n)
+	 * - Rationale: At most `ef` improving nodes are expanded, each with up to `M`
+	 * (or `2M` on layer 0) neighbours.
+	 *
+	 * @return A max-heap of the `ef` closest nodes found.
+	 */
+	private PriorityQueue<Neighbour> searchLayer(double[] query, double queryNorm, Neighbour entry, int ef,
+			int level) {
+		VisitedSet visited = new VisitedSet(ef * 8);
+		PriorityQueue<Neighbour> candidates = new PriorityQueue<>(NEAREST_FIRST);
+		PriorityQueue<Neighbour> results = new PriorityQueue<>(FARTHEST_FIRST);
+		candidates.add(entry);
+		results.add(entry);
+		visited.add(entry.node());
+
+		while (!candidates.isEmpty()) {
+			Neighbour closest = candidates.poll();
+			if (closest.distance() > results.peek().distance()) {
+				break;
+			}
+			for (int neighbour : neighbours(closest.node(), level)) {
+				if (!visited.add(neighbour)) {
+					continue;
+				}
+				double d = distance(query, queryNorm, neighbour);
+				if (results.size() < ef || d < results.peek().distance()) {
+					Neighbour next = new Neighbour(neighbour, d);
+					candidates.add(next);
+					results.add(next);
+					if (results.size() > ef) {
+						results.poll();
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Copies the adjacency list of a node so that it can be read while other
+	 * threads keep inserting.
+	 *
+	 * @return The neighbours of the node on the layer, none if the node is not
+	 *         on it.
+	 */
+	int[] neighbours(int node, int level) {
+		if (level > levels[node]) {
+			return new int[0];
+		}
+		synchronized (links[node]) {
+			int[] list = links[node][level];
+			int[] copy = new int[list[0]];
+			System.arraycopy(list, 1, copy, 0, copy.length);
+			return copy;
+		}
+	}
+
+	private double distance(double[] query, double queryNorm, int node) {
+		double[] data = store.getData();
+		int offset = store.getOffset(node);
+		if (metric == Metric.COSINE) {
+			double dot = KERNELS.dot(query, data, offset, query.length);
+			return 1.0 - dot / (queryNorm * store.getNorm(node));
+		}
+		return Math.sqrt(KERNELS.euclideanSquares(query, data, offset, query.length));
+	}
+
+	private static double norm(double[] values, int from, int length) {
+		return Math.sqrt(KERNELS.squares(values, from, length));
+	}
+
+	/**
+	 * Open-addressing set of visited node ids. A search only touches a small
+	 * part of the graph, so this stays far smaller than a flag per node.
+	 */
+	private static final class VisitedSet {
+		private int[] slots;
+		private int size;
+
+		VisitedSet(int expected) {
+			slots = new int[Integer.highestOneBit(Math.max(expected, 8) * 2)];
+		}
+
+		/**
+		 * Adds a node id.
+		 *
+		 * Time Complexity: O(1) amortized
+		 * - Rationale: Linear probing in a table kept at most half full.
+		 *
+		 * @return True if the id was not in the set yet.
+		 */
+		boolean add(int node) {
+			int key = node + 1; // 0 marks an empty slot
+			int mask = slots.length - 1;
+			int i = (key * 0x9E3779B9) >>> 1 & mask;
+			while (slots[i] != 0) {
+				if (slots[i] == key) {
+					return false;
+				}
+				i = (i + 1) & mask;
+			}
+			slots[i] = key;
+			if (++size * 2 > slots.length) {
+				grow();
+			}
+			return true;
+		}
+
+		private void grow() {
+			int[] old = slots;
+			slots = new int[old.length * 2];
+			size = 0;
+			for (int key : old) {
+				if (key != 0) {
+					add(key - 1);
+				}
+			}
+		}
+	}
+}
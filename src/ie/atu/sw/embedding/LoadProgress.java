@@ -0,0 +1,69 @@
+package ie.atu.sw.embedding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The number of bytes of a file read so far by a load, which another thread
+ * can poll to show a progress meter. Parsing threads add to it concurrently.
+ */
+public class LoadProgress {
+	private final AtomicLong done = new AtomicLong();
+	private volatile long total = -1;
+
+	/**
+	 * Sets the size of the file once it is known.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Assigns a volatile field.
+	 * 
+	 * @param total The number of bytes to read.
+	 */
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	/**
+	 * Counts bytes that were read.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: One atomic addition.
+	 */
+	public void add(long bytes) {
+		done.addAndGet(bytes);
+	}
+
+	/**
+	 * Marks the whole file as read, e.g. when it was mapped rather than parsed.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Assigns two fields.
+	 */
+	public void complete() {
+		if (total < 0) {
+			total = 0;
+		}
+		done.set(total);
+	}
+
+	/**
+	 * Gets the number of bytes read so far.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads an atomic counter.
+	 */
+	public long getDone() {
+		return done.get();
+	}
+
+	/**
+	 * Gets the size of the file.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads a volatile field.
+	 * 
+	 * @return The number of bytes to read, or -1 while unknown.
+	 */
+	public long getTotal() {
+		return total;
+	}
+}
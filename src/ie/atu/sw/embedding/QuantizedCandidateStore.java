@@ -0,0 +1,200 @@
+package ie.atu.sw.embedding;
+
+import ie.atu.sw.utils.VectorMetrics;
+
+/**
+ * Int8 copy of a `CandidateStore` for fast approximate scans.
+ *
+ * All candidate vectors are quantized symmetrically with one shared scale,
+ * i.e. component `x` is stored as `round(x / scale)` in [-127, 127] where
+ * `scale = max|x| / 127` over every candidate, and all codes live in one
+ * contiguous byte array. A query is quantized with the same scale, so the dot
+ * product and the L1, L2 and L-infinity distances are all computed from
+ * integer code products and differences; only the final sums are scaled back.
+ * The exact sum and sum of squares of every candidate come from the source
+ * store, so the norms are exact and only the cross terms are approximated.
+ *
+ * This is a scan accelerator, not a memory saving: the codes are an extra
+ * byte per candidate component next to the source store, which
+ * `ScoringEngine.rerank` needs through `getSource()` to re-score the best few
+ * candidates exactly. The memory of the vectors themselves is cut by storing
+ * the embedding matrix as `EmbeddingMatrix.Precision.INT8`.
+ */
+public final class QuantizedCandidateStore {
+	private static final int LEVELS = 127;
+	private static final int MAX_QUERY_CODE = 1 << 16; // Keeps the code products within an int
+
+	private final CandidateStore source;
+	private final int dimension;
+	private final byte[] codes;
+	private final double scale;
+
+	private QuantizedCandidateStore(CandidateStore source, int dimension, byte[] codes, double scale) {
+		this.source = source;
+		this.dimension = dimension;
+		this.codes = codes;
+		this.scale = scale;
+	}
+
+	/**
+	 * A query vector together with its codes in the scale of the store.
+	 */
+	public static final class Query {
+		private final double[] values;
+		private final int[] codes;
+		private final double sum;
+
+		private Query(double[] values, int[] codes) {
+			this.values = values;
+			this.codes = codes;
+			double total = 0.0;
+			for (double x : values) {
+				total += x;
+			}
+			this.sum = total;
+		}
+
+		public double[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Quantizes every vector of a candidate store.
+	 *
+	 * Time Complexity: O(c * n)
+	 * - Rationale: The `c` candidate vectors of size `n` are read twice, once
+	 * to find the shared scale and once to encode them.
+	 *
+	 * @param source The candidate store to quantize.
+	 * @return The quantized store, or null if the store is empty or all its
+	 *         components are zero.
+	 */
+	public static QuantizedCandidateStore build(CandidateStore source) {
+		if (source.isEmpty() || source.getDimension() == 0) {
+			return null;
+		}
+		int count = source.size();
+		int dimension = source.getDimension();
+		double[] data = source.getData();
+		double maxAbs = 0.0;
+		for (int c = 0; c < count; c++) {
+			int offset = source.getOffset(c);
+			for (int i = 0; i < dimension; i++) {
+				maxAbs = Math.max(maxAbs, Math.abs(data[offset + i]));
+			}
+		}
+		if (maxAbs == 0.0 || Double.isNaN(maxAbs) || Double.isInfinite(maxAbs)) {
+			return null;
+		}
+
+		double scale = maxAbs / LEVELS;
+		byte[] codes = new byte[count * dimension];
+		for (int c = 0; c < count; c++) {
+			int offset = source.getOffset(c);
+			for (int i = 0; i < dimension; i++) {
+				codes[c * dimension + i] = (byte) Math.round(data[offset + i] / scale);
+			}
+		}
+		return new QuantizedCandidateStore(source, dimension, codes, scale);
+	}
+
+	/**
+	 * Quantizes a query vector with the scale of the store. Components beyond
+	 * the range of the candidates keep codes beyond [-127, 127], up to a bound
+	 * far past any candidate.
+	 *
+	 * Time Complexity: O(n)
+	 * - Rationale: Reads the query vector of size `n` once.
+	 *
+	 * @param query The query vector.
+	 * @return The query with its codes.
+	 */
+	public Query quantize(double[] query) {
+		if (query.length != dimension) {
+			throw new IllegalArgumentException("Vectors must have the same length");
+		}
+		int[] queryCodes = new int[dimension];
+		for (int i = 0; i < dimension; i++) {
+			long code = Math.round(query[i] / scale);
+			queryCodes[i] = (int) Math.max(-MAX_QUERY_CODE, Math.min(MAX_QUERY_CODE, code));
+		}
+		return new Query(query, queryCodes);
+	}
+
+	/**
+	 * Computes the approximate pairwise sums between a quantized query and a
+	 * candidate into `metrics`, which must have been given the same query with
+	 * `VectorMetrics.setQuery`.
+	 *
+	 * Time Complexity: O(n)
+	 * - Rationale: Reads the `n` codes of the candidate once. Every sum is an
+	 * integer multiply-add or absolute difference per component against the
+	 * query codes; the min/max sums used by Jaccard follow from the L1
+	 * distance and the exact component sums.
+	 *
+	 * @param metrics   The metrics to fill.
+	 * @param query     The quantized query.
+	 * @param index     Index of the candidate.
+	 * @param distances True to also compute the distance sums.
+	 */
+	public void accumulate(VectorMetrics metrics, Query query, int index, boolean distances) {
+		int[] q = query.codes;
+		int offset = index * dimension;
+		long dot = 0;
+		if (!distances) {
+			for (int i = 0; i < dimension; i++) {
+				dot += q[i] * codes[offset + i];
+			}
+			metrics.setProductSums(dot * scale * scale, source.getSum(index), source.getSquares(index));
+			return;
+		}
+
+		long l1 = 0;
+		long l2 = 0;
+		int linf = 0;
+		for (int i = 0; i < dimension; i++) {
+			int code = codes[offset + i];
+			dot += q[i] * code;
+			int diff = Math.abs(q[i] - code);
+			l1 += diff;
+			l2 += (long) diff * diff;
+			linf = Math.max(linf, diff);
+		}
+		metrics.setProductSums(dot * scale * scale, source.getSum(index), source.getSquares(index));
+		double manhattan = l1 * scale;
+		// min(a, b) = (a + b - |a - b|) / 2 and max(a, b) = (a + b + |a - b|) / 2
+		double total = query.sum + source.getSum(index);
+		metrics.setDistanceSums(manhattan, l2 * scale * scale, linf * scale, (total - manhattan) / 2,
+				(total + manhattan) / 2);
+	}
+
+	/**
+	 * Gets the full-precision store the codes were built from.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public CandidateStore getSource() {
+		return source;
+	}
+
+	public int size() {
+		return source.size();
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Gets the number of bytes used by the quantized codes, on top of the
+	 * source store.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns an array length.
+	 */
+	public long getMemoryBytes() {
+		return codes.length;
+	}
+}
@@ -0,0 +1,438 @@
+package ie.atu.sw.embedding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+
+/**
+ * Precomputed replacements for the whole vocabulary. With a fixed candidate
+ * set, the "most similar" and "least similar" replacement of every word is
+ * deterministic, so it can be computed once, offline, and looked up at run time
+ * without any vector math.
+ *
+ * The table has one column per selection of algorithms and method, e.g. "most
+ * similar" with Cosine, holding the candidate index of every embedding row, or
+ * -1 for common words and rows without a replacement.
+ *
+ * File layout (little-endian):
+ * - Header (56 bytes): magic "VTSREPLT", format version, row count, candidate
+ * count, column count, bytes per candidate index (2 or 4), then the
+ * vocabulary fingerprint, the offset of the index block and the file length.
+ * - Candidate words and column keys: for each, the length in UTF-8 bytes (int)
+ * followed by the bytes.
+ * - Index block, aligned to 8 bytes: the columns one after the other, each
+ * with one candidate index per embedding row.
+ *
+ * A table only applies to the embeddings it was built from: it records a
+ * fingerprint of their words and norms and the candidate words, and `bind`
+ * checks both. The index block is mapped rather than read.
+ */
+public final class ReplacementTable {
+	private static final byte[] MAGIC = "VTSREPLT".getBytes(StandardCharsets.US_ASCII);
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 56;
+	private static final int BLOCK_ROWS = 1024; // Vocabulary rows scored per batch
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private final String[] candidateWords;
+	private final String[] keys;
+	private final ByteBuffer[] columns;
+	private final int indexBytes;
+	private final int rowCount;
+	private final long fingerprint;
+	private final EmbeddingMatrix embeddings; // Bound embeddings, or null
+	private final CandidateStore candidates; // Bound candidates, or null
+
+	private ReplacementTable(String[] candidateWords, String[] keys, ByteBuffer[] columns, int indexBytes,
+			int rowCount, long fingerprint, EmbeddingMatrix embeddings, CandidateStore candidates) {
+		this.candidateWords = candidateWords;
+		this.keys = keys;
+		this.columns = columns;
+		this.indexBytes = indexBytes;
+		this.rowCount = rowCount;
+		this.fingerprint = fingerprint;
+		this.embeddings = embeddings;
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Computes the replacement of every embedding row under each selection of
+	 * algorithms, for both the "most similar" and the "least similar" method.
+	 * The rows are scored in batches with `ScoringEngine.scoreBatch`, which
+	 * spreads them over every core, and the best candidate is picked exactly as
+	 * `Simplify` picks it, so the table gives the same replacements as scoring.
+	 *
+	 * Time Complexity: O(s * w * k * n / p)
+	 * - Rationale: Each of the `s` selections scores the `w` rows against the
+	 * `k` candidates of size `n` on `p` cores.
+	 *
+	 * @param embeddings The word embeddings.
+	 * @param candidates The candidates built from the embeddings.
+	 * @param selections The algorithm selections to precompute, one column pair
+	 *                   each.
+	 * @return A table bound to the embeddings and candidates.
+	 */
+	public static ReplacementTable build(EmbeddingMatrix embeddings, CandidateStore candidates,
+			List<List<AbstractSimilarityAlgorithm>> selections) {
+		if (embeddings.isEmpty() || candidates.isEmpty()) {
+			throw new IllegalStateException("Both the word embeddings and the common words must be loaded.");
+		}
+		int rows = embeddings.size();
+		int count = candidates.size();
+		int indexBytes = count <= Short.MAX_VALUE ? 2 : 4;
+		Set<String> candidateSet = Set.of(candidateWords(candidates));
+
+		List<String> keys = new ArrayList<>();
+		List<ByteBuffer> columns = new ArrayList<>();
+		for (List<AbstractSimilarityAlgorithm> algorithms : selections) {
+			ScoringEngine engine = new ScoringEngine(algorithms);
+			ByteBuffer most = ByteBuffer.allocate(rows * indexBytes).order(ByteOrder.LITTLE_ENDIAN);
+			ByteBuffer least = ByteBuffer.allocate(rows * indexBytes).order(ByteOrder.LITTLE_ENDIAN);
+			for (int from = 0; from < rows; from += BLOCK_ROWS) {
+				int to = Math.min(from + BLOCK_ROWS, rows);
+				int[] queryRows = IntStream.range(from, to)
+						.filter(r -> !candidateSet.contains(embeddings.getWord(r))).toArray();
+				double[][] queries = new double[queryRows.length][];
+				for (int q = 0; q < queryRows.length; q++) {
+					queries[q] = embeddings.getVector(queryRows[q]);
+				}
+				double[][] scores = engine.scoreBatch(queries, candidates);
+				for (int r = from; r < to; r++) {
+					put(most, indexBytes, r, -1); // Common words keep themselves
+					put(least, indexBytes, r, -1);
+				}
+				for (int q = 0; q < queryRows.length; q++) {
+					put(most, indexBytes, queryRows[q], ScoringEngine.findBest(scores[q], algorithms, count, true));
+					put(least, indexBytes, queryRows[q],
+							ScoringEngine.findBest(scores[q], algorithms, count, false));
+				}
+			}
+			keys.add(key(algorithms, "most similar"));
+			columns.add(most);
+			keys.add(key(algorithms, "least similar"));
+			columns.add(least);
+		}
+		return new ReplacementTable(candidateWords(candidates), keys.toArray(new String[0]),
+				columns.toArray(new ByteBuffer[0]), indexBytes, rows, fingerprint(embeddings), embeddings,
+				candidates);
+	}
+
+	/**
+	 * Writes the table to a file.
+	 *
+	 * Time Complexity: O(c * w)
+	 * - Rationale: Writes the `w` indices of each of the `c` columns once,
+	 * through a fixed-size buffer.
+	 *
+	 * @param path The table file (overwritten).
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void write(Path path) throws IOException {
+		byte[][] strings = new byte[candidateWords.length + keys.length][];
+		long stringsLength = 0;
+		for (int i = 0; i < strings.length; i++) {
+			String value = i < candidateWords.length ? candidateWords[i] : keys[i - candidateWords.length];
+			strings[i] = value.getBytes(StandardCharsets.UTF_8);
+			stringsLength += 4 + strings[i].length;
+		}
+		long indexOffset = align(HEADER_SIZE + stringsLength, 8);
+		long fileLength = indexOffset + (long) columns.length * rowCount * indexBytes;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.put(MAGIC);
+			buffer.putInt(FORMAT_VERSION);
+			buffer.putInt(rowCount);
+			buffer.putInt(candidateWords.length);
+			buffer.putInt(keys.length);
+			buffer.putInt(indexBytes);
+			buffer.putLong(fingerprint);
+			buffer.putLong(indexOffset);
+			buffer.putLong(fileLength);
+			buffer.putInt(0); // Padding to the header size
+
+			for (byte[] string : strings) {
+				ensureRoom(channel, buffer, 4);
+				buffer.putInt(string.length);
+				for (int i = 0; i < string.length;) {
+					ensureRoom(channel, buffer, 1);
+					int chunk = Math.min(string.length - i, buffer.remaining());
+					buffer.put(string, i, chunk);
+					i += chunk;
+				}
+			}
+			for (long i = HEADER_SIZE + stringsLength; i < indexOffset; i++) {
+				ensureRoom(channel, buffer, 1);
+				buffer.put((byte) 0);
+			}
+			for (ByteBuffer column : columns) {
+				ByteBuffer source = column.duplicate().clear();
+				while (source.hasRemaining()) {
+					ensureRoom(channel, buffer, 1);
+					int chunk = Math.min(source.remaining(), buffer.remaining());
+					buffer.put(buffer.position(), source, source.position(), chunk);
+					buffer.position(buffer.position() + chunk);
+					source.position(source.position() + chunk);
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * Opens a table file. The candidate words and column keys are decoded and
+	 * the index block is mapped. The table must be bound to the loaded
+	 * embeddings before it is used.
+	 *
+	 * Time Complexity: O(k + c)
+	 * - Rationale: Decodes the `k` candidate words and `c` column keys; mapping
+	 * costs O(1) per column.
+	 *
+	 * @param path The table file.
+	 * @return An unbound table backed by the mapped file.
+	 * @throws IOException If the file cannot be read or is not a valid table.
+	 */
+	public static ReplacementTable open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw invalid(path, "file is shorter than the header");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			byte[] magic = new byte[MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw invalid(path, "bad magic");
+			}
+			int version = header.getInt();
+			int rowCount = header.getInt();
+			int candidateCount = header.getInt();
+			int columnCount = header.getInt();
+			int indexBytes = header.getInt();
+			long fingerprint = header.getLong();
+			long indexOffset = header.getLong();
+			long fileLength = header.getLong();
+
+			if (version != FORMAT_VERSION) {
+				throw invalid(path, "unsupported format version " + version);
+			}
+			long columnBytes = (long) rowCount * indexBytes;
+			if (rowCount < 0 || candidateCount < 0 || columnCount < 0 || (indexBytes != 2 && indexBytes != 4)
+					|| fileLength != size || indexOffset < HEADER_SIZE || indexOffset > Integer.MAX_VALUE
+					|| columnBytes > Integer.MAX_VALUE || indexOffset + columnCount * columnBytes != size) {
+				throw invalid(path, "inconsistent header");
+			}
+
+			ByteBuffer strings = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, indexOffset - HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			String[] candidateWords = new String[candidateCount];
+			for (int i = 0; i < candidateCount; i++) {
+				candidateWords[i] = readString(strings, path);
+			}
+			String[] keys = new String[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				keys[i] = readString(strings, path);
+			}
+
+			ByteBuffer[] columns = new ByteBuffer[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				columns[i] = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset + i * columnBytes, columnBytes)
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+			// The mappings stay valid after the channel is closed
+			return new ReplacementTable(candidateWords, keys, columns, indexBytes, rowCount, fingerprint, null,
+					null);
+		}
+	}
+
+	/**
+	 * Binds the table to loaded embeddings and candidates, after checking that
+	 * it was built from the same vocabulary, vectors and candidate words.
+	 *
+	 * Time Complexity: O(w * l + k)
+	 * - Rationale: Fingerprints the `w` words of average length `l` and compares
+	 * the `k` candidate words.
+	 *
+	 * @param embeddings The loaded word embeddings.
+	 * @param candidates The candidates built from them.
+	 * @return A table bound to them.
+	 * @throws IllegalArgumentException If the table was built from other files.
+	 */
+	public ReplacementTable bind(EmbeddingMatrix embeddings, CandidateStore candidates) {
+		if (embeddings.size() != rowCount || fingerprint(embeddings) != fingerprint) {
+			throw new IllegalArgumentException("The replacement table was built from other word embeddings.");
+		}
+		if (!new HashSet<>(Arrays.asList(candidateWords)).equals(Set.of(candidateWords(candidates)))) {
+			throw new IllegalArgumentException("The replacement table was built from other common words.");
+		}
+		return new ReplacementTable(candidateWords, keys, columns, indexBytes, rowCount, fingerprint, embeddings,
+				candidates);
+	}
+
+	/**
+	 * Checks if the table is bound to the given candidates, i.e. still matches
+	 * the loaded files.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Compares a reference.
+	 */
+	public boolean isBoundTo(CandidateStore candidates) {
+		return this.candidates != null && this.candidates == candidates;
+	}
+
+	/**
+	 * Finds the column precomputed for a selection of algorithms and a method.
+	 *
+	 * Time Complexity: O(c * a)
+	 * - Rationale: Compares the key of the selection with the `c` column keys.
+	 *
+	 * @param algorithms The selected algorithms, in order.
+	 * @param method     The replacement method.
+	 * @return The column, or -1 if the table does not cover the selection.
+	 */
+	public int findColumn(List<AbstractSimilarityAlgorithm> algorithms, String method) {
+		if (algorithms.isEmpty()) {
+			return -1;
+		}
+		String key = key(algorithms, method.toLowerCase());
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Looks up the replacement of a word.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: One row lookup in the bound embeddings and one read from the
+	 * mapped column.
+	 *
+	 * @param column A column found by `findColumn`.
+	 * @param word   The lowercased word.
+	 * @return The replacement, or null if the word is not in the vocabulary or
+	 *         has no precomputed replacement.
+	 */
+	public String lookup(int column, String word) {
+		int row = embeddings.indexOf(word);
+		return row >= 0 ? lookup(column, row) : null;
+	}
+
+	/**
+	 * Looks up the replacement of the word of a row of the bound embeddings.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: One read from the mapped column.
+	 *
+	 * @param column A column found by `findColumn`.
+	 * @param row    The row of the word in the embeddings the table is bound to.
+	 * @return The replacement, or null if the word has no precomputed
+	 *         replacement.
+	 */
+	public String lookup(int column, int row) {
+		ByteBuffer indices = columns[column];
+		int candidate = indexBytes == 2 ? indices.getShort(row * 2) : indices.getInt(row * 4);
+		return candidate >= 0 ? candidateWords[candidate] : null;
+	}
+
+	/**
+	 * Gets the keys of the precomputed columns, e.g. "most similar:Cosine".
+	 */
+	public List<String> getKeys() {
+		return List.of(keys);
+	}
+
+	public int size() {
+		return rowCount;
+	}
+
+	private static String key(List<AbstractSimilarityAlgorithm> algorithms, String method) {
+		return method + ":" + algorithms.stream().map(AbstractSimilarityAlgorithm::getName)
+				.collect(Collectors.joining(","));
+	}
+
+	private static String[] candidateWords(CandidateStore candidates) {
+		String[] words = new String[candidates.size()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = candidates.getWord(i);
+		}
+		return words;
+	}
+
+	/**
+	 * Hashes the words, in row order, and the norms of the embeddings, so that
+	 * a table is not applied to another vocabulary or to other vectors.
+	 */
+	private static long fingerprint(EmbeddingMatrix embeddings) {
+		long hash = 0xcbf29ce484222325L; // 64-bit FNV-1a over ints
+		hash = (hash ^ embeddings.getDimension()) * 0x100000001b3L;
+		for (int r = 0; r < embeddings.size(); r++) {
+			hash = (hash ^ embeddings.getWord(r).hashCode()) * 0x100000001b3L;
+			hash = (hash ^ Float.floatToIntBits((float) embeddings.getNorm(r))) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static void put(ByteBuffer column, int indexBytes, int row, int candidate) {
+		if (indexBytes == 2) {
+			column.putShort(row * 2, (short) candidate);
+		} else {
+			column.putInt(row * 4, candidate);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer, Path path) throws IOException {
+		if (buffer.remaining() < 4) {
+			throw invalid(path, "truncated strings");
+		}
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw invalid(path, "truncated strings");
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static IOException invalid(Path path, String reason) {
+		return new IOException("Not a valid replacement table (" + reason + "): " + path);
+	}
+
+	private static long align(long offset, int alignment) {
+		return (offset + alignment - 1) / alignment * alignment;
+	}
+
+	/**
+	 * Makes room for `bytes` more bytes, writing the buffer out if needed.
+	 */
+	private static void ensureRoom(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush(channel, buffer);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
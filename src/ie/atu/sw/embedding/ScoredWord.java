@@ -0,0 +1,10 @@
+package ie.atu.sw.embedding;
+
+/**
+ * A candidate word together with its score under a similarity algorithm.
+ *
+ * @param word  The candidate word.
+ * @param score The score of the candidate against the query word.
+ */
+public record ScoredWord(String word, double score) {
+}
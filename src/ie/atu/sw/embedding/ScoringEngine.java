@@ -0,0 +1,339 @@
+package ie.atu.sw.embedding;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.utils.SimilarityKernels;
+import ie.atu.sw.utils.VectorMetrics;
+
+/**
+ * Scores a query vector against every candidate with all the selected
+ * similarity algorithms at once. The sums required by every built-in
+ * algorithm are accumulated in a single fused pass per candidate and each
+ * algorithm then derives its score from those sums; other algorithms score
+ * whole blocks of candidates through their bulk `calculateAll`.
+ */
+public class ScoringEngine {
+	private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+	private static final int BLOCK_BYTES = 16 * 1024; // Candidate rows scored per block, well within L1
+	private static final int TILE_BYTES = 128 * 1024; // Candidate rows per product tile, within L2
+	private static final int QUERY_TILE = 32; // Query rows per product tile, a multiple of four
+
+	private final AbstractSimilarityAlgorithm[] algorithms;
+	private final boolean distances;
+	private final boolean vectors;
+	private final int[] fused; // Algorithms scored from the shared sums
+	private final int[] bulk; // Algorithms scored through calculateAll
+
+	/**
+	 * Constructor for the ScoringEngine class.
+	 *
+	 * Time Complexity: O(a)
+	 * - Rationale: Copies the `a` selected algorithms into an array.
+	 *
+	 * @param algorithms The selected similarity algorithms, in order.
+	 */
+	public ScoringEngine(List<AbstractSimilarityAlgorithm> algorithms) {
+		this.algorithms = algorithms.toArray(new AbstractSimilarityAlgorithm[0]);
+		boolean needsDistances = false, needsVectors = false;
+		for (AbstractSimilarityAlgorithm algorithm : this.algorithms) {
+			needsDistances |= algorithm.usesDistanceSums();
+			needsVectors |= algorithm.usesVectors();
+		}
+		this.distances = needsDistances;
+		this.vectors = needsVectors;
+		this.fused = IntStream.range(0, this.algorithms.length).filter(a -> !this.algorithms[a].usesVectors())
+				.toArray();
+		this.bulk = IntStream.range(0, this.algorithms.length).filter(a -> this.algorithms[a].usesVectors())
+				.toArray();
+	}
+
+	/**
+	 * Gets the number of scores produced per candidate.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns the length of an array.
+	 */
+	public int getAlgorithmCount() {
+		return algorithms.length;
+	}
+
+	/**
+	 * Scores the query against every candidate.
+	 *
+	 * The candidates are scanned in blocks of rows that fit in the L1 cache.
+	 * Within a block, the algorithms that derive their score from shared sums
+	 * (see `AbstractSimilarityAlgorithm.usesVectors`) are scored in one fused
+	 * pass per candidate using the sums precomputed in the store; every other
+	 * algorithm then scores the whole block, which is still in cache, through
+	 * its bulk `AbstractSimilarityAlgorithm.calculateAll`, i.e. with one call
+	 * per block instead of one per candidate.
+	 *
+	 * Time Complexity: O(k * (1 + b) * n + k * a)
+	 * - Rationale: The fused pass reads each of the `k` candidate vectors of
+	 * size `n` once and derives O(a) scores from the sums; each of the `b`
+	 * bulk algorithms reads them once more, from cache.
+	 *
+	 * @param query      The query vector.
+	 * @param candidates The precomputed candidate store.
+	 * @return A row-major matrix with one row per candidate and one column per
+	 *         algorithm, i.e. the score of candidate `c` under algorithm `a` is
+	 *         at index `c * getAlgorithmCount() + a`.
+	 */
+	public double[] score(double[] query, CandidateStore candidates) {
+		checkDimension(query, candidates);
+		int width = algorithms.length;
+		int count = candidates.size();
+		int stride = candidates.getDimension();
+		double[] scores = new double[count * width];
+		double[] data = candidates.getData();
+		VectorMetrics metrics = new VectorMetrics();
+		metrics.setQuery(query);
+
+		int blockRows = Math.max(1, BLOCK_BYTES / (Double.BYTES * Math.max(stride, 1)));
+		double[] column = new double[Math.min(blockRows, count)];
+		for (int from = 0; from < count; from += blockRows) {
+			int to = Math.min(from + blockRows, count);
+			if (fused.length > 0) {
+				for (int c = from; c < to; c++) {
+					metrics.accumulate(query, data, candidates.getOffset(c), candidates.getSum(c),
+							candidates.getSquares(c), distances);
+					for (int a : fused) {
+						scores[c * width + a] = algorithms[a].calculate(metrics, query, null);
+					}
+				}
+			}
+			for (int a : bulk) {
+				algorithms[a].calculateAll(query, data, from, to, stride, column);
+				for (int c = from; c < to; c++) {
+					scores[c * width + a] = column[c - from];
+				}
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Picks the best (or worst) candidate from a score matrix. Each algorithm
+	 * ranks by its own direction and the first candidate with the highest (or
+	 * lowest) score under any algorithm wins; scores are not normalised across
+	 * algorithms, and NaN scores never win.
+	 *
+	 * Time Complexity: O(a * k)
+	 * - Rationale: Reads each of the `a` scores of the `k` candidates once.
+	 *
+	 * @param scores      The row-major candidate by algorithm score matrix.
+	 * @param algorithms  The algorithms the scores were computed with, in order.
+	 * @param count       The number of candidates.
+	 * @param mostSimilar True for the most similar candidate, false for the least
+	 *                    similar one.
+	 * @return The index of the candidate, or -1 if no score qualifies.
+	 */
+	public static int findBest(double[] scores, List<AbstractSimilarityAlgorithm> algorithms, int count,
+			boolean mostSimilar) {
+		int width = algorithms.size();
+		// The starting bound follows the direction of the first algorithm
+		boolean higher = algorithms.get(0).isHigherBetter() == mostSimilar;
+		double bestScore = higher ? -Double.MAX_VALUE : Double.MAX_VALUE;
+		int best = -1;
+		for (int a = 0; a < width; a++) {
+			boolean wantHigher = algorithms.get(a).isHigherBetter() == mostSimilar;
+			for (int c = 0; c < count; c++) {
+				double score = scores[c * width + a];
+				if (wantHigher ? score > bestScore : score < bestScore) {
+					bestScore = score;
+					best = c;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Scores a batch of queries, e.g. the distinct words of a paragraph,
+	 * against every candidate at once.
+	 *
+	 * When every algorithm derives its score from the dot product and the
+	 * per-vector sums (Cosine and Pearson), the dot products of all queries
+	 * with all candidates are computed as one matrix-matrix product, tiled so
+	 * that a tile of candidates is reused from cache by a whole tile of
+	 * queries, with four queries per pass over a candidate. The tiles are
+	 * spread over the common fork-join pool. Other algorithms are scored one
+	 * query at a time, with the queries in parallel. Either way the scores are
+	 * the same as from `score(double[], CandidateStore)`.
+	 *
+	 * Time Complexity: O(q * k * n / p + q * k * a)
+	 * - Rationale: The `q` queries are compared with the `k` candidates of size
+	 * `n` on `p` cores; the `a` scores of every pair are then derived from the
+	 * dot product and the precomputed sums.
+	 *
+	 * @param queries    The query vectors.
+	 * @param candidates The precomputed candidate store.
+	 * @return One score matrix per query, laid out as in
+	 *         `score(double[], CandidateStore)`.
+	 */
+	public double[][] scoreBatch(double[][] queries, CandidateStore candidates) {
+		for (double[] query : queries) {
+			checkDimension(query, candidates);
+		}
+		double[][] scores = new double[queries.length][];
+		if (distances || vectors) {
+			IntStream.range(0, queries.length).parallel().forEach(q -> scores[q] = score(queries[q], candidates));
+			return scores;
+		}
+
+		int count = candidates.size();
+		int width = algorithms.length;
+		double[] dots = multiply(queries, candidates);
+		IntStream.range(0, queries.length).parallel().forEach(q -> {
+			VectorMetrics metrics = new VectorMetrics();
+			metrics.setQuery(queries[q]);
+			double[] row = new double[count * width];
+			for (int c = 0; c < count; c++) {
+				metrics.setProductSums(dots[q * count + c], candidates.getSum(c), candidates.getSquares(c));
+				for (int a = 0; a < width; a++) {
+					row[c * width + a] = algorithms[a].calculate(metrics, queries[q], null);
+				}
+			}
+			scores[q] = row;
+		});
+		return scores;
+	}
+
+	/**
+	 * Computes the dot product of every query with every candidate, i.e. the
+	 * product of the query matrix with the transposed candidate matrix.
+	 *
+	 * Time Complexity: O(q * k * n / p)
+	 * - Rationale: Every one of the `q * k` dot products of size `n` is computed
+	 * once; the tiles are independent and run on `p` cores.
+	 *
+	 * @return The row-major query by candidate matrix of dot products.
+	 */
+	private static double[] multiply(double[][] queries, CandidateStore candidates) {
+		int count = candidates.size();
+		int n = candidates.getDimension();
+		double[] data = candidates.getData();
+
+		// Packed query rows, padded with zero rows to a multiple of four
+		int padded = (queries.length + 3) / 4 * 4;
+		double[] packed = new double[padded * n];
+		for (int q = 0; q < queries.length; q++) {
+			System.arraycopy(queries[q], 0, packed, q * n, n);
+		}
+
+		double[] dots = new double[queries.length * count];
+		int tileRows = Math.max(1, TILE_BYTES / (Double.BYTES * Math.max(n, 1)));
+		int candidateTiles = (count + tileRows - 1) / tileRows;
+		int queryTiles = (padded + QUERY_TILE - 1) / QUERY_TILE;
+		IntStream.range(0, candidateTiles * queryTiles).parallel().forEach(tile -> {
+			int candidateFrom = (tile % candidateTiles) * tileRows;
+			int candidateTo = Math.min(candidateFrom + tileRows, count);
+			int queryFrom = (tile / candidateTiles) * QUERY_TILE;
+			int queryTo = Math.min(queryFrom + QUERY_TILE, padded);
+			double[] sums = new double[4];
+			for (int q = queryFrom; q < queryTo; q += 4) {
+				for (int c = candidateFrom; c < candidateTo; c++) {
+					KERNELS.dot4(packed, q * n, n, data, candidates.getOffset(c), n, sums);
+					for (int j = 0; j < 4 && q + j < queries.length; j++) {
+						dots[(q + j) * count + c] = sums[j];
+					}
+				}
+			}
+		});
+		return dots;
+	}
+
+	/**
+	 * Scores the query against every candidate of a quantized store. The scores
+	 * are approximate; see `QuantizedCandidateStore`.
+	 *
+	 * Time Complexity: O(k * n)
+	 * - Rationale: Each of the `k` candidates is scanned once through its `n`
+	 * one-byte codes.
+	 *
+	 * @param query      The query vector.
+	 * @param candidates The quantized candidate store.
+	 * @return The approximate score matrix, laid out as in
+	 *         `score(double[], CandidateStore)`.
+	 */
+	public double[] score(double[] query, QuantizedCandidateStore candidates) {
+		int width = algorithms.length;
+		double[] scores = new double[candidates.size() * width];
+		CandidateStore source = candidates.getSource();
+		QuantizedCandidateStore.Query quantized = candidates.quantize(query);
+		VectorMetrics metrics = new VectorMetrics();
+		metrics.setQuery(query);
+
+		for (int c = 0; c < candidates.size(); c++) {
+			candidates.accumulate(metrics, quantized, c, distances);
+			// Algorithms without a fused form fall back to the exact vector
+			double[] candidate = vectors ? source.getVector(c) : null;
+			for (int a = 0; a < width; a++) {
+				scores[c * width + a] = algorithms[a].calculate(metrics, query, candidate);
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Re-scores, with full precision, the `count` best candidates of every
+	 * algorithm column of an approximate score matrix. Every other candidate is
+	 * scored NaN, which no comparison ever selects, so picking the best (or
+	 * worst) of the returned matrix only considers exactly scored candidates.
+	 *
+	 * Time Complexity: O(k * a * log r + a * r * n)
+	 * - Rationale: The `k` approximate scores of each of the `a` algorithms are
+	 * offered to a bounded heap of size `r`, then at most `a * r` candidate
+	 * vectors of size `n` are scored exactly.
+	 *
+	 * @param query       The query vector.
+	 * @param candidates  The full-precision candidate store.
+	 * @param approximate The approximate score matrix.
+	 * @param count       The number of candidates to re-score per algorithm.
+	 * @param mostSimilar True to re-score the most similar candidates, false for
+	 *                    the least similar ones.
+	 * @return The score matrix with exact scores for the re-scored candidates.
+	 */
+	public double[] rerank(double[] query, CandidateStore candidates, double[] approximate, int count,
+			boolean mostSimilar) {
+		int width = algorithms.length;
+		boolean[] selected = new boolean[candidates.size()];
+		for (int a = 0; a < width; a++) {
+			TopKCollector best = new TopKCollector(count, algorithms[a].isHigherBetter() == mostSimilar);
+			for (int c = 0; c < candidates.size(); c++) {
+				best.offer(c, approximate[c * width + a]);
+			}
+			for (int i = 0; i < best.size(); i++) {
+				selected[best.indexAt(i)] = true;
+			}
+		}
+
+		double[] scores = new double[approximate.length];
+		Arrays.fill(scores, Double.NaN);
+		VectorMetrics metrics = new VectorMetrics();
+		metrics.setQuery(query);
+		checkDimension(query, candidates);
+		double[] data = candidates.getData();
+		for (int c = 0; c < candidates.size(); c++) {
+			if (!selected[c]) {
+				continue;
+			}
+			metrics.accumulate(query, data, candidates.getOffset(c), candidates.getSum(c),
+					candidates.getSquares(c), distances);
+			double[] candidate = vectors ? candidates.getVector(c) : null;
+			for (int a = 0; a < width; a++) {
+				scores[c * width + a] = algorithms[a].calculate(metrics, query, candidate);
+			}
+		}
+		return scores;
+	}
+
+	private static void checkDimension(double[] query, CandidateStore candidates) {
+		if (query.length != candidates.getDimension()) {
+			throw new IllegalArgumentException("Vectors must have the same length");
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package ie.atu.sw.embedding;
+
+/**
+ * Keeps the `k` best scores seen so far in a bounded binary heap of primitive
+ * arrays, so ranking `n` candidates costs O(n log k) with no boxing and no
+ * full sort. The root of the heap is always the weakest score kept, which is
+ * the one a better candidate replaces.
+ */
+public final class TopKCollector {
+	private final int capacity;
+	private final boolean higherIsBetter;
+	private final int[] indices;
+	private final double[] scores;
+	private int size;
+
+	/**
+	 * Constructor for the TopKCollector class.
+	 *
+	 * Time Complexity: O(k)
+	 * - Rationale: Allocates two arrays of size `k`.
+	 *
+	 * @param k              The number of entries to keep.
+	 * @param higherIsBetter True to keep the highest scores, false to keep the
+	 *                       lowest.
+	 */
+	public TopKCollector(int k, boolean higherIsBetter) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be at least 1");
+		}
+		this.capacity = k;
+		this.higherIsBetter = higherIsBetter;
+		this.indices = new int[k];
+		this.scores = new double[k];
+	}
+
+	/**
+	 * Offers a scored candidate to the collector.
+	 *
+	 * Time Complexity: O(log k)
+	 * - Rationale: At most one sift through a heap of height log k. Candidates
+	 * that are not better than the weakest kept score are rejected in O(1).
+	 *
+	 * @param index The index of the candidate.
+	 * @param score The score of the candidate.
+	 */
+	public void offer(int index, double score) {
+		if (size < capacity) {
+			indices[size] = index;
+			scores[size] = score;
+			siftUp(size++);
+		} else if (isBetter(score, scores[0])) {
+			indices[0] = index;
+			scores[0] = score;
+			siftDown(0);
+		}
+	}
+
+	/**
+	 * Gets the number of collected entries.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the collected candidates ordered best first. The collector is
+	 * emptied by this call.
+	 *
+	 * Time Complexity: O(k log k)
+	 * - Rationale: Repeatedly removes the weakest entry from the heap.
+	 *
+	 * @param store The store the indices refer to.
+	 * @return The collected candidates, best first.
+	 */
+	public ScoredWord[] drain(CandidateStore store) {
+		ScoredWord[] result = new ScoredWord[size];
+		while (size > 0) {
+			result[size - 1] = new ScoredWord(store.getWord(indices[0]), scores[0]);
+			size--;
+			indices[0] = indices[size];
+			scores[0] = scores[size];
+			siftDown(0);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the index of the candidate at a random position of the collected
+	 * entries.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Array access.
+	 *
+	 * @param position A position between 0 and `size() - 1`.
+	 * @return The candidate index stored at that position.
+	 */
+	public int indexAt(int position) {
+		return indices[position];
+	}
+
+	private boolean isBetter(double a, double b) {
+		return higherIsBetter ? a > b : a < b;
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!isBetter(scores[parent], scores[i])) {
+				break;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i) {
+		while (true) {
+			int left = 2 * i + 1;
+			if (left >= size) {
+				break;
+			}
+			int weakest = left;
+			int right = left + 1;
+			if (right < size && isBetter(scores[left], scores[right])) {
+				weakest = right;
+			}
+			if (!isBetter(scores[i], scores[weakest])) {
+				break;
+			}
+			swap(i, weakest);
+			i = weakest;
+		}
+	}
+
+	private void swap(int a, int b) {
+		int index = indices[a];
+		indices[a] = indices[b];
+		indices[b] = index;
+		double score = scores[a];
+		scores[a] = scores[b];
+		scores[b] = score;
+	}
+}
@@ -0,0 +1,428 @@
+package ie.atu.sw.embedding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import ie.atu.sw.utils.CaseFolding;
+
+/**
+ * Primitive word to row index of an `EmbeddingMatrix`. The words are stored
+ * back to back as UTF-8 in a single byte arena, row `r` spanning
+ * `offsets[r]` to `offsets[r + 1]`, and an open-addressing table with linear
+ * probing maps the hash of a word to its row. Each slot holds the hash next to
+ * the row, so a probe only reads the arena of a row whose hash matches.
+ * Compared with a `HashMap<String, Integer>` this keeps no `String`, no boxed
+ * `Integer` and no map node per word: about 24 bytes per word on top of its
+ * UTF-8 bytes instead of more than 80.
+ *
+ * Lookups hash and compare the characters of the word against the arena by
+ * encoding them on the fly, so `indexOf` allocates nothing; `indexOfIgnoreCase`
+ * also lowers them on the fly, so a token can be looked up straight from the
+ * text it was read from. Rows are numbered in insertion order and adding a
+ * word that is already there returns its row. The index grows while a matrix
+ * is built and is not modified once the matrix is published.
+ */
+final class VocabularyIndex {
+	private static final int NO_ROW = -1;
+	private static final int FNV_OFFSET = 0x811C9DC5;
+	private static final int FNV_PRIME = 0x01000193;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private byte[] arena = new byte[256];
+	private int[] offsets = new int[17];
+	private int[] hashes = new int[16]; // Hash of every row, so probing and growing never rehash the bytes
+	private int[] slots; // Hash and row of every slot, NO_ROW when empty
+	private int mask; // Number of slots - 1
+	private int size;
+
+	/**
+	 * Constructor for the VocabularyIndex class.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Allocates small initial arrays.
+	 */
+	VocabularyIndex() {
+		this(16);
+	}
+
+	/**
+	 * Constructor for an index whose number of words is known up front.
+	 *
+	 * Time Complexity: O(w)
+	 * - Rationale: Allocates a table for `w` words.
+	 *
+	 * @param expectedWords The number of words that will be added.
+	 */
+	VocabularyIndex(int expectedWords) {
+		allocateSlots(tableCapacity(Math.max(expectedWords, 16)));
+		if (expectedWords > 16) {
+			offsets = new int[expectedWords + 1];
+			hashes = new int[expectedWords];
+		}
+	}
+
+	/**
+	 * Gets the number of words in the index.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns a field.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Looks up the row of a word without allocating.
+	 *
+	 * Time Complexity: O(l) expected
+	 * - Rationale: Hashes the `l` characters of the word, then probes a table
+	 * kept at most half full and compares the bytes of the rows whose hash
+	 * matches.
+	 *
+	 * @param word The word, already lowercased.
+	 * @return The row of the word, or -1 if it is not in the index.
+	 */
+	int indexOf(CharSequence word) {
+		return find(word, 0, word.length(), false);
+	}
+
+	/**
+	 * Looks up the row of a slice of a text, lowercased, without allocating.
+	 * Stored words are lowercased, so this finds a word whatever its case.
+	 *
+	 * Time Complexity: O(l) expected
+	 * - Rationale: See `indexOf`; each character is also lowered, see
+	 * `CaseFolding`.
+	 *
+	 * @param text  The text holding the word.
+	 * @param start The position of the first character.
+	 * @param end   The position after the last character.
+	 * @return The row of the word, or -1 if it is not in the index.
+	 */
+	int indexOfIgnoreCase(CharSequence text, int start, int end) {
+		if (!CaseFolding.hasSimpleLowerCase(text, start, end)) {
+			return indexOf(text.subSequence(start, end).toString().toLowerCase());
+		}
+		return find(text, start, end, true);
+	}
+
+	private int find(CharSequence text, int start, int end, boolean lower) {
+		int hash = hash(text, start, end, lower);
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			int row = slots[2 * slot + 1];
+			if (row == NO_ROW) {
+				return NO_ROW;
+			}
+			if (slots[2 * slot] == hash && matches(row, text, start, end, lower)) {
+				return row;
+			}
+		}
+	}
+
+	/**
+	 * Adds a word, unless it is already in the index.
+	 *
+	 * Time Complexity: O(l) amortized
+	 * - Rationale: Hashes and encodes the `l` characters of the word; the
+	 * arrays grow by doubling.
+	 *
+	 * @param word The word, already lowercased.
+	 * @return The row of the word, new or existing.
+	 */
+	int add(CharSequence word) {
+		int length = word.length();
+		int hash = hash(word, 0, length, false);
+		int slot = hash & mask;
+		for (int row; (row = slots[2 * slot + 1]) != NO_ROW; slot = (slot + 1) & mask) {
+			if (slots[2 * slot] == hash && matches(row, word, 0, length, false)) {
+				return row;
+			}
+		}
+		int start = offsets[size];
+		ensureArena(start + 4 * length);
+		int end = start;
+		for (int i = 0; i < length;) {
+			int packed = encodeAt(word, i, length, false);
+			int count = byteCount(packed);
+			for (int b = 0; b < count; b++) {
+				arena[end++] = (byte) (packed >>> (8 * b));
+			}
+			i += count == 4 ? 2 : 1;
+		}
+		return append(slot, hash, end);
+	}
+
+	/**
+	 * Adds a word given as UTF-8 bytes, unless it is already in the index.
+	 *
+	 * Time Complexity: O(l) amortized
+	 * - Rationale: Hashes and copies the `l` bytes; the arrays grow by doubling.
+	 *
+	 * @param bytes  The array holding the word.
+	 * @param offset The position of the first byte.
+	 * @param length The number of bytes.
+	 * @return The row of the word, new or existing.
+	 */
+	int add(byte[] bytes, int offset, int length) {
+		return add(bytes, offset, length, hash(bytes, offset, length));
+	}
+
+	/**
+	 * Adds a word of another index, unless it is already in this one.
+	 *
+	 * Time Complexity: O(l) amortized
+	 * - Rationale: Copies the `l` bytes of the word; its hash is reused.
+	 *
+	 * @param other The index holding the word.
+	 * @param row   The row of the word in `other`.
+	 * @return The row of the word in this index, new or existing.
+	 */
+	int add(VocabularyIndex other, int row) {
+		int start = other.offsets[row];
+		return add(other.arena, start, other.offsets[row + 1] - start, other.hashes[row]);
+	}
+
+	/**
+	 * Decodes the word stored in a row.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Decodes the `l` bytes of the word into a new `String`.
+	 */
+	String getWord(int row) {
+		int start = offsets[row];
+		return new String(arena, start, offsets[row + 1] - start, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Copies the UTF-8 bytes of the word stored in a row.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Copies the `l` bytes of the word.
+	 */
+	byte[] getWordBytes(int row) {
+		return Arrays.copyOfRange(arena, offsets[row], offsets[row + 1]);
+	}
+
+	/**
+	 * Gets the length of the word stored in a row in UTF-8 bytes.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Subtracts two offsets.
+	 */
+	int getWordLength(int row) {
+		return offsets[row + 1] - offsets[row];
+	}
+
+	/**
+	 * Releases the spare room of the growable arrays once every word has been
+	 * added.
+	 *
+	 * Time Complexity: O(w + b)
+	 * - Rationale: Copies the per-row arrays and the `b` bytes of the arena.
+	 */
+	void trim() {
+		arena = Arrays.copyOf(arena, offsets[size]);
+		offsets = Arrays.copyOf(offsets, size + 1);
+		hashes = Arrays.copyOf(hashes, size);
+	}
+
+	/**
+	 * Gets the approximate heap footprint of the index.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Arithmetic on array lengths.
+	 */
+	long getMemoryBytes() {
+		return arena.length + 4L * (offsets.length + hashes.length + slots.length);
+	}
+
+	private int add(byte[] bytes, int offset, int length, int hash) {
+		int slot = hash & mask;
+		for (int row; (row = slots[2 * slot + 1]) != NO_ROW; slot = (slot + 1) & mask) {
+			if (slots[2 * slot] == hash && Arrays.equals(arena, offsets[row], offsets[row + 1], bytes, offset,
+					offset + length)) {
+				return row;
+			}
+		}
+		int start = offsets[size];
+		ensureArena(start + length);
+		System.arraycopy(bytes, offset, arena, start, length);
+		return append(slot, hash, start + length);
+	}
+
+	/**
+	 * Records a new row whose bytes have been written to the arena up to `end`,
+	 * in the empty slot found while probing for it.
+	 *
+	 * Time Complexity: O(1) amortized
+	 * - Rationale: The per-row arrays and the table grow by doubling.
+	 */
+	private int append(int slot, int hash, int end) {
+		int row = size++;
+		if (row == hashes.length) {
+			hashes = Arrays.copyOf(hashes, Math.max(2 * row, 16));
+			offsets = Arrays.copyOf(offsets, hashes.length + 1);
+		}
+		hashes[row] = hash;
+		offsets[row + 1] = end;
+		slots[2 * slot] = hash;
+		slots[2 * slot + 1] = row;
+		if (2 * size > mask + 1) {
+			rehash(tableCapacity(size));
+		}
+		return row;
+	}
+
+	/**
+	 * Moves every row to a table of a new capacity.
+	 *
+	 * Time Complexity: O(w)
+	 * - Rationale: Reinserts the `w` rows using their stored hashes.
+	 */
+	private void rehash(int capacity) {
+		allocateSlots(capacity);
+		for (int row = 0; row < size; row++) {
+			int slot = hashes[row] & mask;
+			while (slots[2 * slot + 1] != NO_ROW) {
+				slot = (slot + 1) & mask;
+			}
+			slots[2 * slot] = hashes[row];
+			slots[2 * slot + 1] = row;
+		}
+	}
+
+	private void allocateSlots(int capacity) {
+		slots = new int[2 * capacity];
+		Arrays.fill(slots, NO_ROW);
+		mask = capacity - 1;
+	}
+
+	private void ensureArena(int length) {
+		if (length > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(length, 2 * arena.length));
+		}
+	}
+
+	/**
+	 * Compares the bytes of a row with the UTF-8 encoding of a slice of a text,
+	 * optionally lowercased.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Encodes and compares the `l` characters, stopping at the
+	 * first difference.
+	 */
+	private boolean matches(int row, CharSequence text, int start, int end, boolean lower) {
+		int position = offsets[row];
+		int limit = offsets[row + 1];
+		for (int i = start; i < end;) {
+			int packed = encodeAt(text, i, end, lower);
+			int count = byteCount(packed);
+			if (position + count > limit) {
+				return false;
+			}
+			for (int b = 0; b < count; b++) {
+				if (arena[position++] != (byte) (packed >>> (8 * b))) {
+					return false;
+				}
+			}
+			i += count == 4 ? 2 : 1;
+		}
+		return position == limit;
+	}
+
+	/**
+	 * Hashes the UTF-8 encoding of a slice of a text, optionally lowercased
+	 * (32-bit FNV-1a, then a final mix so that the low bits used by the table
+	 * depend on every byte).
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Encodes the `l` characters on the fly.
+	 */
+	static int hash(CharSequence text, int start, int end, boolean lower) {
+		int hash = FNV_OFFSET;
+		for (int i = start; i < end;) {
+			int packed = encodeAt(text, i, end, lower);
+			int count = byteCount(packed);
+			for (int b = 0; b < count; b++) {
+				hash = (hash ^ ((packed >>> (8 * b)) & 0xFF)) * FNV_PRIME;
+			}
+			i += count == 4 ? 2 : 1;
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * Hashes UTF-8 bytes the same way as `hash(CharSequence, ...)` hashes the
+	 * characters they encode.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Reads the `l` bytes once.
+	 */
+	static int hash(byte[] bytes, int offset, int length) {
+		int hash = FNV_OFFSET;
+		for (int i = offset; i < offset + length; i++) {
+			hash = (hash ^ (bytes[i] & 0xFF)) * FNV_PRIME;
+		}
+		return mix(hash);
+	}
+
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		return hash ^ (hash >>> 13);
+	}
+
+	/**
+	 * Encodes the character at `i` (with the next one, for a surrogate pair),
+	 * optionally lowercased, into UTF-8, the first byte in the lowest 8 bits. A
+	 * lone surrogate is encoded as '?', like `String.getBytes` does.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: A few bit operations; ASCII letters are lowered without a
+	 * table lookup.
+	 */
+	private static int encodeAt(CharSequence text, int i, int end, boolean lower) {
+		char c = text.charAt(i);
+		if (lower) {
+			c = CaseFolding.toLowerCase(c);
+		}
+		if (c < 0x80) {
+			return c;
+		}
+		if (c < 0x800) {
+			return (0xC0 | c >> 6) | (0x80 | c & 0x3F) << 8;
+		}
+		if (Character.isSurrogate(c)) {
+			char low = i + 1 < end ? text.charAt(i + 1) : 0;
+			if (!Character.isHighSurrogate(c) || !Character.isLowSurrogate(low)) {
+				return '?';
+			}
+			int codePoint = Character.toCodePoint(c, low);
+			if (lower) {
+				codePoint = CaseFolding.toLowerCase(codePoint);
+			}
+			return (0xF0 | codePoint >> 18) | (0x80 | codePoint >> 12 & 0x3F) << 8
+					| (0x80 | codePoint >> 6 & 0x3F) << 16 | (0x80 | codePoint & 0x3F) << 24;
+		}
+		return (0xE0 | c >> 12) | (0x80 | c >> 6 & 0x3F) << 8 | (0x80 | c & 0x3F) << 16;
+	}
+
+	/**
+	 * Gets the number of bytes packed by `encodeAt` from its first byte.
+	 */
+	private static int byteCount(int packed) {
+		int first = packed & 0xFF;
+		return first < 0x80 ? 1 : first < 0xE0 ? 2 : first < 0xF0 ? 3 : 4;
+	}
+
+	/**
+	 * Gets the smallest power of two that keeps `words` entries at most half
+	 * full.
+	 */
+	private static int tableCapacity(int words) {
+		if (words > MAX_CAPACITY / 4) {
+			throw new IllegalStateException("Too many words for the vocabulary index: " + words);
+		}
+		return Integer.highestOneBit(Math.max(2 * words - 1, 1)) << 1;
+	}
+}
@@ -0,0 +1,177 @@
+package ie.atu.sw.menu;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ie.atu.sw.console.ConsoleLoadingMeter;
+import ie.atu.sw.console.ConsolePrint;
+import ie.atu.sw.embedding.LoadProgress;
+
+/**
+ * Loads files on virtual threads while the menu stays responsive. Each load
+ * reports the bytes it has read through a `LoadProgress`, so the progress meter
+ * follows the real work rather than a fixed delay, and several files can load
+ * at the same time.
+ */
+public class BackgroundLoader {
+
+	/**
+	 * The work of a load, e.g. parsing a file into the database.
+	 */
+	@FunctionalInterface
+	public interface LoadTask {
+		void load(LoadProgress progress) throws Exception;
+	}
+
+	private record Load(String name, LoadProgress progress, Future<?> future) {
+	}
+
+	private static final long POLL_MILLIS = 50;
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Loads started but not yet reported, in the order they were started. Only
+	 * accessed by the menu thread.
+	 */
+	private final List<Load> loads = new ArrayList<>();
+
+	/**
+	 * Starts a load on its own virtual thread.
+	 * 
+	 * Time Complexity: O(l)
+	 * - Rationale: Checks the `l` pending loads for one with the same name.
+	 * 
+	 * @param name The file being loaded, shown in messages.
+	 * @param task The work of the load.
+	 * @return `false` if a load of the same file is still running.
+	 */
+	public boolean start(String name, LoadTask task) {
+		for (Load load : loads) {
+			if (load.name().equals(name) && !load.future().isDone()) {
+				return false;
+			}
+		}
+		LoadProgress progress = new LoadProgress();
+		loads.add(new Load(name, progress, executor.submit(() -> {
+			task.load(progress);
+			return null;
+		})));
+		return true;
+	}
+
+	/**
+	 * Checks whether any load is still running.
+	 * 
+	 * Time Complexity: O(l)
+	 * - Rationale: Checks each of the `l` pending loads.
+	 */
+	public boolean isLoading() {
+		for (Load load : loads) {
+			if (!load.future().isDone()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Describes the running loads, e.g. "Loading Word Embedding File (42%)".
+	 * 
+	 * Time Complexity: O(l)
+	 * - Rationale: Formats each of the `l` pending loads.
+	 * 
+	 * @return The description, or an empty string when nothing is loading.
+	 */
+	public String getStatus() {
+		StringBuilder sb = new StringBuilder();
+		for (Load load : loads) {
+			if (load.future().isDone()) {
+				continue;
+			}
+			sb.append(sb.isEmpty() ? "Loading " : ", ").append(load.name()).append(" (")
+					.append(percent(load.progress().getDone(), load.progress().getTotal())).append("%)");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reports each finished load once, as a success or an error, and forgets it.
+	 * 
+	 * Time Complexity: O(l)
+	 * - Rationale: Checks each of the `l` pending loads.
+	 * 
+	 * @return `true` if none of the reported loads failed.
+	 */
+	public boolean reportCompleted() {
+		boolean succeeded = true;
+		Iterator<Load> it = loads.iterator();
+		while (it.hasNext()) {
+			Load load = it.next();
+			if (!load.future().isDone()) {
+				continue;
+			}
+			it.remove();
+			try {
+				load.future().get();
+				ConsolePrint.printInfo(load.name() + " loaded successfully.");
+			} catch (ExecutionException e) {
+				succeeded = false;
+				ConsolePrint.printError("Error loading " + load.name() + ": " + e.getCause().getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				succeeded = false;
+				ConsolePrint.printError("Loading interrupted: " + e.getMessage());
+			}
+		}
+		return succeeded;
+	}
+
+	/**
+	 * Waits for the running loads, showing their combined progress in bytes on
+	 * the loading meter, then reports them.
+	 * 
+	 * Time Complexity: O(l * w)
+	 * - Rationale: Polls the `l` pending loads every 50 ms for the `w` polls the
+	 * slowest load takes.
+	 * 
+	 * @return `true` if every load succeeded.
+	 */
+	public boolean await() {
+		if (isLoading()) {
+			try {
+				while (isLoading()) {
+					ConsoleLoadingMeter.printProgress(Math.min(aggregatePercent(), 99), 100);
+					Thread.sleep(POLL_MILLIS);
+				}
+				ConsoleLoadingMeter.printProgress(100, 100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				ConsolePrint.printError("Loading interrupted: " + e.getMessage());
+				return false;
+			}
+		}
+		return reportCompleted();
+	}
+
+	private int aggregatePercent() {
+		long done = 0, total = 0;
+		for (Load load : loads) {
+			long size = load.progress().getTotal();
+			if (size > 0) {
+				done += Math.min(load.progress().getDone(), size);
+				total += size;
+			}
+		}
+		return percent(done, total);
+	}
+
+	private static int percent(long done, long total) {
+		return total <= 0 ? 0 : (int) Math.min(100, 100 * done / total);
+	}
+}
@@ -0,0 +1,85 @@
+package ie.atu.sw.menu;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ie.atu.sw.console.ConsoleLoadingMeter;
+import ie.atu.sw.metrics.Metrics;
+
+/**
+ * Simplifies a whole input file by splitting it into paragraphs (lines) and
+ * simplifying every paragraph on its own virtual thread. Results are written to
+ * the output file in the original order, so the document keeps its layout.
+ */
+public class BatchSimplifier {
+	private final Simplify simplify;
+
+	/**
+	 * Constructor for the BatchSimplifier class.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Stores a reference to the simplifier.
+	 *
+	 * @param simplify The simplifier shared by every paragraph.
+	 */
+	public BatchSimplifier(Simplify simplify) {
+		this.simplify = simplify;
+	}
+
+	/**
+	 * Simplifies every paragraph of the input file concurrently and writes the
+	 * results to the output file.
+	 *
+	 * Time Complexity: O(p * t / c)
+	 * - Rationale: Each of the `p` paragraphs with an average of `t` tokens is
+	 * simplified independently, so the work is spread over the `c` available
+	 * carrier threads. Reading and writing the files is O(p).
+	 *
+	 * @param inputPath  The file to simplify.
+	 * @param outputPath The file the simplified text is written to (overwritten).
+	 * @return The number of paragraphs simplified.
+	 * @throws IOException          If either file cannot be read or written.
+	 * @throws InterruptedException If the calling thread is interrupted while
+	 *                              waiting for the results.
+	 */
+	public int simplifyFile(Path inputPath, Path outputPath) throws IOException, InterruptedException {
+		List<String> paragraphs = Files.readAllLines(inputPath, StandardCharsets.UTF_8);
+		List<Future<String>> results = new ArrayList<>(paragraphs.size());
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+				BufferedWriter writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+			for (String paragraph : paragraphs) {
+				results.add(executor.submit(() -> paragraph.isBlank() ? "" : simplify.simplifyText(paragraph)));
+			}
+
+			// Futures are collected in submission order, which keeps the original order
+			int total = results.size();
+			int lastPercent = -1;
+			for (int i = 0; i < total; i++) {
+				String simplified = results.get(i).get();
+				long start = Metrics.now();
+				writer.write(simplified);
+				writer.newLine();
+				Metrics.WRITE.recordSince(start);
+
+				int percent = (100 * (i + 1)) / total;
+				if (percent != lastPercent) {
+					ConsoleLoadingMeter.printProgress(percent, 100);
+					lastPercent = percent;
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new IOException("Error simplifying paragraph: " + e.getCause().getMessage(), e.getCause());
+		}
+		return paragraphs.size();
+	}
+}
@@ -8,9 +8,9 @@ import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
 
 import ie.atu.sw.console.ConsoleColour;
-import ie.atu.sw.console.ConsoleLoadingMeter;
 import ie.atu.sw.console.ConsolePrint;
 import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.metrics.Metrics;
 import ie.atu.sw.settingmenu.Configuration;
 import ie.atu.sw.settingmenu.ConfigurationMenu;
 import ie.atu.sw.utils.ConsoleUI;
@@ -43,6 +43,16 @@ public class Menu {
 	 */
 	private ConfigurationMenu configMenu = new ConfigurationMenu(config, dataBase);
 
+	/**
+	 * Cache of word replacements shared by every simplification request.
+	 */
+	private ReplacementCache replacementCache = new ReplacementCache(config.getReplacementCacheSize());
+
+	/**
+	 * Loads the word embedding and Google-1000 files on virtual threads.
+	 */
+	private BackgroundLoader loader = new BackgroundLoader();
+
 	/**
 	 * Path to the word embedding file specified by the user.
 	 */
@@ -93,6 +103,10 @@ public class Menu {
 	public void displayMenu() {
 		boolean running = true;
 		while (running) {
+			loader.reportCompleted();
+			if (loader.isLoading()) {
+				ConsolePrint.printInfo(loader.getStatus() + " in the background...");
+			}
 			String title = "Main Menu";
 			String[] options = {
 					"Specify a path for Word Embedding File",
@@ -100,6 +114,8 @@ public class Menu {
 					"Specify a path for Input.txt to Analyze",
 					"Specify a path for Output file (default: ./output.txt)",
 					"Simplify text manually",
+					"Simplify input file (batch, virtual threads)",
+					"Simplify large input file (streaming)",
 					"Configuration Settings",
 					"Quit"
 			};
@@ -109,7 +125,7 @@ public class Menu {
 			Scanner scanner = new Scanner(System.in);
 			int choice = scanner.nextInt();
 
-			if (choice == 7) {
+			if (choice == 9) {
 				running = false; // Exit the loop
 				ConsolePrint.printInfo("Exiting. Goodbye!");
 			} else {
@@ -132,8 +148,9 @@ public class Menu {
 				wordEmbeddingPath = s.nextLine();
 				if (FileUtils.validatePath(wordEmbeddingPath)) {
 					config.setWordEmbeddingPath(wordEmbeddingPath);
-					simulateFileLoading("Word Embedding File");
 					ConsolePrint.printInfo("Word Embedding Path set successfully.");
+					String path = wordEmbeddingPath;
+					startLoad("Word Embedding File", progress -> dataBase.loadWordEmbeddings(path, progress));
 				} else {
 					ConsolePrint.printError("Invalid path for Word Embedding File.");
 				}
@@ -144,8 +161,9 @@ public class Menu {
 				google1000Path = s.nextLine();
 				if (FileUtils.validatePath(google1000Path)) {
 					config.setGoogle1000Path(google1000Path);
-					simulateFileLoading("Google-1000 File");
 					ConsolePrint.printInfo("Google-1000 Path set successfully.");
+					String path = google1000Path;
+					startLoad("Google-1000 File", progress -> dataBase.loadGoogleWords(path, progress));
 				} else {
 					ConsolePrint.printError("Invalid path for Google-1000 File.");
 				}
@@ -222,10 +240,18 @@ public class Menu {
 				break;
 
 			case 6:
-				configMenu.display();
+				batchMenu();
 				break;
 
 			case 7:
+				streamMenu();
+				break;
+
+			case 8:
+				configMenu.display();
+				break;
+
+			case 9:
 				s.close();
 				System.exit(0);
 				break;
@@ -248,7 +274,7 @@ public class Menu {
 			return;
 		}
 
-		if (!isDatabaseLoaded()) {
+		if (!awaitLoads() || !isDatabaseLoaded()) {
 			ConsolePrint.printWarning("Cannot proceed. Database is not fully loaded.");
 			return;
 		}
@@ -265,21 +291,100 @@ public class Menu {
 			return;
 		}
 
-		Simplify simplify = new Simplify(dataBase, config);
+		Simplify simplify = new Simplify(dataBase, config, replacementCache);
 		String simplifiedText = simplify.simplifyText(text);
 
 		System.out.println(ConsoleColour.SUNRISE_BOLD + "\nSimplified Text:\n" + ConsoleColour.RESET
 				+ ConsoleColour.GREEN_BOLD + simplifiedText + ConsoleColour.RESET);
+		ConsolePrint.printInfo(replacementCache.getStatistics());
 
 		try {
+			long start = Metrics.now();
 			Files.write(Paths.get(outputFilePath), (simplifiedText + System.lineSeparator()).getBytes(),
 					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			Metrics.WRITE.recordSince(start);
 			ConsolePrint.printInfo("Simplified text saved to: " + outputFilePath);
 		} catch (IOException e) {
 			ConsolePrint.printError("Error writing to output file: " + e.getMessage());
 		}
 	}
 
+	/**
+	 * Handles batch simplification of the whole input file.
+	 * 
+	 * Time Complexity: O(p * t)
+	 * - Rationale: Each of the `p` paragraphs of the input file, with an average
+	 * of `t` tokens, is simplified once. Paragraphs run concurrently on virtual
+	 * threads.
+	 */
+	private void batchMenu() {
+		if (!validateFilePaths()) {
+			ConsolePrint.printWarning("Please set all required file paths before proceeding.");
+			return;
+		}
+
+		if (!awaitLoads() || !isDatabaseLoaded()) {
+			ConsolePrint.printWarning("Cannot proceed. Database is not fully loaded.");
+			return;
+		}
+
+		System.out.println(ConsoleColour.YELLOW_BOLD + "Simplifying " + ConsoleColour.RESET + ConsoleColour.CYAN_BOLD
+				+ inputFilePath + ConsoleColour.RESET + ConsoleColour.YELLOW_BOLD + "..." + ConsoleColour.RESET);
+
+		Simplify simplify = new Simplify(dataBase, config, replacementCache);
+		BatchSimplifier batch = new BatchSimplifier(simplify);
+		long start = System.nanoTime();
+		try {
+			int paragraphs = batch.simplifyFile(Paths.get(inputFilePath), Paths.get(outputFilePath));
+			long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+			ConsolePrint.printInfo("Simplified " + paragraphs + " paragraphs in " + elapsedMs + " ms.");
+			ConsolePrint.printInfo("Simplified text saved to: " + outputFilePath);
+			ConsolePrint.printInfo(replacementCache.getStatistics());
+		} catch (IOException e) {
+			ConsolePrint.printError("Error during batch simplification: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			ConsolePrint.printError("Batch simplification interrupted: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Handles streaming simplification of an input file of any size.
+	 * 
+	 * Time Complexity: O(b + t * k)
+	 * - Rationale: The `b` bytes of the input file are read once through
+	 * memory-mapped windows and each of the `t` words is scored against `k`
+	 * candidates. Memory use does not grow with the file size.
+	 */
+	private void streamMenu() {
+		if (!validateFilePaths()) {
+			ConsolePrint.printWarning("Please set all required file paths before proceeding.");
+			return;
+		}
+
+		if (!awaitLoads() || !isDatabaseLoaded()) {
+			ConsolePrint.printWarning("Cannot proceed. Database is not fully loaded.");
+			return;
+		}
+
+		System.out.println(ConsoleColour.YELLOW_BOLD + "Streaming " + ConsoleColour.RESET + ConsoleColour.CYAN_BOLD
+				+ inputFilePath + ConsoleColour.RESET + ConsoleColour.YELLOW_BOLD + "..." + ConsoleColour.RESET);
+
+		Simplify simplify = new Simplify(dataBase, config, replacementCache);
+		StreamingSimplifier streaming = new StreamingSimplifier(simplify);
+		long start = System.nanoTime();
+		try {
+			long bytes = streaming.simplifyFile(Paths.get(inputFilePath), Paths.get(outputFilePath));
+			double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+			ConsolePrint.printInfo(String.format("Simplified %,d bytes in %.2f s (%.2f MB/s).", bytes, seconds,
+					bytes / seconds / (1024 * 1024)));
+			ConsolePrint.printInfo("Simplified text saved to: " + outputFilePath);
+			ConsolePrint.printInfo(replacementCache.getStatistics());
+		} catch (IOException e) {
+			ConsolePrint.printError("Error during streaming simplification: " + e.getMessage());
+		}
+	}
+
 	/**
 	 * Validates required file paths.
 	 * 
@@ -303,51 +408,53 @@ public class Menu {
 	}
 
 	/**
-	 * Simulates file loading with progress indication.
+	 * Starts loading a file in the background, so the menu can be used while it
+	 * loads.
 	 * 
-	 * Time Complexity: O(n)
-	 * - Rationale: Progress bar runs for a fixed number of steps.
+	 * Time Complexity: O(1)
+	 * - Rationale: Submits the load to a virtual thread and returns.
 	 */
-	private void simulateFileLoading(String fileName) {
-		System.out.println(ConsoleColour.YELLOW_BOLD + "Loading " + ConsoleColour.RESET + ConsoleColour.CYAN_BOLD
-				+ fileName + ConsoleColour.RESET + ConsoleColour.YELLOW_BOLD + "..." + ConsoleColour.RESET);
-
-		try {
-			int totalSteps = 100; // Total steps for the progress meter
-			for (int step = 0; step <= totalSteps; step++) {
-				ConsoleLoadingMeter.printProgress(step, totalSteps);
-
-				// Simulate processing delay
-				Thread.sleep(20);
-
-				// Perform actual file loading for specific steps (e.g., 20%, 50%, 80%)
-				if (step == 20 && "Word Embedding File".equals(fileName)) {
-					dataBase.loadWordEmbeddings(wordEmbeddingPath);
-				} else if (step == 50 && "Google-1000 File".equals(fileName)) {
-					dataBase.loadGoogleWords(google1000Path);
-				}
-			}
+	private void startLoad(String fileName, BackgroundLoader.LoadTask task) {
+		if (loader.start(fileName, task)) {
+			System.out.println(ConsoleColour.YELLOW_BOLD + "Loading " + ConsoleColour.RESET + ConsoleColour.CYAN_BOLD
+					+ fileName + ConsoleColour.RESET + ConsoleColour.YELLOW_BOLD + " in the background..."
+					+ ConsoleColour.RESET);
+		} else {
+			ConsolePrint.printWarning(fileName + " is still loading. Try again once it has loaded.");
+		}
+	}
 
-			ConsolePrint.printInfo(fileName + " loaded successfully.");
-		} catch (InterruptedException e) {
-			ConsolePrint.printError("Loading interrupted: " + e.getMessage());
-		} catch (Exception e) {
-			ConsolePrint.printError("Error loading " + fileName + ": " + e.getMessage());
+	/**
+	 * Applies the loading policy before a simplification: either waits for the
+	 * background loads, showing their progress, or refuses while any is running.
+	 * 
+	 * Time Complexity: O(w)
+	 * - Rationale: Waits for the `w` polls the slowest load still takes, or none
+	 * under the fail-fast policy.
+	 * 
+	 * @return `true` if no load is running and none has failed.
+	 */
+	private boolean awaitLoads() {
+		if (loader.isLoading() && config.isFailFastLoading()) {
+			ConsolePrint.printWarning(loader.getStatus() + ". Try again once loading has finished.");
+			return false;
 		}
+		return loader.await();
 	}
 
 	/**
 	 * Checks if the database is loaded.
 	 * 
 	 * Time Complexity: O(1)
-	 * - Rationale: Checks whether maps and sets are empty.
+	 * - Rationale: Checks whether the embedding matrix and the word set are empty.
 	 */
 	private boolean isDatabaseLoaded() {
-		if (dataBase.getWordVectors().isEmpty()) {
+		DataBase.Snapshot data = dataBase.snapshot();
+		if (data.embeddings().isEmpty()) {
 			ConsolePrint.printError("Error: Word embeddings are not loaded.");
 			return false;
 		}
-		if (dataBase.getCommonWords().isEmpty()) {
+		if (data.commonWords().isEmpty()) {
 			ConsolePrint.printError("Error: Common words are not loaded.");
 			return false;
 		}
@@ -0,0 +1,178 @@
+package ie.atu.sw.menu;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+
+/**
+ * Bounded, thread-safe LRU cache of word replacements.
+ *
+ * Entries are keyed by the row of the word in the word embeddings, the selected
+ * similarity algorithms and the replacement method, so the same word
+ * simplified under a different configuration is never served a stale answer
+ * and no `String` is needed to look a token up. Rows are only meaningful for
+ * one version of the database: the whole cache is dropped when the database
+ * or the configuration reports a new version, and a simplification still
+ * running on an older database snapshot neither reads nor fills it.
+ */
+public class ReplacementCache {
+	private final LinkedHashMap<CacheKey, String> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private int maxEntries;
+	private long dataBaseVersion = -1;
+	private long configVersion = -1;
+
+	/**
+	 * Key of a cached replacement.
+	 */
+	private record CacheKey(int row, List<AbstractSimilarityAlgorithm> algorithms, String method) {
+	}
+
+	/**
+	 * Constructor for the ReplacementCache class.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Creates an empty access-ordered LinkedHashMap.
+	 *
+	 * @param maxEntries The maximum number of replacements kept in the cache.
+	 */
+	public ReplacementCache(int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Cache size must be at least 1");
+		}
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+				if (size() > ReplacementCache.this.maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Drops every entry if the database or configuration is newer than at the
+	 * last call, and applies the configured maximum size. Versions only move
+	 * forward: a call from a simplification still running on an older
+	 * snapshot leaves the cache to the newer one.
+	 *
+	 * Time Complexity: O(1) amortized
+	 * - Rationale: Compares two version numbers; clearing or shrinking only
+	 * happens when something actually changed.
+	 *
+	 * @param dataBaseVersion Current version of the database.
+	 * @param configVersion   Current version of the configuration.
+	 * @param maxEntries      Configured maximum number of entries.
+	 */
+	public synchronized void validate(long dataBaseVersion, long configVersion, int maxEntries) {
+		if (dataBaseVersion > this.dataBaseVersion || configVersion > this.configVersion) {
+			entries.clear();
+			this.dataBaseVersion = Math.max(this.dataBaseVersion, dataBaseVersion);
+			this.configVersion = Math.max(this.configVersion, configVersion);
+		}
+		if (maxEntries >= 1 && maxEntries != this.maxEntries) {
+			this.maxEntries = maxEntries;
+			Iterator<CacheKey> it = entries.keySet().iterator();
+			while (entries.size() > maxEntries && it.hasNext()) {
+				it.next();
+				it.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Looks up a cached replacement.
+	 *
+	 * Time Complexity: O(a)
+	 * - Rationale: Hashing the key walks the `a` selected algorithms; the map
+	 * lookup itself is O(1).
+	 *
+	 * @param dataBaseVersion Version of the database snapshot being used.
+	 * @param row             The row of the word in the word embeddings.
+	 * @param algorithms      The selected similarity algorithms.
+	 * @param method          The replacement method.
+	 * @return The cached replacement, or null on a miss.
+	 */
+	public String get(long dataBaseVersion, int row, List<AbstractSimilarityAlgorithm> algorithms, String method) {
+		String replacement;
+		synchronized (this) {
+			replacement = this.dataBaseVersion == dataBaseVersion ? entries.get(new CacheKey(row, algorithms, method))
+					: null;
+		}
+		(replacement != null ? hits : misses).incrementAndGet();
+		return replacement;
+	}
+
+	/**
+	 * Stores a replacement, evicting the least recently used entry if the cache
+	 * is full. Replacements computed on another database snapshot than the one
+	 * the cache was last validated for are ignored.
+	 *
+	 * Time Complexity: O(a)
+	 * - Rationale: Copies the `a` selected algorithms into the key; insertion and
+	 * eviction are O(1).
+	 *
+	 * @param dataBaseVersion Version of the database snapshot used.
+	 * @param row             The row of the word in the word embeddings.
+	 * @param algorithms      The selected similarity algorithms.
+	 * @param method          The replacement method.
+	 * @param replacement     The replacement to cache.
+	 */
+	public void put(long dataBaseVersion, int row, List<AbstractSimilarityAlgorithm> algorithms, String method,
+			String replacement) {
+		CacheKey key = new CacheKey(row, List.copyOf(algorithms), method);
+		synchronized (this) {
+			if (this.dataBaseVersion == dataBaseVersion) {
+				entries.put(key, replacement);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of cached replacements.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Returns the size of the map.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Summarises the cache counters for display.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads a fixed number of counters.
+	 *
+	 * @return A one-line description of the cache statistics.
+	 */
+	public String getStatistics() {
+		long h = hits.get();
+		long m = misses.get();
+		double hitRate = h + m == 0 ? 0.0 : 100.0 * h / (h + m);
+		return String.format("Replacement cache: %d/%d entries, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+				size(), maxEntries, h, m, hitRate, evictions.get());
+	}
+}
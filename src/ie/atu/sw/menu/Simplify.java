@@ -1,18 +1,60 @@
 package ie.atu.sw.menu;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.embedding.CandidateStore;
 import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.embedding.HnswIndex;
+import ie.atu.sw.embedding.QuantizedCandidateStore;
+import ie.atu.sw.embedding.ReplacementTable;
+import ie.atu.sw.embedding.ScoringEngine;
+import ie.atu.sw.embedding.TopKCollector;
+import ie.atu.sw.metrics.Metrics;
+import ie.atu.sw.metrics.ScoreWordEvent;
+import ie.atu.sw.metrics.SimplifyTextEvent;
 import ie.atu.sw.settingmenu.Configuration;
+import ie.atu.sw.utils.CaseFolding;
 
 public class Simplify {
+	/**
+	 * The replacement table column resolved for a configuration version.
+	 */
+	private record TableColumn(ReplacementTable table, long configVersion, int column) {
+	}
+
+	/**
+	 * The replacements found by `findBatchReplacements`, by embedding row.
+	 * 
+	 * @param rows         The distinct rows, in ascending order.
+	 * @param replacements The replacement of each row, or null if it was left
+	 *                     to `findBestReplacement`.
+	 */
+	private record BatchReplacements(int[] rows, String[] replacements) {
+		private static final BatchReplacements NONE = new BatchReplacements(new int[0], new String[0]);
+
+		/**
+		 * Gets the replacement of a row.
+		 * 
+		 * Time Complexity: O(log u)
+		 * - Rationale: A binary search over the `u` distinct rows.
+		 */
+		String get(int row) {
+			int index = Arrays.binarySearch(rows, row);
+			return index >= 0 ? replacements[index] : null;
+		}
+	}
+
 	private DataBase database;
 	private Configuration config;
 	private Random random;
+	private ReplacementCache cache;
+	private volatile TableColumn tableColumn;
 
 	/**
 	 * Constructor for the Simplify class.
@@ -22,158 +64,535 @@ public class Simplify {
 	 * `random` variables.
 	 */
 	public Simplify(DataBase database, Configuration config) {
+		this(database, config, null);
+	}
+
+	/**
+	 * Constructor for the Simplify class with a shared replacement cache.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: The constructor initializes the `database`, `config`, `random`
+	 * and `cache` variables.
+	 * 
+	 * @param cache Cache of previously computed replacements, or null to disable
+	 *              caching.
+	 */
+	public Simplify(DataBase database, Configuration config, ReplacementCache cache) {
 		if (config == null) {
 			throw new IllegalArgumentException("Configuration cannot be null");
 		}
 		this.database = database;
 		this.config = config;
 		this.random = new Random();
+		this.cache = cache;
 	}
 
 	/**
 	 * Simplifies the input text by replacing words based on similarity algorithms
-	 * and configuration.
+	 * and configuration. The whole text is simplified against one snapshot of
+	 * the database, even if a file is reloaded meanwhile.
 	 * 
 	 * Time Complexity: O(n * m)
 	 * - Rationale:
-	 * - Splitting the input text into `n` tokens is O(n).
-	 * - For each token, `findBestReplacement` is called, which processes up to `m`
-	 * candidates.
+	 * - Lexing the input text into `n` tokens is a single pass: O(n).
+	 * - Each token is looked up in place, whatever its case, so no `String` is
+	 * created for it; words kept as they are are copied lowercased.
+	 * - The distinct words are scored together by `findBatchReplacements`, and
+	 * every other token goes through `findBestReplacement`; either way each
+	 * word is compared with up to `m` candidates.
 	 * 
 	 * @param inputText The text to simplify.
 	 * @return The simplified text.
 	 */
 	public String simplifyText(String inputText) {
-		StringBuilder simplifiedText = new StringBuilder();
-		String[] tokens = inputText.split("(?=\\p{Punct})|(?<=\\p{Punct})|\\s+");
-
-		for (int i = 0; i < tokens.length; i++) {
-			String token = tokens[i];
+		SimplifyTextEvent event = new SimplifyTextEvent();
+		event.begin();
+		DataBase.Snapshot data = database.snapshot();
+		refresh(data);
+		BatchReplacements batched = findBatchReplacements(data, inputText, event);
+		StringBuilder simplifiedText = new StringBuilder(inputText.length() + 16);
+		TextLexer lexer = new TextLexer(inputText);
+		Set<String> uniqueWords = event.isEnabled() ? new HashSet<>() : null;
+		int tokenCount = 0;
+		int words = 0;
+		long tokenizeNanos = 0;
 
-			if (isPunctuation(token)) {
-				simplifiedText.append(token); // Append punctuation directly without a space
-			} else {
-				String replacement = findBestReplacement(token.trim());
-				simplifiedText.append(replacement);
+		while (true) {
+			long lexStart = Metrics.now();
+			boolean more = lexer.next();
+			if (Metrics.ENABLED) {
+				tokenizeNanos += System.nanoTime() - lexStart;
 			}
-
-			// Add a space after each token unless it's punctuation or the last token
-			if (i < tokens.length - 1 && !isPunctuation(tokens[i + 1])) {
-				simplifiedText.append(" ");
+			if (!more) {
+				break;
 			}
+			int offset = lexer.offset();
+			if (lexer.type() == TextLexer.PUNCTUATION) {
+				simplifiedText.append(inputText.charAt(offset)); // Append punctuation directly without a space
+			} else {
+				// Add a space before each word unless it's the first token
+				if (tokenCount > 0) {
+					simplifiedText.append(' ');
+				}
+				if (lexer.length() > 0) {
+					int end = offset + lexer.length();
+					long lookupStart = Metrics.now();
+					int row = data.indexOf(inputText, offset, end);
+					if (row < 0 || data.isCommonRow(row)) {
+						Metrics.LOOKUP.recordSince(lookupStart);
+						// Keep the word if it has no vector or it's common
+						CaseFolding.appendLowerCase(simplifiedText, inputText, offset, end);
+					} else {
+						String replacement = batched.get(row);
+						if (replacement == null) {
+							replacement = findBestReplacement(data, row, inputText, offset, end, event);
+						}
+						if (Metrics.ENABLED && !CaseFolding.equalsIgnoreCase(replacement, inputText, offset, end)) {
+							Metrics.countReplacement(config.getReplacementMethod());
+						}
+						simplifiedText.append(replacement);
+					}
+					if (uniqueWords != null) {
+						uniqueWords.add(CaseFolding.toLowerCase(inputText, offset, end));
+					}
+					words++;
+				}
+			}
+			tokenCount++;
+		}
+		Metrics.TOKENS.add(words);
+		Metrics.TOKENIZE.record(tokenizeNanos);
+		if (event.shouldCommit()) {
+			event.tokens = words;
+			event.uniqueWords = uniqueWords.size();
+			event.algorithms = config.getSelectedAlgorithms().stream().map(AbstractSimilarityAlgorithm::getName)
+					.collect(Collectors.joining(", "));
+			event.method = config.getReplacementMethod();
+			event.commit();
 		}
 
-		return simplifiedText.toString().trim();
+		// Equivalent to String.trim() without the intermediate String
+		int begin = 0;
+		int end = simplifiedText.length();
+		while (begin < end && simplifiedText.charAt(begin) <= ' ') {
+			begin++;
+		}
+		while (end > begin && simplifiedText.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return simplifiedText.substring(begin, end);
 	}
 
 	/**
-	 * Checks if a token is punctuation.
+	 * Simplifies a single word. Unlike `simplifyText`, this does not check
+	 * whether the cached replacements are still valid, so callers that stream
+	 * words one at a time should call `refresh` once before they start.
 	 * 
-	 * Time Complexity: O(1)
-	 * - Rationale: The regular expression check is a constant-time operation.
+	 * Time Complexity: O(k * n)
+	 * - Rationale: Delegates to `findBestReplacement`.
 	 * 
-	 * @param token The token to check.
-	 * @return True if the token is punctuation, false otherwise.
+	 * @param word The word to simplify (without surrounding whitespace).
+	 * @return The replacement for the word.
 	 */
-	private boolean isPunctuation(String token) {
-		return token.matches("\\p{Punct}");
+	public String simplifyWord(String word) {
+		return simplifyWord(word, 0, word.length());
 	}
 
 	/**
-	 * Finds the best replacement for a given word based on the configuration.
+	 * Simplifies a word read in place from a text, e.g. the token buffer of a
+	 * streaming reader, without copying it into a `String` first. See
+	 * `simplifyWord(String)`.
 	 * 
-	 * Time Complexity: O(m * k)
-	 * - Rationale:
-	 * - Filtering candidates from the database involves iterating over `m` words:
-	 * O(m).
-	 * - For each selected similarity algorithm, `k` candidates are compared: O(k).
+	 * Time Complexity: O(k * n)
+	 * - Rationale: Delegates to `findBestReplacement`.
 	 * 
-	 * @param word The word to replace.
-	 * @return The best replacement for the word.
+	 * @param text  The text holding the word.
+	 * @param start The position of the first character of the word.
+	 * @param end   The position after its last character.
+	 * @return The replacement for the word.
 	 */
-	private String findBestReplacement(String word) {
-		double[] targetVector = database.getVector(word.toLowerCase());
-		if (targetVector == null || database.isCommonWord(word)) {
-			return word.toLowerCase(); // Return original word if no vector or it's common
+	public String simplifyWord(CharSequence text, int start, int end) {
+		DataBase.Snapshot data = database.snapshot();
+		long lookupStart = Metrics.now();
+		int row = data.indexOf(text, start, end);
+		String replacement;
+		if (row < 0 || data.isCommonRow(row)) {
+			Metrics.LOOKUP.recordSince(lookupStart);
+			replacement = CaseFolding.toLowerCase(text, start, end); // Keep the word if it has no vector or it's common
+		} else {
+			replacement = findBestReplacement(data, row, text, start, end, null);
+		}
+		Metrics.TOKENS.increment();
+		if (Metrics.ENABLED && !CaseFolding.equalsIgnoreCase(replacement, text, start, end)) {
+			Metrics.countReplacement(config.getReplacementMethod());
 		}
+		return replacement;
+	}
 
-		Map<String, double[]> candidates = database.getWordVectors()
-				.entrySet()
-				.stream()
-				.filter(entry -> database.isCommonWord(entry.getKey())) // Only common words
-				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	/**
+	 * Drops the cached replacements if the database or the configuration has
+	 * changed since they were computed.
+	 * 
+	 * Time Complexity: O(1) amortized
+	 * - Rationale: Compares two version numbers with the ones the cache was
+	 * filled under.
+	 */
+	public void refresh() {
+		refresh(database.snapshot());
+	}
 
-		if (candidates.isEmpty()) {
-			return word.toLowerCase(); // Fallback to original word if no candidates
+	/**
+	 * Drops the cached replacements if they were not computed for the given
+	 * snapshot or the current configuration.
+	 * 
+	 * Time Complexity: O(1) amortized
+	 * - Rationale: See `refresh()`.
+	 */
+	private void refresh(DataBase.Snapshot data) {
+		if (cache != null) {
+			cache.validate(data.version(), config.getVersion(), config.getReplacementCacheSize());
 		}
+	}
 
-		String replacement = null;
-		double bestScore = config.getSelectedAlgorithms().stream()
-				.anyMatch(AbstractSimilarityAlgorithm::isHigherBetter) ? -Double.MAX_VALUE : Double.MAX_VALUE;
+	/**
+	 * Finds the replacements of all the distinct words of a text with one
+	 * batched scan, see `ScoringEngine.scoreBatch`, instead of one scan of the
+	 * candidates per word. Only the "most similar" and "least similar" methods
+	 * are batched, and only when every word would be scored exactly; random
+	 * methods, the approximate index and quantized scoring keep the per-word
+	 * path of `findBestReplacement`, which also handles every word this method
+	 * leaves out.
+	 * 
+	 * Time Complexity: O(n + u * k * n / p)
+	 * - Rationale: Lexes the `n` tokens once and scores the `u` distinct words
+	 * against the `k` candidates of size `n` on `p` cores.
+	 * 
+	 * @param data      The snapshot of the database to use.
+	 * @param inputText The text to simplify.
+	 * @param event     The event of the `simplifyText` call, which counts the
+	 *                  scored candidates.
+	 * @return The replacement of every batched word by embedding row, possibly
+	 *         none.
+	 */
+	private BatchReplacements findBatchReplacements(DataBase.Snapshot data, String inputText,
+			SimplifyTextEvent event) {
+		String method = config.getReplacementMethod();
+		boolean mostSimilar = "most similar".equalsIgnoreCase(method);
+		if (!mostSimilar && !"least similar".equalsIgnoreCase(method) || tableColumn(data) != null) {
+			return BatchReplacements.NONE; // Per-word lookups in the replacement table need no batching
+		}
+		CandidateStore candidates = data.candidates();
+		List<AbstractSimilarityAlgorithm> algorithms = config.getSelectedAlgorithms();
+		if (candidates.isEmpty() || quantizedStore(data) != null
+				|| (mostSimilar && approximateIndex(data, algorithms) != null)) {
+			return BatchReplacements.NONE;
+		}
 
-		// Iterate over all selected algorithms
-		for (AbstractSimilarityAlgorithm algorithm : config.getSelectedAlgorithms()) {
+		long start = Metrics.now();
+		int[] rows = new int[64];
+		int count = 0;
+		TextLexer lexer = new TextLexer(inputText);
+		while (lexer.next()) {
+			if (lexer.type() == TextLexer.PUNCTUATION || lexer.length() == 0) {
+				continue;
+			}
+			int row = data.indexOf(inputText, lexer.offset(), lexer.offset() + lexer.length());
+			if (row < 0 || data.isCommonRow(row)) {
+				continue; // Kept as is by simplifyText
+			}
+			if (count == rows.length) {
+				rows = Arrays.copyOf(rows, 2 * count);
+			}
+			rows[count++] = row;
+		}
+		Arrays.sort(rows, 0, count);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (distinct == 0 || rows[i] != rows[distinct - 1]) {
+				rows[distinct++] = rows[i];
+			}
+		}
+		rows = Arrays.copyOf(rows, distinct);
 
-			for (Map.Entry<String, double[]> entry : candidates.entrySet()) {
-				double score = algorithm.calculate(targetVector, entry.getValue());
-				if (algorithm.isHigherBetter() ? score > bestScore : score < bestScore) {
-					bestScore = score;
-					replacement = entry.getKey();
+		String[] replacements = new String[distinct];
+		int[] queries = new int[distinct]; // Indices of the rows to score
+		int queryCount = 0;
+		for (int i = 0; i < distinct; i++) {
+			String cached = cache != null ? cache.get(data.version(), rows[i], algorithms, method) : null;
+			if (cached != null) {
+				Metrics.CACHE_HITS.increment();
+				replacements[i] = cached;
+			} else {
+				if (cache != null) {
+					Metrics.CACHE_MISSES.increment();
 				}
+				queries[queryCount++] = i;
+			}
+		}
+		Metrics.LOOKUP.recordSince(start);
+		if (queryCount == 0) {
+			return new BatchReplacements(rows, replacements);
+		}
+
+		start = Metrics.now();
+		double[][] vectors = new double[queryCount][];
+		for (int q = 0; q < queryCount; q++) {
+			vectors[q] = data.embeddings().getVector(rows[queries[q]]);
+		}
+		double[][] scores = new ScoringEngine(algorithms).scoreBatch(vectors, candidates);
+		event.candidatesScored += (long) queryCount * candidates.size();
+		for (int q = 0; q < queryCount; q++) {
+			String replacement = mostSimilar ? findMostSimilar(scores[q], algorithms, candidates)
+					: findLeastSimilar(scores[q], algorithms, candidates);
+			if (replacement == null) {
+				continue; // Left to findBestReplacement, which keeps the original case
+			}
+			int i = queries[q];
+			replacements[i] = replacement;
+			if (cache != null) {
+				cache.put(data.version(), rows[i], algorithms, method, replacement);
+			}
+		}
+		Metrics.SCORE.recordSince(start);
+		return new BatchReplacements(rows, replacements);
+	}
+
+	/**
+	 * Finds the best replacement for a given word based on the configuration.
+	 * The word is only copied into a `String` if it is kept, so a replacement
+	 * found in the table or the cache creates none.
+	 * 
+	 * Time Complexity: O(k * n + m * k)
+	 * - Rationale:
+	 * - The candidates are precomputed by the database at load time: O(1).
+	 * - The `k` candidate vectors of size `n` are scored with all `m` selected
+	 * algorithms in one fused pass: O(k * n).
+	 * - Picking the best candidate walks the `m * k` score matrix: O(m * k).
+	 * 
+	 * @param data  The snapshot of the database to use.
+	 * @param row   The row of the word in the embeddings; not a common word.
+	 * @param text  The text holding the word.
+	 * @param from  The position of the first character of the word.
+	 * @param to    The position after its last character.
+	 * @param event The event of the `simplifyText` call, which counts the
+	 *              scored candidates, or null.
+	 * @return The best replacement for the word.
+	 */
+	private String findBestReplacement(DataBase.Snapshot data, int row, CharSequence text, int from, int to,
+			SimplifyTextEvent event) {
+		long start = Metrics.now();
+		TableColumn precomputed = tableColumn(data);
+		if (precomputed != null) {
+			String replacement = precomputed.table().lookup(precomputed.column(), row);
+			if (replacement != null) {
+				Metrics.LOOKUP.recordSince(start);
+				return replacement;
+			}
+		}
+
+		// Random replacements are not deterministic, so they are never cached
+		String method = config.getReplacementMethod();
+		boolean cacheable = cache != null && !"random".equalsIgnoreCase(method)
+				&& !"top-k random".equalsIgnoreCase(method);
+		if (cacheable) {
+			String cached = cache.get(data.version(), row, config.getSelectedAlgorithms(), method);
+			(cached != null ? Metrics.CACHE_HITS : Metrics.CACHE_MISSES).increment();
+			if (cached != null) {
+				Metrics.LOOKUP.recordSince(start);
+				return cached;
 			}
 		}
+		Metrics.LOOKUP.recordSince(start);
+		start = Metrics.now();
+
+		CandidateStore candidates = data.candidates(); // Common words with a vector
+
+		if (candidates.isEmpty()) {
+			return CaseFolding.toLowerCase(text, from, to); // Fallback to original word if no candidates
+		}
+		double[] targetVector = data.embeddings().getVector(row); // Only decoded on a cache miss
+
+		List<AbstractSimilarityAlgorithm> algorithms = config.getSelectedAlgorithms();
+		String replacement;
+		ScoreWordEvent scoreEvent = new ScoreWordEvent();
+		scoreEvent.begin();
 
-		switch (config.getReplacementMethod().toLowerCase()) {
+		switch (method.toLowerCase()) {
 			case "most similar":
-				replacement = findMostSimilar(targetVector, candidates);
+				int[] nearest = findApproximateNearest(data, targetVector, algorithms, 1);
+				replacement = nearest != null && nearest.length > 0 ? candidates.getWord(nearest[0])
+						: findMostSimilar(scoreCandidates(data, targetVector, algorithms, true), algorithms,
+								candidates);
 				break;
 			case "least similar":
-				replacement = findLeastSimilar(targetVector, candidates);
+				replacement = findLeastSimilar(scoreCandidates(data, targetVector, algorithms, false), algorithms,
+						candidates);
 				break;
 			case "random":
 				replacement = findRandomReplacement(candidates);
 				break;
+			case "top-k random":
+				replacement = findTopKRandom(data, targetVector, algorithms);
+				break;
 			default:
-				replacement = word.toLowerCase();
+				replacement = CaseFolding.toLowerCase(text, from, to);
 		}
 
-		return replacement != null ? replacement : word;
+		replacement = replacement != null ? replacement : text.subSequence(from, to).toString();
+		Metrics.SCORE.recordSince(start);
+		// Only the nearest-neighbour methods search the approximate index instead
+		boolean scanned = switch (method.toLowerCase()) {
+			case "least similar" -> true;
+			case "most similar", "top-k random" -> approximateIndex(data, algorithms) == null;
+			default -> false; // Random and unknown methods score nothing
+		};
+		if (event != null && scanned && event.isEnabled()) {
+			event.candidatesScored += candidates.size();
+		}
+		if (scoreEvent.isSampled()) {
+			scoreEvent.word = CaseFolding.toLowerCase(text, from, to);
+			scoreEvent.replacement = replacement;
+			scoreEvent.method = method;
+			scoreEvent.candidates = scanned ? candidates.size() : 0;
+			scoreEvent.commit();
+		}
+		if (cacheable) {
+			cache.put(data.version(), row, config.getSelectedAlgorithms(), method, replacement);
+		}
+		return replacement;
 	}
 
 	/**
-	 * Finds the most similar word using the selected algorithms.
+	 * Scores every candidate with all selected algorithms in a single pass over
+	 * the candidate vectors. When quantized scoring is enabled the scan reads
+	 * the int8 codes instead, and the configured number of best (or worst)
+	 * candidates per algorithm is then re-scored with full precision.
 	 * 
-	 * Time Complexity: O(m * k)
-	 * - Rationale:
-	 * - Iterates over `k` candidates for each of the `m` algorithms.
+	 * Time Complexity: O(k * n)
+	 * - Rationale: Each of the `k` candidate vectors of size `n` is read once;
+	 * re-ranking adds O(k * m * log r + m * r * n) for `r` re-scored candidates.
 	 * 
+	 * @param data         The snapshot holding the candidates.
 	 * @param targetVector The target word vector.
-	 * @param candidates   The candidate words and their vectors.
-	 * @return The most similar word.
+	 * @param algorithms   The selected similarity algorithms.
+	 * @param mostSimilar  True if the most similar candidates will be picked,
+	 *                     false for the least similar ones.
+	 * @return The row-major candidate by algorithm score matrix. Candidates
+	 *         that were not re-scored after a quantized scan are scored NaN.
 	 */
-	private String findMostSimilar(double[] targetVector, Map<String, double[]> candidates) {
-		String bestMatch = null;
-		double bestScore = config.getSelectedAlgorithms().get(0).isHigherBetter() ? -Double.MAX_VALUE
-				: Double.MAX_VALUE;
+	private double[] scoreCandidates(DataBase.Snapshot data, double[] targetVector,
+			List<AbstractSimilarityAlgorithm> algorithms, boolean mostSimilar) {
+		ScoringEngine engine = new ScoringEngine(algorithms);
+		CandidateStore candidates = data.candidates();
+		QuantizedCandidateStore quantized = quantizedStore(data);
+		if (quantized == null) {
+			return engine.score(targetVector, candidates);
+		}
+		double[] scores = engine.score(targetVector, quantized);
+		if (config.getRerankSize() == 0) {
+			return scores;
+		}
+		// Never fewer than the top-k random draws from
+		int rerankSize = Math.max(config.getRerankSize(), config.getTopKSize());
+		return engine.rerank(targetVector, candidates, scores, rerankSize, mostSimilar);
+	}
 
-		for (AbstractSimilarityAlgorithm algorithm : config.getSelectedAlgorithms()) {
+	/**
+	 * Looks up the nearest candidates in the approximate (HNSW) index when the
+	 * approximate search mode is selected together with a single supported
+	 * algorithm.
+	 * 
+	 * Time Complexity: O(log k * efSearch * n)
+	 * - Rationale: See `HnswIndex.search`.
+	 * 
+	 * @param data         The snapshot holding the indexes.
+	 * @param targetVector The target word vector.
+	 * @param algorithms   The selected similarity algorithms.
+	 * @param count        The number of neighbours wanted.
+	 * @return Candidate indices nearest first, or null if the exact scan must be
+	 *         used instead.
+	 */
+	private int[] findApproximateNearest(DataBase.Snapshot data, double[] targetVector,
+			List<AbstractSimilarityAlgorithm> algorithms, int count) {
+		HnswIndex index = approximateIndex(data, algorithms);
+		return index != null ? index.search(targetVector, count, config.getHnswEfSearch()) : null;
+	}
 
-			for (Map.Entry<String, double[]> entry : candidates.entrySet()) {
-				if (entry.getValue() == null) {
-					continue;
-				}
-				double score = algorithm.calculate(targetVector, entry.getValue());
-				if ((algorithm.isHigherBetter() && score > bestScore) ||
-						(!algorithm.isHigherBetter() && score < bestScore)) {
-					bestScore = score;
-					bestMatch = entry.getKey();
-				}
-			}
+	/**
+	 * Gets the approximate (HNSW) index to search, if the approximate search
+	 * mode is selected together with a single supported algorithm.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: A lookup by algorithm type.
+	 * 
+	 * @return The index, or null if the exact scan must be used.
+	 */
+	private HnswIndex approximateIndex(DataBase.Snapshot data, List<AbstractSimilarityAlgorithm> algorithms) {
+		if (!config.isApproximateSearch() || algorithms.size() != 1) {
+			return null;
+		}
+		return data.getApproximateIndex(algorithms.get(0)); // Built for the candidates of the same snapshot
+	}
+
+	/**
+	 * Gets the column of the replacement table that answers the current
+	 * algorithms and method, if the snapshot has a table. The
+	 * table gives the same replacements as exact scoring and takes precedence
+	 * over the approximate index and quantized scoring.
+	 * 
+	 * Time Complexity: O(1) amortized
+	 * - Rationale: The column is looked up again only when the table or the
+	 * configuration changes.
+	 * 
+	 * @return The table and column, or null if words must be scored.
+	 */
+	private TableColumn tableColumn(DataBase.Snapshot data) {
+		ReplacementTable table = data.replacementTable();
+		if (table == null) {
+			return null;
 		}
-		if (bestMatch == null) {
+		TableColumn resolved = tableColumn;
+		long version = config.getVersion();
+		if (resolved == null || resolved.table() != table || resolved.configVersion() != version) {
+			resolved = new TableColumn(table, version,
+					table.findColumn(config.getSelectedAlgorithms(), config.getReplacementMethod()));
+			tableColumn = resolved;
+		}
+		return resolved.column() >= 0 ? resolved : null;
+	}
+
+	/**
+	 * Gets the quantized candidate store to scan, if quantized scoring is
+	 * enabled and the snapshot has one.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads a field.
+	 * 
+	 * @return The quantized store, or null if the exact scan must be used.
+	 */
+	private QuantizedCandidateStore quantizedStore(DataBase.Snapshot data) {
+		return config.isQuantizedScoring() ? data.quantizedCandidates() : null;
+	}
+
+	/**
+	 * Finds the most similar word using the selected algorithms.
+	 * 
+	 * Time Complexity: O(m * k)
+	 * - Rationale:
+	 * - Iterates over the scores of `k` candidates for each of the `m` algorithms.
+	 * 
+	 * @param scores     The candidate by algorithm score matrix.
+	 * @param algorithms The selected similarity algorithms.
+	 * @param candidates The precomputed candidate store.
+	 * @return The most similar word.
+	 */
+	private String findMostSimilar(double[] scores, List<AbstractSimilarityAlgorithm> algorithms,
+			CandidateStore candidates) {
+		int best = ScoringEngine.findBest(scores, algorithms, candidates.size(), true);
+		if (best < 0) {
 			return "No Match Found"; // Fallback for no matches
 		}
-		return bestMatch;
+		return candidates.getWord(best);
 	}
 
 	/**
@@ -181,34 +600,55 @@ public class Simplify {
 	 * 
 	 * Time Complexity: O(m * k)
 	 * - Rationale:
-	 * - Iterates over `k` candidates for each of the `m` algorithms.
+	 * - Iterates over the scores of `k` candidates for each of the `m` algorithms.
 	 * 
-	 * @param targetVector The target word vector.
-	 * @param candidates   The candidate words and their vectors.
+	 * @param scores     The candidate by algorithm score matrix.
+	 * @param algorithms The selected similarity algorithms.
+	 * @param candidates The precomputed candidate store.
 	 * @return The least similar word.
 	 */
-	private String findLeastSimilar(double[] targetVector, Map<String, double[]> candidates) {
-		String worstMatch = null;
-		double worstScore = config.getSelectedAlgorithms().get(0).isHigherBetter() ? Double.MAX_VALUE
-				: -Double.MAX_VALUE;
+	private String findLeastSimilar(double[] scores, List<AbstractSimilarityAlgorithm> algorithms,
+			CandidateStore candidates) {
+		int worst = ScoringEngine.findBest(scores, algorithms, candidates.size(), false);
+		if (worst < 0) {
+			return "No Match Found"; // Fallback for no matches
+		}
+		return candidates.getWord(worst);
+	}
 
-		for (AbstractSimilarityAlgorithm algorithm : config.getSelectedAlgorithms()) {
-			for (Map.Entry<String, double[]> entry : candidates.entrySet()) {
-				if (entry.getValue() == null) {
-					continue;
-				}
-				double score = algorithm.calculate(targetVector, entry.getValue());
-				if ((algorithm.isHigherBetter() && score < worstScore) ||
-						(!algorithm.isHigherBetter() && score > worstScore)) {
-					worstScore = score;
-					worstMatch = entry.getKey();
-				}
+	/**
+	 * Picks a random replacement among the `k` candidates most similar under the
+	 * first selected algorithm.
+	 * 
+	 * Time Complexity: O(k * n + k * log t)
+	 * - Rationale: The `k` candidate vectors of size `n` are scored in one pass
+	 * and offered to a bounded heap of size `t`, the configured top-k size.
+	 * 
+	 * @param data         The snapshot holding the candidates.
+	 * @param targetVector The target word vector.
+	 * @param algorithms   The selected similarity algorithms.
+	 * @return A word chosen at random among the nearest candidates.
+	 */
+	private String findTopKRandom(DataBase.Snapshot data, double[] targetVector,
+			List<AbstractSimilarityAlgorithm> algorithms) {
+		CandidateStore candidates = data.candidates();
+		int[] approximate = findApproximateNearest(data, targetVector, algorithms, config.getTopKSize());
+		if (approximate != null && approximate.length > 0) {
+			return candidates.getWord(approximate[random.nextInt(approximate.length)]);
+		}
+
+		AbstractSimilarityAlgorithm primary = algorithms.get(0);
+		double[] scores = scoreCandidates(data, targetVector, List.of(primary), true);
+		TopKCollector nearest = new TopKCollector(config.getTopKSize(), primary.isHigherBetter());
+		for (int i = 0; i < candidates.size(); i++) {
+			if (!Double.isNaN(scores[i])) { // Not re-scored after a quantized scan
+				nearest.offer(i, scores[i]);
 			}
 		}
-		if (worstMatch == null) {
-			return "No Match Found"; // Fallback for no matches
+		if (nearest.size() == 0) {
+			return null;
 		}
-		return worstMatch;
+		return candidates.getWord(nearest.indexAt(random.nextInt(nearest.size())));
 	}
 
 	/**
@@ -218,11 +658,10 @@ public class Simplify {
 	 * - Rationale: Random selection from a list of candidates is a constant-time
 	 * operation.
 	 * 
-	 * @param candidates The candidate words and their vectors.
+	 * @param candidates The precomputed candidate store.
 	 * @return A randomly selected word.
 	 */
-	private String findRandomReplacement(Map<String, double[]> candidates) {
-		List<String> keys = candidates.keySet().stream().toList();
-		return keys.get(random.nextInt(keys.size()));
+	private String findRandomReplacement(CandidateStore candidates) {
+		return candidates.getWord(random.nextInt(candidates.size()));
 	}
 }
\ No newline at end of file
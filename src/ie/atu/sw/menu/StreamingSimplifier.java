@@ -0,0 +1,374 @@
+package ie.atu.sw.menu;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import ie.atu.sw.metrics.Metrics;
+import ie.atu.sw.utils.CaseFolding;
+
+/**
+ * Simplifies input files of any size with constant heap usage.
+ *
+ * The input is read through memory-mapped windows of a `FileChannel` and
+ * decoded into a reused char buffer. Tokens are recognised one character at a
+ * time, so a token that straddles two windows is simply carried over. The
+ * simplified text is encoded into a reused direct byte buffer and written to
+ * the output channel whenever it fills up. Each line is simplified exactly as
+ * `Simplify.simplifyText` would simplify it on its own, so the output matches
+ * the batch mode line for line.
+ *
+ * A token longer than any word of the embeddings, e.g. a run of base64 data,
+ * cannot be replaced, so it is not buffered whole: past `MAX_TOKEN_LENGTH`
+ * characters it is written through lowercased, a chunk at a time.
+ */
+public class StreamingSimplifier {
+	private static final long WINDOW_SIZE = 64L * 1024 * 1024; // Bytes mapped at a time
+	private static final int BUFFER_SIZE = 64 * 1024; // Chars decoded / bytes written at a time
+	static final int MAX_TOKEN_LENGTH = 1024; // Far longer than any word with a vector
+
+	private final Simplify simplify;
+	private final String lineSeparator = System.lineSeparator();
+
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final CharBuffer decoded = CharBuffer.allocate(BUFFER_SIZE);
+	private final CharBuffer pendingOutput = CharBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer encoded = ByteBuffer.allocateDirect(BUFFER_SIZE * 4);
+	private FileChannel out;
+
+	// Tokenizer state for the current line
+	private final StringBuilder token = new StringBuilder();
+	private final StringBuilder loweredChunk = new StringBuilder();
+	private final StringBuilder pendingBlanks = new StringBuilder();
+	private int linePosition;
+	private int tokenCount;
+	private char previous;
+	private boolean inWhitespaceRun;
+	private boolean overlongToken;
+	private boolean outputStarted;
+	private boolean skipLineFeed;
+
+	/**
+	 * Constructor for the StreamingSimplifier class.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Allocates fixed-size buffers that are reused for the whole
+	 * file.
+	 *
+	 * @param simplify The simplifier used to replace each word.
+	 */
+	public StreamingSimplifier(Simplify simplify) {
+		this.simplify = simplify;
+	}
+
+	/**
+	 * Streams the input file through the simplifier into the output file.
+	 *
+	 * Time Complexity: O(b + t * k)
+	 * - Rationale: Every one of the `b` input bytes is decoded and inspected
+	 * once, and each of the `t` words is scored against `k` candidates. Memory
+	 * use is bounded by the buffer sizes, not by `b`.
+	 *
+	 * @param inputPath  The file to simplify.
+	 * @param outputPath The file the simplified text is written to (overwritten).
+	 * @return The number of input bytes processed.
+	 * @throws IOException If either file cannot be read or written.
+	 */
+	public long simplifyFile(Path inputPath, Path outputPath) throws IOException {
+		simplify.refresh();
+		resetLine();
+		skipLineFeed = false;
+		decoder.reset();
+		encoder.reset();
+		pendingOutput.clear();
+		encoded.clear();
+
+		try (FileChannel in = FileChannel.open(inputPath, StandardOpenOption.READ);
+				FileChannel output = FileChannel.open(outputPath, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			this.out = output;
+			long size = in.size();
+			long position = 0;
+
+			while (position < size) {
+				long length = Math.min(WINDOW_SIZE, size - position);
+				MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+				boolean last = position + length == size;
+				decodeWindow(window, last);
+				// An incomplete multi-byte character at the end is re-read with the next window
+				position += window.position();
+				if (!last && window.position() == 0) {
+					throw new IOException("Unable to decode input at byte " + position);
+				}
+			}
+
+			decoded.clear();
+			decoder.decode(ByteBuffer.allocate(0), decoded, true);
+			decoder.flush(decoded);
+			decoded.flip();
+			processChars();
+
+			if (linePosition > 0) {
+				endLine();
+			}
+			flushOutput(true);
+			return size;
+		} finally {
+			this.out = null;
+		}
+	}
+
+	/**
+	 * Decodes one mapped window chunk by chunk into the reused char buffer.
+	 *
+	 * Time Complexity: O(w)
+	 * - Rationale: Each of the `w` bytes in the window is decoded once.
+	 */
+	private void decodeWindow(MappedByteBuffer window, boolean endOfInput) throws IOException {
+		while (true) {
+			decoded.clear();
+			CoderResult result = decoder.decode(window, decoded, endOfInput);
+			decoded.flip();
+			processChars();
+			if (result.isUnderflow()) {
+				return;
+			}
+			if (result.isError()) {
+				result.throwException();
+			}
+		}
+	}
+
+	/**
+	 * Feeds the decoded characters to the tokenizer.
+	 *
+	 * Time Complexity: O(c)
+	 * - Rationale: Each of the `c` decoded characters is inspected once.
+	 */
+	private void processChars() throws IOException {
+		while (decoded.hasRemaining()) {
+			char c = decoded.get();
+			if (skipLineFeed) {
+				skipLineFeed = false;
+				if (c == '\n') {
+					continue;
+				}
+			}
+			if (c == '\n' || c == '\r') {
+				skipLineFeed = c == '\r';
+				endLine();
+			} else {
+				accept(c);
+			}
+		}
+	}
+
+	/**
+	 * Processes one character of the current line. This is the incremental form
+	 * of `TextLexer`, which `Simplify.simplifyText` uses: a token boundary before
+	 * and after every punctuation character and at every run of whitespace,
+	 * where whitespace directly after punctuation stays at the start of the next
+	 * token.
+	 *
+	 * Time Complexity: O(1) amortized
+	 * - Rationale: Appends to the current token or emits it; the token never
+	 * holds more than `MAX_TOKEN_LENGTH` characters.
+	 */
+	private void accept(char c) throws IOException {
+		int position = linePosition++;
+		char before = previous;
+		previous = c;
+
+		if (inWhitespaceRun) {
+			if (TextLexer.isWhitespace(c)) {
+				return;
+			}
+			inWhitespaceRun = false;
+		}
+
+		if (TextLexer.isPunctuation(c) || (position > 0 && TextLexer.isPunctuation(before))) {
+			if (position > 0) {
+				emitToken();
+			}
+			token.append(c);
+		} else if (TextLexer.isWhitespace(c)) {
+			emitToken();
+			inWhitespaceRun = true;
+		} else {
+			token.append(c);
+			if (token.length() >= MAX_TOKEN_LENGTH) {
+				writeOverlongChunk();
+			}
+		}
+	}
+
+	/**
+	 * Writes the buffered part of a token too long to be a word, lowercased as
+	 * `Simplify` keeps words without a vector, and empties the buffer. The
+	 * rest of the token follows in later chunks.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Lowers and copies the `l` buffered characters once.
+	 */
+	private void writeOverlongChunk() throws IOException {
+		int start = 0;
+		if (!overlongToken) {
+			overlongToken = true;
+			if (tokenCount > 0) {
+				write(" ");
+			}
+			while (start < token.length() && token.charAt(start) <= ' ') {
+				start++;
+			}
+		}
+		loweredChunk.setLength(0);
+		CaseFolding.appendLowerCase(loweredChunk, token, start, token.length());
+		write(loweredChunk);
+		token.setLength(0);
+	}
+
+	/**
+	 * Writes the current token (or its replacement) and starts a new one.
+	 *
+	 * Time Complexity: O(k * n) for words, O(1) for punctuation.
+	 * - Rationale: Words are scored by the simplifier; punctuation and the end
+	 * of an overlong token are copied.
+	 */
+	private void emitToken() throws IOException {
+		if (overlongToken) {
+			writeOverlongChunk();
+			overlongToken = false;
+			Metrics.TOKENS.increment();
+		} else if (token.length() == 1 && TextLexer.isPunctuation(token.charAt(0))) {
+			write(token);
+		} else {
+			if (tokenCount > 0) {
+				write(" ");
+			}
+			// Trimmed like String.trim, but read in place from the token buffer
+			int start = 0;
+			int end = token.length();
+			while (start < end && token.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && token.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			write(simplify.simplifyWord(token, start, end));
+		}
+		tokenCount++;
+		token.setLength(0);
+	}
+
+	/**
+	 * Finishes the current line: emits the last token, drops trailing blanks and
+	 * writes the line separator.
+	 *
+	 * Time Complexity: O(k * n)
+	 * - Rationale: At most one more word is simplified.
+	 */
+	private void endLine() throws IOException {
+		emitToken();
+		for (int i = 0; i < lineSeparator.length(); i++) {
+			put(lineSeparator.charAt(i));
+		}
+		resetLine();
+	}
+
+	private void resetLine() {
+		token.setLength(0);
+		pendingBlanks.setLength(0);
+		linePosition = 0;
+		tokenCount = 0;
+		previous = 0;
+		inWhitespaceRun = false;
+		overlongToken = false;
+		outputStarted = false;
+	}
+
+	/**
+	 * Writes simplified text, trimming leading and trailing blanks of the line
+	 * the same way `String.trim` would.
+	 *
+	 * Time Complexity: O(s)
+	 * - Rationale: Each of the `s` characters is copied once.
+	 */
+	private void write(CharSequence text) throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c <= ' ') {
+				if (outputStarted) {
+					pendingBlanks.append(c);
+				}
+				continue;
+			}
+			for (int j = 0; j < pendingBlanks.length(); j++) {
+				put(pendingBlanks.charAt(j));
+			}
+			pendingBlanks.setLength(0);
+			outputStarted = true;
+			put(c);
+		}
+	}
+
+	private void put(char c) throws IOException {
+		if (!pendingOutput.hasRemaining()) {
+			flushOutput(false);
+		}
+		pendingOutput.put(c);
+	}
+
+	/**
+	 * Encodes the pending characters and writes them to the output channel.
+	 *
+	 * Time Complexity: O(s)
+	 * - Rationale: Each of the `s` pending characters is encoded and written
+	 * once.
+	 */
+	private void flushOutput(boolean endOfInput) throws IOException {
+		pendingOutput.flip();
+		while (true) {
+			CoderResult result = encoder.encode(pendingOutput, encoded, endOfInput);
+			if (result.isOverflow()) {
+				drainEncoded();
+				continue;
+			}
+			if (result.isError()) {
+				result.throwException();
+			}
+			break;
+		}
+		if (endOfInput) {
+			while (encoder.flush(encoded).isOverflow()) {
+				drainEncoded();
+			}
+			drainEncoded();
+		}
+		// Keeps a dangling high surrogate for the next flush
+		pendingOutput.compact();
+	}
+
+	private void drainEncoded() throws IOException {
+		long start = Metrics.now();
+		encoded.flip();
+		while (encoded.hasRemaining()) {
+			out.write(encoded);
+		}
+		encoded.clear();
+		Metrics.WRITE.recordSince(start);
+	}
+}
@@ -0,0 +1,172 @@
+package ie.atu.sw.menu;
+
+/**
+ * Hand-written, single-pass lexer that splits text into word and punctuation
+ * tokens without regular expressions or intermediate Strings. Tokens are
+ * reported as spans (offset, length and type) over the input `CharSequence`.
+ *
+ * The boundaries are exactly those of the former
+ * `split("(?=\\p{Punct})|(?<=\\p{Punct})|\\s+")`: before and after every ASCII
+ * punctuation character and at every run of whitespace. Whitespace that
+ * directly follows punctuation is not a separator and ends up at the start of
+ * the next word, which is why word spans are trimmed. An empty word is
+ * reported where whitespace is directly followed by punctuation.
+ */
+public final class TextLexer {
+	/**
+	 * Type of a word token; its span is already trimmed and may be empty.
+	 */
+	public static final int WORD = 0;
+
+	/**
+	 * Type of a single ASCII punctuation character.
+	 */
+	public static final int PUNCTUATION = 1;
+
+	private static final byte OTHER = 0;
+	private static final byte PUNCT = 1;
+	private static final byte SPACE = 2;
+	private static final byte[] ASCII_CLASSES = new byte[128];
+
+	static {
+		for (char c = 0; c < 128; c++) {
+			if (c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r') {
+				ASCII_CLASSES[c] = SPACE;
+			} else if (c > ' ' && c < 127 && !Character.isLetterOrDigit(c)) {
+				ASCII_CLASSES[c] = PUNCT;
+			}
+		}
+	}
+
+	private final CharSequence text;
+	private final int length;
+	private int position;
+	private int start;
+	private boolean inWhitespaceRun;
+	private boolean finished;
+
+	private int tokenOffset;
+	private int tokenLength;
+	private int tokenType;
+
+	/**
+	 * Constructor for the TextLexer class.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: Stores a reference to the text; nothing is copied.
+	 *
+	 * @param text The text to tokenize.
+	 */
+	public TextLexer(CharSequence text) {
+		this.text = text;
+		this.length = text.length();
+	}
+
+	/**
+	 * Checks if a character is ASCII punctuation, i.e. matches `\p{Punct}`.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: A single table lookup; non-ASCII characters are never
+	 * punctuation.
+	 *
+	 * @param c The character to check.
+	 * @return True if the character is punctuation, false otherwise.
+	 */
+	public static boolean isPunctuation(char c) {
+		return c < 128 && ASCII_CLASSES[c] == PUNCT;
+	}
+
+	/**
+	 * Checks if a character is whitespace, i.e. matches `\s`.
+	 *
+	 * Time Complexity: O(1)
+	 * - Rationale: A single table lookup; non-ASCII characters are never
+	 * whitespace.
+	 *
+	 * @param c The character to check.
+	 * @return True if the character is whitespace, false otherwise.
+	 */
+	public static boolean isWhitespace(char c) {
+		return c < 128 && ASCII_CLASSES[c] == SPACE;
+	}
+
+	/**
+	 * Advances to the next token.
+	 *
+	 * Time Complexity: O(l)
+	 * - Rationale: Scans the `l` characters of the token and the separator that
+	 * follows it; over the whole text every character is visited once.
+	 *
+	 * @return True if a token is available, false at the end of the text.
+	 */
+	public boolean next() {
+		while (position < length) {
+			int p = position;
+			char c = text.charAt(p);
+			byte type = c < 128 ? ASCII_CLASSES[c] : OTHER;
+
+			if (inWhitespaceRun) {
+				if (type == SPACE) {
+					position++;
+					continue;
+				}
+				inWhitespaceRun = false;
+				start = p;
+			}
+
+			position++;
+			if (type == PUNCT || (p > 0 && isPunctuation(text.charAt(p - 1)))) {
+				if (p > 0) {
+					setToken(start, p);
+					start = p;
+					return true;
+				}
+			} else if (type == SPACE) {
+				inWhitespaceRun = true;
+				setToken(start, p);
+				return true;
+			}
+		}
+
+		if (finished) {
+			return false;
+		}
+		finished = true;
+		setToken(inWhitespaceRun ? length : start, length);
+		return true;
+	}
+
+	/**
+	 * Records the span between two offsets as the current token.
+	 *
+	 * Time Complexity: O(w)
+	 * - Rationale: Trims at most the `w` blank characters at the ends of a word.
+	 */
+	private void setToken(int from, int to) {
+		if (to - from == 1 && isPunctuation(text.charAt(from))) {
+			tokenType = PUNCTUATION;
+		} else {
+			tokenType = WORD;
+			while (from < to && text.charAt(from) <= ' ') {
+				from++;
+			}
+			while (to > from && text.charAt(to - 1) <= ' ') {
+				to--;
+			}
+		}
+		tokenOffset = from;
+		tokenLength = to - from;
+	}
+
+	public int offset() {
+		return tokenOffset;
+	}
+
+	public int length() {
+		return tokenLength;
+	}
+
+	public int type() {
+		return tokenType;
+	}
+}
@@ -0,0 +1,51 @@
+package ie.atu.sw.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. of processed tokens. Increments from
+ * concurrent virtual threads do not contend on a single memory location.
+ */
+public final class Counter {
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Adds one to the count, unless metrics are disabled.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Increments one cell of a `LongAdder`.
+	 */
+	public void increment() {
+		if (Metrics.ENABLED) {
+			count.increment();
+		}
+	}
+
+	/**
+	 * Adds to the count, unless metrics are disabled.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Adds to one cell of a `LongAdder`.
+	 * 
+	 * @param amount The non-negative amount to add.
+	 */
+	public void add(long amount) {
+		if (Metrics.ENABLED) {
+			count.add(amount);
+		}
+	}
+
+	/**
+	 * Gets the current count.
+	 * 
+	 * Time Complexity: O(c)
+	 * - Rationale: Sums the `c` cells of the `LongAdder`, at most one per core.
+	 */
+	public long get() {
+		return count.sum();
+	}
+
+	void reset() {
+		count.reset();
+	}
+}
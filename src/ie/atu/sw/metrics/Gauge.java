@@ -0,0 +1,30 @@
+package ie.atu.sw.metrics;
+
+/**
+ * A value that can go up and down, e.g. the number of loaded words.
+ */
+public final class Gauge {
+	private volatile long value;
+
+	/**
+	 * Sets the value, unless metrics are disabled.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Assigns a volatile field.
+	 */
+	public void set(long value) {
+		if (Metrics.ENABLED) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Gets the last value set.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads a volatile field.
+	 */
+	public long get() {
+		return value;
+	}
+}
@@ -0,0 +1,157 @@
+package ie.atu.sw.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in fixed buckets that grow by a factor of 4 from 1 us to
+ * 16 s, like a Prometheus histogram. Recording is lock-free and allocation
+ * free; quantiles are estimated from the bucket bounds.
+ */
+public final class LatencyHistogram {
+	private static final long[] BOUNDS_NANOS = { 1_000L, 4_000L, 16_000L, 64_000L, 256_000L, 1_000_000L,
+			4_000_000L, 16_000_000L, 64_000_000L, 256_000_000L, 1_000_000_000L, 4_000_000_000L,
+			16_000_000_000L };
+
+	private final String label;
+	private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1]; // The last one has no bound
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sumNanos = new LongAdder();
+
+	/**
+	 * Constructor for the LatencyHistogram class.
+	 * 
+	 * Time Complexity: O(b)
+	 * - Rationale: Creates one adder per bucket.
+	 * 
+	 * @param label The value of the label that tells this histogram apart from
+	 *              the others of the same metric, e.g. "score".
+	 */
+	public LatencyHistogram(String label) {
+		this.label = label;
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records the time elapsed since `startNanos`, unless metrics are disabled.
+	 * 
+	 * Time Complexity: O(b)
+	 * - Rationale: Finds the bucket among the `b` bounds, a short fixed list.
+	 * 
+	 * @param startNanos A `System.nanoTime()` value, usually from
+	 *                   `Metrics.now()`.
+	 */
+	public void recordSince(long startNanos) {
+		if (Metrics.ENABLED) {
+			record(System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * Records a duration, unless metrics are disabled.
+	 * 
+	 * Time Complexity: O(b)
+	 * - Rationale: Finds the bucket among the `b` bounds, a short fixed list.
+	 * 
+	 * @param nanos The duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (!Metrics.ENABLED) {
+			return;
+		}
+		int i = 0;
+		while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+			i++;
+		}
+		buckets[i].increment();
+		count.increment();
+		sumNanos.add(nanos);
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSumNanos() {
+		return sumNanos.sum();
+	}
+
+	/**
+	 * Gets the mean duration.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Divides two sums.
+	 * 
+	 * @return The mean in microseconds, or 0 if nothing was recorded.
+	 */
+	public double getMeanMicros() {
+		long n = getCount();
+		return n == 0 ? 0.0 : getSumNanos() / 1_000.0 / n;
+	}
+
+	/**
+	 * Estimates a quantile as the upper bound of the bucket it falls into.
+	 * 
+	 * Time Complexity: O(b)
+	 * - Rationale: Accumulates the `b` bucket counts.
+	 * 
+	 * @param quantile The quantile, between 0 and 1 (e.g. 0.99).
+	 * @return The estimate in microseconds, 0 if nothing was recorded, or
+	 *         infinity if it falls beyond the largest bound.
+	 */
+	public double getQuantileMicros(double quantile) {
+		long[] cumulative = getCumulativeCounts();
+		long total = cumulative[cumulative.length - 1];
+		if (total == 0) {
+			return 0.0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+			if (cumulative[i] >= rank) {
+				return BOUNDS_NANOS[i] / 1_000.0;
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Gets the number of durations up to each bound, the last entry counting
+	 * every duration, as a Prometheus histogram reports them.
+	 * 
+	 * Time Complexity: O(b)
+	 * - Rationale: Accumulates the `b` bucket counts.
+	 */
+	long[] getCumulativeCounts() {
+		long[] cumulative = new long[buckets.length];
+		long running = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			running += buckets[i].sum();
+			cumulative[i] = running;
+		}
+		return cumulative;
+	}
+
+	/**
+	 * Gets the upper bound of every bucket but the last, in seconds.
+	 */
+	static double[] getBoundsSeconds() {
+		double[] bounds = new double[BOUNDS_NANOS.length];
+		for (int i = 0; i < bounds.length; i++) {
+			bounds[i] = BOUNDS_NANOS[i] / 1e9;
+		}
+		return bounds;
+	}
+
+	void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		sumNanos.reset();
+	}
+}
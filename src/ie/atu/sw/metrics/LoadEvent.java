@@ -0,0 +1,45 @@
+package ie.atu.sw.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted for every file loaded by `DataBase`. Its
+ * duration is the time taken to read, parse and index the file.
+ */
+@Name("ie.atu.sw.Load")
+@Label("Load File")
+@Category("Text Simplifier")
+@Description("A word embeddings or common words file loaded by DataBase")
+@StackTrace(false)
+public class LoadEvent extends jdk.jfr.Event {
+	@Label("Path")
+	public String path;
+
+	@Label("Format")
+	@Description("\"embeddings text\", \"embeddings snapshot\" or \"common words\"")
+	public String format;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+
+	@Label("Lines")
+	public long lines;
+
+	@Label("Malformed Lines")
+	@Description("Lines without a word and a value")
+	public long malformedLines;
+
+	@Label("Skipped Lines")
+	@Description("Lines whose number of values differs from the dimension")
+	public long skippedLines;
+
+	@Label("Words")
+	@Description("Words loaded (for embeddings, in total after merging)")
+	public long words;
+}
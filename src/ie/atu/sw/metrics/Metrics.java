@@ -0,0 +1,206 @@
+package ie.atu.sw.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The runtime metrics of the simplifier: how many tokens were processed, how
+ * the replacement cache performs, how many words each method replaced, how
+ * long each stage of a simplification takes and how long the files took to
+ * load.
+ *
+ * Metrics are off unless the JVM is started with `-Dsimplifier.metrics=true`.
+ * `ENABLED` is a compile-time constant for the JIT compiler, so while it is
+ * false every hook (`Counter.increment`, `LatencyHistogram.recordSince`,
+ * `Metrics.now`, ...) is folded away and costs nothing. When enabled, the
+ * metrics are published as the `ie.atu.sw:type=Simplifier` MXBean (see
+ * `SimplifierMetricsMXBean`) and, if `-Dsimplifier.metrics.file=<path>` is
+ * set, written in the Prometheus text format to that file every
+ * `-Dsimplifier.metrics.interval` seconds (15 by default).
+ */
+public final class Metrics {
+	public static final boolean ENABLED = Boolean.getBoolean("simplifier.metrics");
+
+	static final String OBJECT_NAME = "ie.atu.sw:type=Simplifier";
+	private static final long DEFAULT_INTERVAL_SECONDS = 15;
+
+	/** Words simplified, including common and unknown words. */
+	public static final Counter TOKENS = new Counter();
+	public static final Counter CACHE_HITS = new Counter();
+	public static final Counter CACHE_MISSES = new Counter();
+	private static final Map<String, Counter> REPLACEMENTS = new ConcurrentSkipListMap<>();
+
+	/** Splitting a text into tokens. */
+	public static final LatencyHistogram TOKENIZE = new LatencyHistogram("tokenize");
+	/** Looking up the vector of a word, whether it is common, and the cache. */
+	public static final LatencyHistogram LOOKUP = new LatencyHistogram("lookup");
+	/** Scoring the candidates and picking the replacement. */
+	public static final LatencyHistogram SCORE = new LatencyHistogram("score");
+	/** Writing simplified text to the output file. */
+	public static final LatencyHistogram WRITE = new LatencyHistogram("write");
+	static final List<LatencyHistogram> STAGES = List.of(TOKENIZE, LOOKUP, SCORE, WRITE);
+
+	public static final LatencyHistogram LOAD_EMBEDDINGS = new LatencyHistogram("embeddings");
+	public static final LatencyHistogram LOAD_COMMON_WORDS = new LatencyHistogram("common_words");
+	static final List<LatencyHistogram> LOADS = List.of(LOAD_EMBEDDINGS, LOAD_COMMON_WORDS);
+
+	/** Words with a vector. */
+	public static final Gauge VOCABULARY_SIZE = new Gauge();
+	public static final Gauge COMMON_WORDS = new Gauge();
+	/** Common words with a vector, i.e. the possible replacements. */
+	public static final Gauge CANDIDATES = new Gauge();
+
+	private static boolean started;
+
+	private Metrics() {
+	}
+
+	/**
+	 * Gets the start time of a measured section.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads the clock, or nothing when metrics are disabled.
+	 * 
+	 * @return `System.nanoTime()`, or 0 when metrics are disabled.
+	 */
+	public static long now() {
+		return ENABLED ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Counts a word that was replaced by another one, unless metrics are
+	 * disabled.
+	 * 
+	 * Time Complexity: O(log m)
+	 * - Rationale: Looks up the counter among the `m` replacement methods.
+	 * 
+	 * @param method The replacement method, e.g. "Most Similar".
+	 */
+	public static void countReplacement(String method) {
+		if (ENABLED) {
+			REPLACEMENTS.computeIfAbsent(method.toLowerCase(Locale.ROOT), m -> new Counter()).increment();
+		}
+	}
+
+	/**
+	 * Gets the number of replaced words per replacement method.
+	 * 
+	 * Time Complexity: O(m)
+	 * - Rationale: Copies the `m` counters.
+	 */
+	public static Map<String, Long> getReplacements() {
+		Map<String, Long> replacements = new LinkedHashMap<>();
+		REPLACEMENTS.forEach((method, counter) -> replacements.put(method, counter.get()));
+		return replacements;
+	}
+
+	/**
+	 * Registers the MXBean and starts the Prometheus file export if one is
+	 * configured. Does nothing when metrics are disabled or already started.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Registers one MBean and schedules one task.
+	 */
+	public static synchronized void start() {
+		if (!ENABLED || started) {
+			return;
+		}
+		started = true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new SimplifierMetrics(),
+					new ObjectName(OBJECT_NAME));
+		} catch (JMException e) {
+			System.err.println("Error registering the metrics MBean: " + e.getMessage());
+		}
+
+		String file = System.getProperty("simplifier.metrics.file");
+		if (file != null && !file.isBlank()) {
+			long interval = Long.getLong("simplifier.metrics.interval", DEFAULT_INTERVAL_SECONDS);
+			new PrometheusExporter(Path.of(file), Math.max(interval, 1)).start();
+		}
+	}
+
+	/**
+	 * Resets every counter and histogram; gauges keep their value.
+	 * 
+	 * Time Complexity: O(m + h * b)
+	 * - Rationale: Resets the `m` replacement counters and the `b` buckets of
+	 * the `h` histograms.
+	 */
+	static void reset() {
+		TOKENS.reset();
+		CACHE_HITS.reset();
+		CACHE_MISSES.reset();
+		REPLACEMENTS.clear();
+		STAGES.forEach(LatencyHistogram::reset);
+		LOADS.forEach(LatencyHistogram::reset);
+	}
+
+	/**
+	 * Formats every metric in the Prometheus text exposition format.
+	 * 
+	 * Time Complexity: O(m + h * b)
+	 * - Rationale: Writes the `m` replacement counters and the `b` buckets of
+	 * the `h` histograms.
+	 */
+	public static String toPrometheusText() {
+		StringBuilder out = new StringBuilder(4096);
+		counter(out, "simplifier_tokens_total", "Words simplified.", TOKENS.get());
+		counter(out, "simplifier_cache_hits_total", "Replacements served from the cache.", CACHE_HITS.get());
+		counter(out, "simplifier_cache_misses_total", "Replacements not found in the cache.", CACHE_MISSES.get());
+
+		header(out, "simplifier_replacements_total", "Words replaced, by replacement method.", "counter");
+		getReplacements().forEach((method, count) -> out.append("simplifier_replacements_total{method=\"")
+				.append(method).append("\"} ").append(count).append('\n'));
+
+		histograms(out, "simplifier_stage_seconds", "Time spent per stage of a simplification.", "stage", STAGES);
+		histograms(out, "simplifier_load_seconds", "Time spent loading a file.", "file", LOADS);
+
+		gauge(out, "simplifier_vocabulary_words", "Words with a vector.", VOCABULARY_SIZE.get());
+		gauge(out, "simplifier_common_words", "Common words loaded.", COMMON_WORDS.get());
+		gauge(out, "simplifier_candidates", "Common words with a vector.", CANDIDATES.get());
+		return out.toString();
+	}
+
+	private static void header(StringBuilder out, String name, String help, String type) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void counter(StringBuilder out, String name, String help, long value) {
+		header(out, name, help, "counter");
+		out.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void gauge(StringBuilder out, String name, String help, long value) {
+		header(out, name, help, "gauge");
+		out.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void histograms(StringBuilder out, String name, String help, String labelName,
+			List<LatencyHistogram> histograms) {
+		header(out, name, help, "histogram");
+		double[] bounds = LatencyHistogram.getBoundsSeconds();
+		for (LatencyHistogram histogram : histograms) {
+			String label = labelName + "=\"" + histogram.getLabel() + "\"";
+			long[] cumulative = histogram.getCumulativeCounts();
+			for (int i = 0; i < cumulative.length; i++) {
+				out.append(name).append("_bucket{").append(label).append(",le=\"")
+						.append(i < bounds.length ? Double.toString(bounds[i]) : "+Inf").append("\"} ")
+						.append(cumulative[i]).append('\n');
+			}
+			out.append(name).append("_sum{").append(label).append("} ").append(histogram.getSumNanos() / 1e9)
+					.append('\n');
+			out.append(name).append("_count{").append(label).append("} ").append(cumulative[cumulative.length - 1])
+					.append('\n');
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package ie.atu.sw.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the metrics in the Prometheus text format to a file,
+ * e.g. for the textfile collector of the node exporter. Each dump is written
+ * to a temporary file that then replaces the previous one, so readers never
+ * see a partial dump. A last dump is written when the JVM exits.
+ */
+final class PrometheusExporter {
+	private final Path file;
+	private final long intervalSeconds;
+	private boolean failed;
+
+	/**
+	 * Constructor for the PrometheusExporter class.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Assigns fields.
+	 * 
+	 * @param file            The file to (over)write.
+	 * @param intervalSeconds The time between two dumps.
+	 */
+	PrometheusExporter(Path file, long intervalSeconds) {
+		this.file = file.toAbsolutePath();
+		this.intervalSeconds = intervalSeconds;
+	}
+
+	/**
+	 * Schedules the dumps on a virtual thread, which does not keep the JVM
+	 * alive.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Schedules one periodic task and registers one shutdown hook.
+	 */
+	void start() {
+		ScheduledExecutorService scheduler = Executors
+				.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("metrics-exporter").factory());
+		scheduler.scheduleAtFixedRate(this::write, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(this::write, "metrics-exporter-shutdown"));
+	}
+
+	/**
+	 * Writes one dump.
+	 * 
+	 * Time Complexity: O(m + h * b)
+	 * - Rationale: See `Metrics.toPrometheusText`.
+	 */
+	synchronized void write() {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			Files.writeString(temporary, Metrics.toPrometheusText(), StandardCharsets.UTF_8);
+			try {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			failed = false;
+		} catch (IOException e) {
+			if (!failed) { // Reported once, not every interval
+				System.err.println("Error writing metrics to " + file + ": " + e.getMessage());
+			}
+			failed = true;
+		}
+	}
+}
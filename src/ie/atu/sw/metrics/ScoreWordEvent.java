@@ -0,0 +1,50 @@
+package ie.atu.sw.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted when a single word is scored against the
+ * candidates. There is one per uncached word, so it is disabled by default and,
+ * when enabled, only one word in `-Dsimplifier.jfr.scoreSampling` (100 by
+ * default) is recorded.
+ */
+@Name("ie.atu.sw.ScoreWord")
+@Label("Score Word")
+@Category("Text Simplifier")
+@Description("Sampled scoring of one word against the candidates")
+@Enabled(false)
+@StackTrace(false)
+public class ScoreWordEvent extends jdk.jfr.Event {
+	private static final int SAMPLING = Math.max(Integer.getInteger("simplifier.jfr.scoreSampling", 100), 1);
+
+	@Label("Word")
+	public String word;
+
+	@Label("Replacement")
+	public String replacement;
+
+	@Label("Replacement Method")
+	public String method;
+
+	@Label("Candidates")
+	public int candidates;
+
+	/**
+	 * Decides whether this word is recorded.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Checks the event settings and draws one random number.
+	 * 
+	 * @return True if the event is enabled and this word is sampled.
+	 */
+	public boolean isSampled() {
+		return isEnabled() && (SAMPLING == 1 || ThreadLocalRandom.current().nextInt(SAMPLING) == 0);
+	}
+}
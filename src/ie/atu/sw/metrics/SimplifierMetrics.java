@@ -0,0 +1,92 @@
+package ie.atu.sw.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Reads the `Metrics` for JMX; every call returns the current values.
+ */
+final class SimplifierMetrics implements SimplifierMetricsMXBean {
+	@Override
+	public long getTokensProcessed() {
+		return Metrics.TOKENS.get();
+	}
+
+	@Override
+	public long getCacheHits() {
+		return Metrics.CACHE_HITS.get();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return Metrics.CACHE_MISSES.get();
+	}
+
+	@Override
+	public Map<String, Long> getReplacementsByMethod() {
+		return Metrics.getReplacements();
+	}
+
+	@Override
+	public Map<String, Long> getStageCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		Metrics.STAGES.forEach(histogram -> counts.put(histogram.getLabel(), histogram.getCount()));
+		return counts;
+	}
+
+	@Override
+	public Map<String, Double> getStageMeanMicros() {
+		return byLabel(Metrics.STAGES, LatencyHistogram::getMeanMicros);
+	}
+
+	@Override
+	public Map<String, Double> getStageP99Micros() {
+		return byLabel(Metrics.STAGES, histogram -> histogram.getQuantileMicros(0.99));
+	}
+
+	@Override
+	public Map<String, Long> getLoadCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		Metrics.LOADS.forEach(histogram -> counts.put(histogram.getLabel(), histogram.getCount()));
+		return counts;
+	}
+
+	@Override
+	public Map<String, Double> getLoadMeanMillis() {
+		return byLabel(Metrics.LOADS, histogram -> histogram.getMeanMicros() / 1_000.0);
+	}
+
+	@Override
+	public long getVocabularySize() {
+		return Metrics.VOCABULARY_SIZE.get();
+	}
+
+	@Override
+	public long getCommonWords() {
+		return Metrics.COMMON_WORDS.get();
+	}
+
+	@Override
+	public long getCandidates() {
+		return Metrics.CANDIDATES.get();
+	}
+
+	@Override
+	public String getPrometheusText() {
+		return Metrics.toPrometheusText();
+	}
+
+	@Override
+	public void reset() {
+		Metrics.reset();
+	}
+
+	private static Map<String, Double> byLabel(List<LatencyHistogram> histograms,
+			ToDoubleFunction<LatencyHistogram> value) {
+		Map<String, Double> values = new LinkedHashMap<>();
+		histograms.forEach(histogram -> values.put(histogram.getLabel(), value.applyAsDouble(histogram)));
+		return values;
+	}
+}
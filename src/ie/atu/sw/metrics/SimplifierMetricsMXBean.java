@@ -0,0 +1,43 @@
+package ie.atu.sw.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics published over JMX as `ie.atu.sw:type=Simplifier`, e.g. for
+ * JConsole or VisualVM. Latencies are per stage: "tokenize", "lookup",
+ * "score" and "write"; load times are per file: "embeddings" and
+ * "common_words".
+ */
+public interface SimplifierMetricsMXBean {
+	long getTokensProcessed();
+
+	long getCacheHits();
+
+	long getCacheMisses();
+
+	/** Replaced words per replacement method. */
+	Map<String, Long> getReplacementsByMethod();
+
+	Map<String, Long> getStageCounts();
+
+	Map<String, Double> getStageMeanMicros();
+
+	/** Estimated from the histogram buckets, see `LatencyHistogram`. */
+	Map<String, Double> getStageP99Micros();
+
+	Map<String, Long> getLoadCounts();
+
+	Map<String, Double> getLoadMeanMillis();
+
+	long getVocabularySize();
+
+	long getCommonWords();
+
+	long getCandidates();
+
+	/** Every metric in the Prometheus text exposition format. */
+	String getPrometheusText();
+
+	/** Resets every counter and histogram. */
+	void reset();
+}
@@ -0,0 +1,35 @@
+package ie.atu.sw.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted for every `Simplify.simplifyText` call.
+ * Its duration is the time taken by the call.
+ */
+@Name("ie.atu.sw.SimplifyText")
+@Label("Simplify Text")
+@Category("Text Simplifier")
+@Description("A text simplified by Simplify.simplifyText")
+@StackTrace(false)
+public class SimplifyTextEvent extends jdk.jfr.Event {
+	@Label("Tokens")
+	@Description("Words in the text, without punctuation")
+	public int tokens;
+
+	@Label("Unique Words")
+	public int uniqueWords;
+
+	@Label("Candidates Scored")
+	@Description("Candidate vectors scored exactly, summed over every scored word")
+	public long candidatesScored;
+
+	@Label("Algorithms")
+	public String algorithms;
+
+	@Label("Replacement Method")
+	public String method;
+}
@@ -0,0 +1,319 @@
+package ie.atu.sw.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.console.ConsolePrint;
+import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.menu.ReplacementCache;
+import ie.atu.sw.menu.Simplify;
+import ie.atu.sw.settingmenu.Configuration;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
+
+/**
+ * Serves text simplification over HTTP, handling every request on its own
+ * virtual thread.
+ *
+ * - `POST /simplify` takes the text to simplify as a UTF-8 request body and
+ * returns the simplified text. The optional query parameters `algorithms`
+ * (comma-separated, e.g. `Cosine,Pearson`) and `method` (e.g.
+ * `Least Similar`) override the defaults for that request.
+ * - `GET /health` reports whether the word embeddings and common words are
+ * loaded, as JSON.
+ *
+ * Requests only read the `DataBase`, through the immutable snapshot it
+ * publishes, so they need no locking; a file reloaded while the server runs
+ * replaces the snapshot, and requests already running finish on the old one.
+ * Each combination of algorithms and method gets its own immutable
+ * `Configuration`, `Simplify` and replacement cache, shared by every request
+ * that asks for it.
+ */
+public class SimplifierServer {
+	private static final int MAX_BODY_BYTES = 1024 * 1024;
+	private static final int MAX_PROFILES = 64; // Bounds the memory used by the caches
+	private static final int BACKLOG = 1024;
+	private static final String[] METHODS = { "Most Similar", "Least Similar", "Random", "Top-K Random" };
+
+	private final DataBase database;
+	private final Configuration defaults;
+	private final Map<Profile, Simplify> simplifiers = new ConcurrentHashMap<>();
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/**
+	 * The algorithms and replacement method of a request.
+	 */
+	private record Profile(List<AbstractSimilarityAlgorithm> algorithms, String method) {
+	}
+
+	/**
+	 * Rejects a request with a client error.
+	 */
+	private static class RequestException extends Exception {
+		private static final long serialVersionUID = 1L;
+		private final int status;
+
+		RequestException(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * Constructor for the SimplifierServer class.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Assigns fields.
+	 * 
+	 * @param database The loaded database.
+	 * @param defaults The settings of every request; its algorithms and method
+	 *                 apply when a request does not override them.
+	 */
+	public SimplifierServer(DataBase database, Configuration defaults) {
+		this.database = database;
+		this.defaults = defaults;
+	}
+
+	/**
+	 * Starts listening on all interfaces.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Binds one socket and registers two handlers.
+	 * 
+	 * @param port The TCP port, or 0 for any free port.
+	 * @throws IOException If the port cannot be bound.
+	 */
+	public synchronized void start(int port) throws IOException {
+		if (server != null) {
+			throw new IllegalStateException("The server is already running");
+		}
+		server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+		executor = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor(executor);
+		server.createContext("/simplify", this::handleSimplify);
+		server.createContext("/health", this::handleHealth);
+		server.start();
+	}
+
+	/**
+	 * Gets the port the server listens on.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads the bound address.
+	 */
+	public synchronized int getPort() {
+		if (server == null) {
+			throw new IllegalStateException("The server is not running");
+		}
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops accepting requests and waits for the running ones to finish.
+	 * 
+	 * Time Complexity: O(r)
+	 * - Rationale: Waits for the `r` requests in progress.
+	 * 
+	 * @param delaySeconds The maximum time to wait for requests in progress.
+	 */
+	public synchronized void stop(int delaySeconds) {
+		if (server == null) {
+			return;
+		}
+		server.stop(delaySeconds);
+		executor.close();
+		server = null;
+		executor = null;
+	}
+
+	/**
+	 * Handles `POST /simplify`.
+	 * 
+	 * Time Complexity: O(n * m)
+	 * - Rationale: See `Simplify.simplifyText` for a text of `n` tokens and `m`
+	 * candidates.
+	 */
+	private void handleSimplify(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			try {
+				if (!"/simplify".equals(exchange.getRequestURI().getPath())) {
+					send(exchange, 404, "Not found\n");
+					return;
+				}
+				if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+					exchange.getResponseHeaders().set("Allow", "POST");
+					send(exchange, 405, "Use POST with the text as the request body\n");
+					return;
+				}
+				String text = readBody(exchange);
+				if (!isLoaded()) {
+					send(exchange, 503, "Word embeddings and common words are not loaded\n");
+					return;
+				}
+				Simplify simplify = simplifierFor(parseQuery(exchange.getRequestURI().getRawQuery()));
+				send(exchange, 200, simplify.simplifyText(text) + "\n");
+			} catch (RequestException e) {
+				send(exchange, e.status, e.getMessage() + "\n");
+			} catch (RuntimeException e) {
+				ConsolePrint.printError("Error handling " + exchange.getRequestURI() + ": " + e);
+				send(exchange, 500, "Internal server error\n");
+			}
+		}
+	}
+
+	/**
+	 * Handles `GET /health`.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Reads three sizes.
+	 */
+	private void handleHealth(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				send(exchange, 405, "Use GET\n");
+				return;
+			}
+			DataBase.Snapshot data = database.snapshot(); // The three sizes of one version
+			boolean loaded = !data.embeddings().isEmpty() && !data.commonWords().isEmpty();
+			String body = "{\"status\":\"" + (loaded ? "UP" : "DOWN") + "\",\"embeddings\":"
+					+ data.embeddings().size() + ",\"commonWords\":" + data.commonWords().size()
+					+ ",\"candidates\":" + data.candidates().size() + "}\n";
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			sendBytes(exchange, loaded ? 200 : 503, body.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private boolean isLoaded() {
+		return !database.getEmbeddings().isEmpty() && !database.getCommonWords().isEmpty();
+	}
+
+	/**
+	 * Gets the simplifier of the algorithms and method a request asks for,
+	 * creating it on first use.
+	 * 
+	 * Time Complexity: O(a)
+	 * - Rationale: Resolves the `a` requested algorithm names.
+	 */
+	private Simplify simplifierFor(Map<String, String> query) throws RequestException {
+		List<AbstractSimilarityAlgorithm> algorithms = defaults.getSelectedAlgorithms();
+		String algorithmNames = query.get("algorithms");
+		if (algorithmNames != null) {
+			Set<AbstractSimilarityAlgorithm> requested = new LinkedHashSet<>();
+			for (String name : algorithmNames.split(",")) {
+				AbstractSimilarityAlgorithm algorithm = SimilarityAlgorithmFactory.getAlgorithm(name.trim());
+				if (algorithm == null) {
+					throw new RequestException(400, "Unknown algorithm '" + name.trim() + "'. Choose from "
+							+ String.join(", ", SimilarityAlgorithmFactory.getAvailableAlgorithms()));
+				}
+				requested.add(algorithm);
+			}
+			algorithms = new ArrayList<>(requested);
+		}
+
+		String method = defaults.getReplacementMethod();
+		String requestedMethod = query.get("method");
+		if (requestedMethod != null) {
+			method = findMethod(requestedMethod);
+			if (method == null) {
+				throw new RequestException(400, "Unknown method '" + requestedMethod + "'. Choose from "
+						+ String.join(", ", METHODS));
+			}
+		}
+
+		Profile profile = new Profile(List.copyOf(algorithms), method);
+		Simplify simplify = simplifiers.get(profile);
+		if (simplify != null) {
+			return simplify;
+		}
+		if (simplifiers.size() >= MAX_PROFILES) {
+			return createSimplify(profile, false); // Rare combinations are not cached
+		}
+		return simplifiers.computeIfAbsent(profile, p -> createSimplify(p, true));
+	}
+
+	/**
+	 * Finds a replacement method by name, ignoring case.
+	 * 
+	 * Time Complexity: O(1)
+	 * - Rationale: Compares with the four known methods.
+	 * 
+	 * @param name The name, e.g. "least similar".
+	 * @return The method as `Simplify` expects it, e.g. "Least Similar", or null
+	 *         if unknown.
+	 */
+	public static String findMethod(String name) {
+		for (String method : METHODS) {
+			if (method.equalsIgnoreCase(name.trim())) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the simplifier of a profile, with every other setting, e.g. the
+	 * top-k size or the search mode, taken from the defaults.
+	 * 
+	 * Time Complexity: O(a)
+	 * - Rationale: Copies the defaults and the `a` algorithms of the profile.
+	 */
+	private Simplify createSimplify(Profile profile, boolean cached) {
+		Configuration config = new Configuration(defaults, profile.algorithms(), profile.method());
+		ReplacementCache cache = cached ? new ReplacementCache(defaults.getReplacementCacheSize()) : null;
+		return new Simplify(database, config, cache);
+	}
+
+	private static String readBody(HttpExchange exchange) throws IOException, RequestException {
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+			if (body.length > MAX_BODY_BYTES) {
+				throw new RequestException(413, "The text is larger than " + MAX_BODY_BYTES + " bytes");
+			}
+			return new String(body, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> parameters = new HashMap<>();
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return parameters;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int equals = pair.indexOf('=');
+			String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+			String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+			parameters.put(name, value);
+		}
+		return parameters;
+	}
+
+	private static void send(HttpExchange exchange, int status, String text) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		sendBytes(exchange, status, text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void sendBytes(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -14,6 +14,17 @@ public class Configuration {
     private String outputFilePath;
     private List<AbstractSimilarityAlgorithm> selectedAlgorithms = new ArrayList<>();
     private String replacementMethod = "Most Similar";
+    private int replacementCacheSize = 10_000;
+    private int topKSize = 5;
+    private String searchMode = "Exact";
+    private int hnswM = 16;
+    private int hnswEfConstruction = 200;
+    private int hnswEfSearch = 50;
+    private boolean quantizedScoring = false;
+    private int rerankSize = 10;
+    private String embeddingPrecision = "Float32";
+    private String loadingPolicy = "Wait";
+    private volatile long version;
 
     public Configuration() {
         /**
@@ -26,6 +37,54 @@ public class Configuration {
         selectedAlgorithms.add(SimilarityAlgorithmFactory.getAlgorithm("Cosine"));
     }
 
+    /**
+     * Copy constructor for the Configuration class. Unlike the setters it
+     * prints nothing, so it can be used to derive one configuration per request
+     * profile.
+     * 
+     * Time Complexity: O(a)
+     * - Rationale: Copies a fixed number of fields and the `a` selected
+     * algorithms.
+     * 
+     * @param other The configuration to copy.
+     */
+    public Configuration(Configuration other) {
+        this.wordEmbeddingPath = other.wordEmbeddingPath;
+        this.google1000Path = other.google1000Path;
+        this.outputFilePath = other.outputFilePath;
+        this.selectedAlgorithms = new ArrayList<>(other.selectedAlgorithms);
+        this.replacementMethod = other.replacementMethod;
+        this.replacementCacheSize = other.replacementCacheSize;
+        this.topKSize = other.topKSize;
+        this.searchMode = other.searchMode;
+        this.hnswM = other.hnswM;
+        this.hnswEfConstruction = other.hnswEfConstruction;
+        this.hnswEfSearch = other.hnswEfSearch;
+        this.quantizedScoring = other.quantizedScoring;
+        this.rerankSize = other.rerankSize;
+        this.embeddingPrecision = other.embeddingPrecision;
+        this.loadingPolicy = other.loadingPolicy;
+    }
+
+    /**
+     * Copies a configuration with other algorithms and another replacement
+     * method, printing nothing, e.g. for the profile of a server request.
+     * 
+     * Time Complexity: O(a)
+     * - Rationale: See `Configuration(Configuration)`.
+     * 
+     * @param other             The configuration to copy the other settings
+     *                          from.
+     * @param algorithms        The selected similarity algorithms.
+     * @param replacementMethod The replacement method.
+     */
+    public Configuration(Configuration other, List<AbstractSimilarityAlgorithm> algorithms,
+            String replacementMethod) {
+        this(other);
+        this.selectedAlgorithms = new ArrayList<>(algorithms);
+        this.replacementMethod = replacementMethod;
+    }
+
     /**
      * Gets the path to the word embedding file.
      * 
@@ -117,6 +176,7 @@ public class Configuration {
      */
     public void setSelectedAlgorithms(List<AbstractSimilarityAlgorithm> algorithms) {
         this.selectedAlgorithms = new ArrayList<>(algorithms);
+        version++;
     }
 
     /**
@@ -139,9 +199,246 @@ public class Configuration {
      */
     public void setReplacementMethod(String replacementMethod) {
         this.replacementMethod = replacementMethod;
+        version++;
         ConsolePrint.printInfo("Replacement Method set to: " + replacementMethod);
     }
 
+    /**
+     * Gets the maximum number of entries kept in the replacement cache.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves an integer value.
+     */
+    public int getReplacementCacheSize() {
+        return replacementCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of entries kept in the replacement cache.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns a value to a variable and prints a message.
+     * 
+     * @param replacementCacheSize The maximum number of cached replacements.
+     */
+    public void setReplacementCacheSize(int replacementCacheSize) {
+        if (replacementCacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.replacementCacheSize = replacementCacheSize;
+        ConsolePrint.printInfo("Replacement Cache Size set to: " + replacementCacheSize);
+    }
+
+    /**
+     * Gets the number of nearest candidates the "Top-K Random" method picks from.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves an integer value.
+     */
+    public int getTopKSize() {
+        return topKSize;
+    }
+
+    /**
+     * Sets the number of nearest candidates the "Top-K Random" method picks
+     * from.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns a value to a variable and prints a message.
+     * 
+     * @param topKSize The number of nearest candidates.
+     */
+    public void setTopKSize(int topKSize) {
+        if (topKSize < 1) {
+            throw new IllegalArgumentException("Top-K size must be at least 1");
+        }
+        this.topKSize = topKSize;
+        version++;
+        ConsolePrint.printInfo("Top-K Size set to: " + topKSize);
+    }
+
+    /**
+     * Gets the candidate search mode, either "Exact" (linear scan) or
+     * "Approximate" (HNSW index).
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves a string value.
+     */
+    public String getSearchMode() {
+        return searchMode;
+    }
+
+    /**
+     * Checks if the approximate (HNSW) search mode is selected.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Compares two strings of fixed length.
+     */
+    public boolean isApproximateSearch() {
+        return "Approximate".equals(searchMode);
+    }
+
+    /**
+     * Sets the candidate search mode.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns a value to a variable and prints a message.
+     * 
+     * @param searchMode "Exact" or "Approximate".
+     */
+    public void setSearchMode(String searchMode) {
+        this.searchMode = searchMode;
+        version++;
+        ConsolePrint.printInfo("Search Mode set to: " + searchMode);
+    }
+
+    public int getHnswM() {
+        return hnswM;
+    }
+
+    public int getHnswEfConstruction() {
+        return hnswEfConstruction;
+    }
+
+    public int getHnswEfSearch() {
+        return hnswEfSearch;
+    }
+
+    /**
+     * Sets the HNSW index parameters.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns three values and prints a message.
+     * 
+     * @param m              Number of links per node.
+     * @param efConstruction Beam width used while building the index.
+     * @param efSearch       Beam width used while searching the index.
+     */
+    public void setHnswParameters(int m, int efConstruction, int efSearch) {
+        if (m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("M must be at least 2, efConstruction and efSearch at least 1");
+        }
+        this.hnswM = m;
+        this.hnswEfConstruction = efConstruction;
+        this.hnswEfSearch = efSearch;
+        version++;
+        ConsolePrint.printInfo("HNSW Parameters set to: M=" + m + ", efConstruction=" + efConstruction
+                + ", efSearch=" + efSearch);
+    }
+
+    /**
+     * Checks if candidates are scored against their int8 quantized vectors.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves a boolean value.
+     */
+    public boolean isQuantizedScoring() {
+        return quantizedScoring;
+    }
+
+    /**
+     * Gets the number of candidates per algorithm that are re-scored with full
+     * precision after a quantized scan, 0 if they are not re-scored.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves an integer value.
+     */
+    public int getRerankSize() {
+        return rerankSize;
+    }
+
+    /**
+     * Sets the quantized scoring mode.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns two values and prints a message.
+     * 
+     * @param quantizedScoring True to score against int8 quantized vectors.
+     * @param rerankSize       Number of candidates per algorithm re-scored with
+     *                         full precision, 0 to disable re-scoring.
+     */
+    public void setQuantizedScoring(boolean quantizedScoring, int rerankSize) {
+        if (rerankSize < 0) {
+            throw new IllegalArgumentException("Re-rank size cannot be negative");
+        }
+        this.quantizedScoring = quantizedScoring;
+        this.rerankSize = rerankSize;
+        version++;
+        ConsolePrint.printInfo("Quantized Scoring set to: " + (quantizedScoring ? "On (re-rank " + rerankSize + ")"
+                : "Off"));
+    }
+
+    /**
+     * Gets the storage precision of the word embeddings, either "Float32",
+     * "BFloat16" or "Int8".
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves a string value.
+     */
+    public String getEmbeddingPrecision() {
+        return embeddingPrecision;
+    }
+
+    /**
+     * Sets the storage precision of the word embeddings.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns a value to a variable and prints a message.
+     * 
+     * @param embeddingPrecision "Float32", "BFloat16" or "Int8".
+     */
+    public void setEmbeddingPrecision(String embeddingPrecision) {
+        this.embeddingPrecision = embeddingPrecision;
+        version++;
+        ConsolePrint.printInfo("Embedding Precision set to: " + embeddingPrecision);
+    }
+
+    /**
+     * Gets what a simplification does while files are still loading in the
+     * background, either "Wait" or "Fail Fast".
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Simple getter method that retrieves a string value.
+     */
+    public String getLoadingPolicy() {
+        return loadingPolicy;
+    }
+
+    /**
+     * Checks if simplifications are refused while files are still loading.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Compares two strings of fixed length.
+     */
+    public boolean isFailFastLoading() {
+        return "Fail Fast".equals(loadingPolicy);
+    }
+
+    /**
+     * Sets the loading policy. It does not affect replacements, so the version
+     * is left unchanged.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Assigns a value to a variable and prints a message.
+     * 
+     * @param loadingPolicy "Wait" or "Fail Fast".
+     */
+    public void setLoadingPolicy(String loadingPolicy) {
+        this.loadingPolicy = loadingPolicy;
+        ConsolePrint.printInfo("Loading Policy set to: " + loadingPolicy);
+    }
+
+    /**
+     * Gets the version of the configuration, which changes whenever a setting
+     * that affects replacements is modified.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Reads a single field.
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Prints the current configuration.
      * 
@@ -177,6 +474,24 @@ public class Configuration {
         }
         System.out.println(ConsoleColour.CYAN_BOLD + "Word Replacement Method: " + ConsoleColour.GREEN_BOLD
                 + replacementMethod + ConsoleColour.RESET);
+        if ("Top-K Random".equals(replacementMethod)) {
+            System.out.println(ConsoleColour.CYAN_BOLD + "Top-K Size: " + ConsoleColour.GREEN_BOLD
+                    + topKSize + ConsoleColour.RESET);
+        }
+        System.out.println(ConsoleColour.CYAN_BOLD + "Search Mode: " + ConsoleColour.GREEN_BOLD + searchMode
+                + (isApproximateSearch()
+                        ? " (HNSW M=" + hnswM + ", efConstruction=" + hnswEfConstruction + ", efSearch=" + hnswEfSearch
+                                + ")"
+                        : "")
+                + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.CYAN_BOLD + "Embedding Precision: " + ConsoleColour.GREEN_BOLD
+                + embeddingPrecision + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.CYAN_BOLD + "Quantized Scoring: " + ConsoleColour.GREEN_BOLD
+                + (quantizedScoring ? "int8 (re-rank " + rerankSize + ")" : "Off") + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.CYAN_BOLD + "Replacement Cache Size: " + ConsoleColour.GREEN_BOLD
+                + replacementCacheSize + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.CYAN_BOLD + "Loading Policy: " + ConsoleColour.GREEN_BOLD
+                + loadingPolicy + ConsoleColour.RESET);
     }
 
     /**
@@ -193,6 +508,17 @@ public class Configuration {
         selectedAlgorithms.clear();
         selectedAlgorithms.add(SimilarityAlgorithmFactory.getAlgorithm("Cosine"));
         replacementMethod = "Most Similar";
+        replacementCacheSize = 10_000;
+        topKSize = 5;
+        searchMode = "Exact";
+        hnswM = 16;
+        hnswEfConstruction = 200;
+        hnswEfSearch = 50;
+        quantizedScoring = false;
+        rerankSize = 10;
+        embeddingPrecision = "Float32";
+        loadingPolicy = "Wait";
+        version++;
         ConsolePrint.printInfo("Configuration reset to default.");
     }
 
@@ -211,6 +537,8 @@ public class Configuration {
                 return true;
             case "Least Similar":
                 return true;
+            case "Top-K Random":
+                return true;
             case "Random":
                 return Math.random() > 0.5; // Randomly allow replacement
             default:
@@ -1,13 +1,17 @@
 package ie.atu.sw.settingmenu;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
 
 import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
 import ie.atu.sw.console.ConsoleColour;
 import ie.atu.sw.console.ConsolePrint;
 import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.embedding.EmbeddingMatrix;
 import ie.atu.sw.utils.ConsoleUI;
 import ie.atu.sw.utils.SimilarityAlgorithmFactory;
 
@@ -48,6 +52,13 @@ public class ConfigurationMenu {
                     "Specify new Output file",
                     "Set configuration to default",
                     "Set word replacement method",
+                    "Set replacement cache size",
+                    "Set search mode (exact / approximate HNSW)",
+                    "Set quantized (int8) scoring",
+                    "Set embedding storage precision",
+                    "Set loading policy (wait / fail fast)",
+                    "Save word embeddings as binary snapshot",
+                    "Precomputed replacement table (build / load / clear)",
                     "Back to Main Menu"
             };
             ConsoleUI.printConfigMenu(title, options);
@@ -80,6 +91,27 @@ public class ConfigurationMenu {
                         configureWordReplacementMethod();
                         break;
                     case 8:
+                        configureReplacementCacheSize();
+                        break;
+                    case 9:
+                        configureSearchMode();
+                        break;
+                    case 10:
+                        configureQuantizedScoring();
+                        break;
+                    case 11:
+                        configureEmbeddingPrecision();
+                        break;
+                    case 12:
+                        configureLoadingPolicy();
+                        break;
+                    case 13:
+                        saveEmbeddingSnapshot();
+                        break;
+                    case 14:
+                        configureReplacementTable();
+                        break;
+                    case 15:
                         ConsolePrint.printInfo("Returning to Main Menu...");
                         return; // Back to Main Menu
                     default:
@@ -111,7 +143,7 @@ public class ConfigurationMenu {
         try {
             String input = s.nextLine();
             String[] selections = input.split(",");
-            config.getSelectedAlgorithms().clear();
+            List<AbstractSimilarityAlgorithm> selected = new ArrayList<>();
 
             for (String sel : selections) {
                 int idx = Integer.parseInt(sel.trim()) - 1;
@@ -119,10 +151,11 @@ public class ConfigurationMenu {
                     AbstractSimilarityAlgorithm algorithm = SimilarityAlgorithmFactory
                             .getAlgorithm(algorithms[idx].toLowerCase());
                     if (algorithm != null) {
-                        config.getSelectedAlgorithms().add(algorithm);
+                        selected.add(algorithm);
                     }
                 }
             }
+            config.setSelectedAlgorithms(selected);
 
             if (config.getSelectedAlgorithms().isEmpty()) {
                 ConsolePrint.printWarning("No valid algorithms selected.");
@@ -195,6 +228,7 @@ public class ConfigurationMenu {
         System.out.println(ConsoleColour.PURPLE_BOLD + "[1] Most Similar");
         System.out.println("[2] Least Similar");
         System.out.println("[3] Random");
+        System.out.println("[4] Top-K Random (random pick among the k most similar)");
         System.out.println("[0] Back to Configuration Menu" + ConsoleColour.RESET);
 
         try {
@@ -211,6 +245,294 @@ public class ConfigurationMenu {
                 case 3:
                     config.setReplacementMethod("Random");
                     break;
+                case 4:
+                    System.out.print(ConsoleColour.ORANGE_BOLD + "Enter k (current: " + config.getTopKSize() + "): "
+                            + ConsoleColour.RESET);
+                    int k = s.nextInt();
+                    s.nextLine(); // Consume newline
+                    config.setTopKSize(k);
+                    config.setReplacementMethod("Top-K Random");
+                    break;
+                case 0:
+                    return;
+                default:
+                    ConsolePrint.printError("Invalid choice. Please select a valid option.");
+            }
+        } catch (InputMismatchException e) {
+            ConsolePrint.printError("Invalid input. Please enter a number.");
+            s.nextLine(); // Clear invalid input
+        } catch (IllegalArgumentException e) {
+            ConsolePrint.printError(e.getMessage());
+        }
+    }
+
+    /**
+     * Configures the maximum number of entries in the replacement cache.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Processes a single integer input and updates the configuration.
+     */
+    private void configureReplacementCacheSize() {
+        System.out.print(ConsoleColour.ORANGE_BOLD + "Enter maximum number of cached replacements (current: "
+                + config.getReplacementCacheSize() + "): " + ConsoleColour.RESET);
+        try {
+            int size = s.nextInt();
+            s.nextLine(); // Consume newline
+            config.setReplacementCacheSize(size);
+        } catch (InputMismatchException e) {
+            ConsolePrint.printError("Invalid input. Please enter a number.");
+            s.nextLine(); // Clear invalid input
+        } catch (IllegalArgumentException e) {
+            ConsolePrint.printError(e.getMessage());
+        }
+    }
+
+    /**
+     * Configures the candidate search mode and, for the approximate mode, the
+     * HNSW index parameters. Selecting the approximate mode builds the index.
+     * 
+     * Time Complexity: O(1) for exact mode, O(c * log c * efConstruction * n / p)
+     * for approximate mode.
+     * - Rationale: Building the HNSW index dominates; see `HnswIndex`.
+     */
+    private void configureSearchMode() {
+        System.out.println(ConsoleColour.ORANGE_BOLD + "Select Search Mode:" + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.PURPLE_BOLD + "[1] Exact (scan every candidate)");
+        System.out.println("[2] Approximate (HNSW index, Cosine / Euclidean only)");
+        System.out.println("[0] Back to Configuration Menu" + ConsoleColour.RESET);
+
+        try {
+            int choice = s.nextInt();
+            s.nextLine(); // Consume newline
+
+            switch (choice) {
+                case 1:
+                    config.setSearchMode("Exact");
+                    dataBase.disableApproximateIndex();
+                    break;
+                case 2:
+                    System.out.print(ConsoleColour.ORANGE_BOLD + "Enter M (links per node, current: "
+                            + config.getHnswM() + "): " + ConsoleColour.RESET);
+                    int m = s.nextInt();
+                    System.out.print(ConsoleColour.ORANGE_BOLD + "Enter efConstruction (current: "
+                            + config.getHnswEfConstruction() + "): " + ConsoleColour.RESET);
+                    int efConstruction = s.nextInt();
+                    System.out.print(ConsoleColour.ORANGE_BOLD + "Enter efSearch (current: "
+                            + config.getHnswEfSearch() + "): " + ConsoleColour.RESET);
+                    int efSearch = s.nextInt();
+                    s.nextLine(); // Consume newline
+                    config.setHnswParameters(m, efConstruction, efSearch);
+                    dataBase.enableApproximateIndex(m, efConstruction);
+                    config.setSearchMode("Approximate");
+                    break;
+                case 0:
+                    return;
+                default:
+                    ConsolePrint.printError("Invalid choice. Please select a valid option.");
+            }
+        } catch (InputMismatchException e) {
+            ConsolePrint.printError("Invalid input. Please enter a number.");
+            s.nextLine(); // Clear invalid input
+        } catch (IllegalArgumentException e) {
+            ConsolePrint.printError(e.getMessage());
+        }
+    }
+
+    /**
+     * Configures int8 quantized scoring and the number of candidates re-scored
+     * with full precision. Enabling it quantizes the loaded candidates.
+     * 
+     * Time Complexity: O(1) when disabling, O(c * n) when enabling.
+     * - Rationale: Quantizing the `c` candidate vectors of size `n` dominates.
+     */
+    private void configureQuantizedScoring() {
+        System.out.println(ConsoleColour.ORANGE_BOLD + "Select Scoring Precision:" + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.PURPLE_BOLD + "[1] Full precision (double)");
+        System.out.println("[2] Quantized (int8, optional exact re-rank)");
+        System.out.println("[0] Back to Configuration Menu" + ConsoleColour.RESET);
+
+        try {
+            int choice = s.nextInt();
+            s.nextLine(); // Consume newline
+
+            switch (choice) {
+                case 1:
+                    config.setQuantizedScoring(false, config.getRerankSize());
+                    dataBase.disableQuantization();
+                    break;
+                case 2:
+                    System.out.print(ConsoleColour.ORANGE_BOLD
+                            + "Enter number of candidates to re-rank exactly, 0 for none (current: "
+                            + config.getRerankSize() + "): " + ConsoleColour.RESET);
+                    int rerankSize = s.nextInt();
+                    s.nextLine(); // Consume newline
+                    config.setQuantizedScoring(true, rerankSize);
+                    dataBase.enableQuantization();
+                    break;
+                case 0:
+                    return;
+                default:
+                    ConsolePrint.printError("Invalid choice. Please select a valid option.");
+            }
+        } catch (InputMismatchException e) {
+            ConsolePrint.printError("Invalid input. Please enter a number.");
+            s.nextLine(); // Clear invalid input
+        } catch (IllegalArgumentException e) {
+            ConsolePrint.printError(e.getMessage());
+        }
+    }
+
+    /**
+     * Configures the storage precision of the word embeddings. The loaded
+     * embeddings are converted right away.
+     * 
+     * Time Complexity: O(w * n)
+     * - Rationale: Converting the `w` loaded vectors of size `n` dominates.
+     */
+    private void configureEmbeddingPrecision() {
+        System.out.println(ConsoleColour.ORANGE_BOLD + "Select Embedding Precision:" + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.PURPLE_BOLD + "[1] Float32 (4 bytes per component)");
+        System.out.println("[2] BFloat16 (2 bytes per component, about 3 significant digits)");
+        System.out.println("[3] Int8 (1 byte per component and a scale per word, about 2 significant digits)");
+        System.out.println("[0] Back to Configuration Menu" + ConsoleColour.RESET);
+
+        try {
+            int choice = s.nextInt();
+            s.nextLine(); // Consume newline
+
+            switch (choice) {
+                case 1:
+                    config.setEmbeddingPrecision("Float32");
+                    dataBase.setPrecision(EmbeddingMatrix.Precision.FLOAT32);
+                    break;
+                case 2:
+                    config.setEmbeddingPrecision("BFloat16");
+                    dataBase.setPrecision(EmbeddingMatrix.Precision.BFLOAT16);
+                    break;
+                case 3:
+                    config.setEmbeddingPrecision("Int8");
+                    dataBase.setPrecision(EmbeddingMatrix.Precision.INT8);
+                    break;
+                case 0:
+                    return;
+                default:
+                    ConsolePrint.printError("Invalid choice. Please select a valid option.");
+            }
+        } catch (InputMismatchException e) {
+            ConsolePrint.printError("Invalid input. Please enter a number.");
+            s.nextLine(); // Clear invalid input
+        }
+    }
+
+    /**
+     * Configures what a simplification does while the word embedding or
+     * Google-1000 file is still loading in the background.
+     * 
+     * Time Complexity: O(1)
+     * - Rationale: Processes a single user choice.
+     */
+    private void configureLoadingPolicy() {
+        System.out.println(ConsoleColour.ORANGE_BOLD + "Select Loading Policy:" + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.PURPLE_BOLD + "[1] Wait (show the loading meter until the files are loaded)");
+        System.out.println("[2] Fail Fast (refuse to simplify until the files are loaded)");
+        System.out.println("[0] Back to Configuration Menu" + ConsoleColour.RESET);
+
+        try {
+            int choice = s.nextInt();
+            s.nextLine(); // Consume newline
+
+            switch (choice) {
+                case 1:
+                    config.setLoadingPolicy("Wait");
+                    break;
+                case 2:
+                    config.setLoadingPolicy("Fail Fast");
+                    break;
+                case 0:
+                    return;
+                default:
+                    ConsolePrint.printError("Invalid choice. Please select a valid option.");
+            }
+        } catch (InputMismatchException e) {
+            ConsolePrint.printError("Invalid input. Please enter a number.");
+            s.nextLine(); // Clear invalid input
+        }
+    }
+
+    /**
+     * Saves the loaded word embeddings as a binary snapshot, which can then be
+     * given as the Word-Embedding file to skip parsing on later starts.
+     * 
+     * Time Complexity: O(w * n)
+     * - Rationale: Writes the `w` loaded vectors of size `n` once.
+     */
+    private void saveEmbeddingSnapshot() {
+        System.out.print(ConsoleColour.ORANGE_BOLD + "Enter path for the snapshot file: " + ConsoleColour.RESET);
+        String path = s.nextLine().trim();
+        if (path.isEmpty()) {
+            ConsolePrint.printError("Invalid input. Please provide a valid file path.");
+            return;
+        }
+        try {
+            dataBase.saveEmbeddingSnapshot(path);
+            ConsolePrint.printInfo("Snapshot saved. Use it as the Word-Embedding file to load it instantly.");
+        } catch (IOException e) {
+            ConsolePrint.printError("Error saving snapshot: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            ConsolePrint.printError(e.getMessage());
+        }
+    }
+
+    /**
+     * Builds, loads or clears the precomputed replacement table, which answers
+     * "most similar" and "least similar" replacements with one lookup per word.
+     * 
+     * Time Complexity: O(s * w * k * n / p) to build, O(w) to load
+     * - Rationale: See `DataBase.buildReplacementTable` and
+     * `DataBase.loadReplacementTable`.
+     */
+    private void configureReplacementTable() {
+        System.out.println(ConsoleColour.ORANGE_BOLD + "Precomputed Replacement Table:" + ConsoleColour.RESET);
+        System.out.println(ConsoleColour.PURPLE_BOLD + "[1] Build for the selected algorithms and save");
+        System.out.println("[2] Build for every algorithm on its own and save");
+        System.out.println("[3] Load a saved table");
+        System.out.println("[4] Clear (score every word again)");
+        System.out.println("[0] Back to Configuration Menu" + ConsoleColour.RESET);
+
+        try {
+            int choice = s.nextInt();
+            s.nextLine(); // Consume newline
+
+            switch (choice) {
+                case 1:
+                case 2:
+                    List<List<AbstractSimilarityAlgorithm>> selections = new ArrayList<>();
+                    if (choice == 1) {
+                        selections.add(config.getSelectedAlgorithms());
+                    } else {
+                        for (String name : SimilarityAlgorithmFactory.getAvailableAlgorithms()) {
+                            selections.add(List.of(SimilarityAlgorithmFactory.getAlgorithm(name)));
+                        }
+                    }
+                    System.out.print(ConsoleColour.ORANGE_BOLD + "Enter path for the table file: "
+                            + ConsoleColour.RESET);
+                    String path = s.nextLine().trim();
+                    if (path.isEmpty()) {
+                        ConsolePrint.printError("Invalid input. Please provide a valid file path.");
+                        return;
+                    }
+                    dataBase.buildReplacementTable(path, selections);
+                    ConsolePrint.printInfo("Replacement table saved and in use.");
+                    break;
+                case 3:
+                    System.out.print(ConsoleColour.ORANGE_BOLD + "Enter path for the table file: "
+                            + ConsoleColour.RESET);
+                    dataBase.loadReplacementTable(s.nextLine().trim());
+                    break;
+                case 4:
+                    dataBase.clearReplacementTable();
+                    ConsolePrint.printInfo("Replacement table cleared.");
+                    break;
                 case 0:
                     return;
                 default:
@@ -219,6 +541,10 @@ public class ConfigurationMenu {
         } catch (InputMismatchException e) {
             ConsolePrint.printError("Invalid input. Please enter a number.");
             s.nextLine(); // Clear invalid input
+        } catch (IOException e) {
+            ConsolePrint.printError("Error with the replacement table: " + e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            ConsolePrint.printError(e.getMessage());
         }
     }
 
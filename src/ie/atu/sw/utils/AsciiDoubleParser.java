@@ -0,0 +1,142 @@
+package ie.atu.sw.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal numbers directly from ASCII bytes, without creating a String
+ * per number.
+ *
+ * Plain decimals such as `-0.038194` or `1.5e-3` with at most 15 significant
+ * digits and a decimal exponent within [-22, 22] take a fast path: the digits
+ * are accumulated into a long, which is exact, and scaled by one exact power
+ * of ten, so the single rounding gives the correctly rounded double (Clinger's
+ * fast path). Every other token is handed to `Double.parseDouble`, so the
+ * result, and the `NumberFormatException` for invalid input, is always exactly
+ * what `Double.parseDouble` returns for the same text.
+ */
+public final class AsciiDoubleParser {
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        double power = 1.0;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10.0;
+        }
+    }
+
+    private AsciiDoubleParser() {
+    }
+
+    /**
+     * Parses the bytes between two absolute positions of a buffer.
+     *
+     * Time Complexity: O(l)
+     * - Rationale: Each of the `l` bytes is read once on the fast path, and at
+     * most twice when falling back to `Double.parseDouble`.
+     *
+     * @param buffer The buffer holding the text.
+     * @param from   Position of the first byte (inclusive).
+     * @param to     Position after the last byte (exclusive).
+     * @return The parsed value.
+     * @throws NumberFormatException If the text is not a valid number.
+     */
+    public static double parse(ByteBuffer buffer, int from, int to) {
+        int p = from;
+        boolean negative = false;
+        if (p < to) {
+            byte sign = buffer.get(p);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                p++;
+            }
+        }
+
+        long mantissa = 0;
+        int digits = 0; // Significant digits, i.e. without leading zeros
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (p < to && isDigit(buffer.get(p))) {
+            int digit = buffer.get(p++) - '0';
+            anyDigit = true;
+            if (mantissa != 0 || digit != 0) {
+                if (++digits > MAX_FAST_DIGITS) {
+                    return fallback(buffer, from, to);
+                }
+                mantissa = mantissa * 10 + digit;
+            }
+        }
+        if (p < to && buffer.get(p) == '.') {
+            p++;
+            while (p < to && isDigit(buffer.get(p))) {
+                int digit = buffer.get(p++) - '0';
+                anyDigit = true;
+                exponent--;
+                if (mantissa != 0 || digit != 0) {
+                    if (++digits > MAX_FAST_DIGITS) {
+                        return fallback(buffer, from, to);
+                    }
+                    mantissa = mantissa * 10 + digit;
+                }
+            }
+        }
+        if (!anyDigit) {
+            return fallback(buffer, from, to);
+        }
+
+        if (p < to && (buffer.get(p) == 'e' || buffer.get(p) == 'E')) {
+            p++;
+            boolean negativeExponent = false;
+            if (p < to && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+                negativeExponent = buffer.get(p++) == '-';
+            }
+            int value = 0;
+            int exponentDigits = 0;
+            while (p < to && isDigit(buffer.get(p))) {
+                value = value * 10 + (buffer.get(p++) - '0');
+                if (++exponentDigits > 4) {
+                    return fallback(buffer, from, to);
+                }
+            }
+            if (exponentDigits == 0) {
+                return fallback(buffer, from, to);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (p != to) {
+            return fallback(buffer, from, to); // Suffixes, NaN, Infinity, hex, ...
+        }
+
+        double result;
+        if (mantissa == 0) {
+            result = 0.0;
+        } else if (exponent == 0) {
+            result = mantissa;
+        } else if (exponent < 0 && exponent >= -22) {
+            result = mantissa / POWERS_OF_TEN[-exponent];
+        } else if (exponent > 0 && exponent <= 22) {
+            result = mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            return fallback(buffer, from, to);
+        }
+        return negative ? -result : result;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Parses the text with `Double.parseDouble`.
+     *
+     * Time Complexity: O(l)
+     * - Rationale: Copies the `l` bytes into a String.
+     */
+    private static double fallback(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.UTF_8));
+    }
+}
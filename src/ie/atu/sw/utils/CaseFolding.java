@@ -0,0 +1,146 @@
+package ie.atu.sw.utils;
+
+/**
+ * Lowercasing of `CharSequence` slices in place, so that a token of a text can
+ * be looked up, compared or copied lowercased without creating a `String` for
+ * it first.
+ *
+ * Characters are lowered one at a time with an ASCII fast path, which gives the
+ * same result as `String.toLowerCase` for every character except the two whose
+ * lowercase depends on their context: 'İ' (U+0130, two characters) and 'Σ'
+ * (U+03A3, final sigma). Slices containing either are reported by
+ * `hasSimpleLowerCase`, and the methods that build text fall back to
+ * `String.toLowerCase` for them. Locale-specific rules (Turkish dotless i,
+ * Lithuanian) are not applied.
+ */
+public final class CaseFolding {
+    private CaseFolding() {
+    }
+
+    /**
+     * Lowers one UTF-16 character.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A range check for ASCII, a table lookup otherwise.
+     */
+    public static char toLowerCase(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Lowers one code point, e.g. of a surrogate pair.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A range check for ASCII, a table lookup otherwise.
+     */
+    public static int toLowerCase(int codePoint) {
+        if (codePoint < 0x80) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint | 0x20 : codePoint;
+        }
+        return Character.toLowerCase(codePoint);
+    }
+
+    /**
+     * Checks that lowering a slice character by character gives the same
+     * result as `String.toLowerCase`.
+     *
+     * Time Complexity: O(l)
+     * - Rationale: Checks each of the `l` characters once.
+     *
+     * @return False if the slice contains a character whose lowercase depends
+     *         on its context.
+     */
+    public static boolean hasSimpleLowerCase(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x130 && (c == '\u0130' || c == '\u03A3')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a slice of a text, lowercased.
+     *
+     * Time Complexity: O(l)
+     * - Rationale: Lowers and appends each of the `l` characters once.
+     *
+     * @param target The builder to append to.
+     * @param text   The text holding the slice.
+     * @param start  The position of the first character.
+     * @param end    The position after the last character.
+     */
+    public static void appendLowerCase(StringBuilder target, CharSequence text, int start, int end) {
+        if (!hasSimpleLowerCase(text, start, end)) {
+            target.append(text.subSequence(start, end).toString().toLowerCase());
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                target.appendCodePoint(toLowerCase(Character.toCodePoint(c, text.charAt(++i))));
+            } else {
+                target.append(toLowerCase(c));
+            }
+        }
+    }
+
+    /**
+     * Lowercases a slice of a text into a new `String`.
+     *
+     * Time Complexity: O(l)
+     * - Rationale: See `appendLowerCase`.
+     */
+    public static String toLowerCase(CharSequence text, int start, int end) {
+        StringBuilder lowered = new StringBuilder(end - start);
+        appendLowerCase(lowered, text, start, end);
+        return lowered.toString();
+    }
+
+    /**
+     * Compares a string with a slice of a text, ignoring case like
+     * `String.equalsIgnoreCase`.
+     *
+     * Time Complexity: O(l)
+     * - Rationale: Compares the `l` characters pairwise, stopping at the first
+     * difference. Differing surrogate pairs are compared as code points, as
+     * `String.equalsIgnoreCase` does.
+     */
+    public static boolean equalsIgnoreCase(String value, CharSequence text, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        int i = 0;
+        int j = start;
+        while (i < value.length() && j < end) {
+            char a = value.charAt(i++);
+            char b = text.charAt(j++);
+            if (a == b) {
+                continue;
+            }
+            // A pair whose high surrogates matched is compared when its low surrogates differ
+            int codePointA = a;
+            int codePointB = b;
+            if (Character.isHighSurrogate(a) && i < value.length() && Character.isLowSurrogate(value.charAt(i))) {
+                codePointA = Character.toCodePoint(a, value.charAt(i++));
+            } else if (Character.isLowSurrogate(a) && i >= 2 && Character.isHighSurrogate(value.charAt(i - 2))) {
+                codePointA = Character.toCodePoint(value.charAt(i - 2), a);
+            }
+            if (Character.isHighSurrogate(b) && j < end && Character.isLowSurrogate(text.charAt(j))) {
+                codePointB = Character.toCodePoint(b, text.charAt(j++));
+            } else if (Character.isLowSurrogate(b) && j - 2 >= start && Character.isHighSurrogate(text.charAt(j - 2))) {
+                codePointB = Character.toCodePoint(text.charAt(j - 2), b);
+            }
+            int upperA = Character.toUpperCase(codePointA);
+            int upperB = Character.toUpperCase(codePointB);
+            if (upperA != upperB && Character.toLowerCase(upperA) != Character.toLowerCase(upperB)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
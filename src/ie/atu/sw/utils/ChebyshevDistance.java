@@ -8,6 +8,8 @@ import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
  * elements of two vectors.
  */
 public class ChebyshevDistance extends AbstractSimilarityAlgorithm {
+    private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+
     /**
      * Constructor for ChebyshevDistance.
      * 
@@ -37,4 +39,53 @@ public class ChebyshevDistance extends AbstractSimilarityAlgorithm {
     public double calculate(double[] vector1, double[] vector2) {
         return VectorUtils.chebyshevDistance(vector1, vector2);
     }
+
+    /**
+     * Derives the Chebyshev distance from the sums of a fused single-pass scan.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A fixed number of arithmetic operations on precomputed sums.
+     *
+     * @param metrics The sums accumulated for the pair of vectors.
+     * @param vector1 The first vector.
+     * @param vector2 The second vector.
+     * @return The Chebyshev distance between the two vectors.
+     */
+    @Override
+    public double calculate(VectorMetrics metrics, double[] vector1, double[] vector2) {
+        return metrics.chebyshevDistance();
+    }
+
+    @Override
+    public boolean usesDistanceSums() {
+        return true;
+    }
+
+    @Override
+    public boolean usesVectors() {
+        return false;
+    }
+
+    /**
+     * Scores the query against a range of matrix rows in place, without copying
+     * them; see `AbstractSimilarityAlgorithm.calculateAll`.
+     *
+     * Time Complexity: O((to - from) * n)
+     * - Rationale: One pass of absolute differences per row of size `n`.
+     *
+     * @param query  The query vector.
+     * @param matrix The row-major matrix.
+     * @param from   The first row to score (inclusive).
+     * @param to     The last row to score (exclusive).
+     * @param stride The number of elements between the starts of two rows.
+     * @param scores Receives the `to - from` scores.
+     */
+    @Override
+    public void calculateAll(double[] query, double[] matrix, int from, int to, int stride, double[] scores) {
+        checkBulkArguments(query, matrix, from, to, stride, scores);
+        int n = query.length;
+        for (int r = from; r < to; r++) {
+            scores[r - from] = KERNELS.chebyshev(query, matrix, r * stride, n);
+        }
+    }
 }
@@ -9,6 +9,8 @@ import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
  * Higher values indicate greater similarity.
  */
 public class CosineSimilarity extends AbstractSimilarityAlgorithm {
+    private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+
     /**
      * Constructor for CosineSimilarity.
      * Initializes the algorithm with its name and indicates that higher values
@@ -35,10 +37,58 @@ public class CosineSimilarity extends AbstractSimilarityAlgorithm {
      *
      * @param vector1 The first vector.
      * @param vector2 The second vector.
-     * @return The cosine similarity value between the two vectors.
+     * @return The cosine similarity between the two vectors.
      */
     @Override
     public double calculate(double[] vector1, double[] vector2) {
         return VectorUtils.cosineSimilarity(vector1, vector2);
     }
+
+    /**
+     * Derives the cosine similarity from the sums of a fused single-pass scan.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A fixed number of arithmetic operations on precomputed sums.
+     *
+     * @param metrics The sums accumulated for the pair of vectors.
+     * @param vector1 The first vector.
+     * @param vector2 The second vector.
+     * @return The cosine similarity between the two vectors.
+     */
+    @Override
+    public double calculate(VectorMetrics metrics, double[] vector1, double[] vector2) {
+        return metrics.cosineSimilarity();
+    }
+
+    @Override
+    public boolean usesVectors() {
+        return false;
+    }
+
+    /**
+     * Scores the query against a range of matrix rows in place, without copying
+     * them; see `AbstractSimilarityAlgorithm.calculateAll`.
+     *
+     * Time Complexity: O((to - from) * n)
+     * - Rationale: A dot product and a squared norm per row of size `n`; the
+     * norm of the query is computed once.
+     *
+     * @param query  The query vector.
+     * @param matrix The row-major matrix.
+     * @param from   The first row to score (inclusive).
+     * @param to     The last row to score (exclusive).
+     * @param stride The number of elements between the starts of two rows.
+     * @param scores Receives the `to - from` scores.
+     */
+    @Override
+    public void calculateAll(double[] query, double[] matrix, int from, int to, int stride, double[] scores) {
+        checkBulkArguments(query, matrix, from, to, stride, scores);
+        int n = query.length;
+        double queryNorm = Math.sqrt(KERNELS.squares(query, 0, n));
+        for (int r = from; r < to; r++) {
+            int offset = r * stride;
+            double dot = KERNELS.dot(query, matrix, offset, n);
+            scores[r - from] = dot / (queryNorm * Math.sqrt(KERNELS.squares(matrix, offset, n)));
+        }
+    }
 }
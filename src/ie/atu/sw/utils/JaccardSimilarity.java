@@ -8,6 +8,8 @@ import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
  * or vectors based on their intersection and union.
  */
 public class JaccardSimilarity extends AbstractSimilarityAlgorithm {
+    private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+
     /**
      * Constructs a JaccardSimilarity object with the specified name and behavior.
      */
@@ -34,10 +36,62 @@ public class JaccardSimilarity extends AbstractSimilarityAlgorithm {
      *
      * @param vector1 The first vector.
      * @param vector2 The second vector.
-     * @return The Jaccard similarity value between the two vectors.
+     * @return The Jaccard similarity between the two vectors.
      */
     @Override
     public double calculate(double[] vector1, double[] vector2) {
         return VectorUtils.jaccardSimilarity(vector1, vector2);
     }
+
+    /**
+     * Derives the Jaccard similarity from the sums of a fused single-pass scan.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A fixed number of arithmetic operations on precomputed sums.
+     *
+     * @param metrics The sums accumulated for the pair of vectors.
+     * @param vector1 The first vector.
+     * @param vector2 The second vector.
+     * @return The Jaccard similarity between the two vectors.
+     */
+    @Override
+    public double calculate(VectorMetrics metrics, double[] vector1, double[] vector2) {
+        return metrics.jaccardSimilarity();
+    }
+
+    @Override
+    public boolean usesDistanceSums() {
+        return true;
+    }
+
+    @Override
+    public boolean usesVectors() {
+        return false;
+    }
+
+    /**
+     * Scores the query against a range of matrix rows in place, without copying
+     * them; see `AbstractSimilarityAlgorithm.calculateAll`.
+     *
+     * Time Complexity: O((to - from) * n)
+     * - Rationale: One pass of component-wise minima and maxima per row of size
+     * `n`.
+     *
+     * @param query  The query vector.
+     * @param matrix The row-major matrix.
+     * @param from   The first row to score (inclusive).
+     * @param to     The last row to score (exclusive).
+     * @param stride The number of elements between the starts of two rows.
+     * @param scores Receives the `to - from` scores.
+     */
+    @Override
+    public void calculateAll(double[] query, double[] matrix, int from, int to, int stride, double[] scores) {
+        checkBulkArguments(query, matrix, from, to, stride, scores);
+        int n = query.length;
+        double[] sums = new double[2];
+        for (int r = from; r < to; r++) {
+            KERNELS.minMax(query, matrix, r * stride, n, sums);
+            scores[r - from] = sums[0] / sums[1];
+        }
+    }
 }
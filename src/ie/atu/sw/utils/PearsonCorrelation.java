@@ -10,6 +10,8 @@ import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
  * -1 indicates a perfect negative correlation, and 0 indicates no correlation.
  */
 public class PearsonCorrelation extends AbstractSimilarityAlgorithm {
+    private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+
     /**
      * Constructs a PearsonCorrelation object with the specified name and behavior.
      */
@@ -44,4 +46,56 @@ public class PearsonCorrelation extends AbstractSimilarityAlgorithm {
     public double calculate(double[] vector1, double[] vector2) {
         return VectorUtils.pearsonCorrelation(vector1, vector2);
     }
+
+    /**
+     * Derives the Pearson correlation from the sums of a fused single-pass scan.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A fixed number of arithmetic operations on precomputed sums.
+     *
+     * @param metrics The sums accumulated for the pair of vectors.
+     * @param vector1 The first vector.
+     * @param vector2 The second vector.
+     * @return The Pearson correlation coefficient between the two vectors.
+     */
+    @Override
+    public double calculate(VectorMetrics metrics, double[] vector1, double[] vector2) {
+        return metrics.pearsonCorrelation();
+    }
+
+    @Override
+    public boolean usesVectors() {
+        return false;
+    }
+
+    /**
+     * Scores the query against a range of matrix rows in place, without copying
+     * them; see `AbstractSimilarityAlgorithm.calculateAll`.
+     *
+     * Time Complexity: O((to - from) * n)
+     * - Rationale: A dot product, a sum and a sum of squares per row of size
+     * `n`, combined with sum((x - mx)(y - my)) = sum(xy) - sum(x)sum(y)/n; the
+     * query terms are computed once.
+     *
+     * @param query  The query vector.
+     * @param matrix The row-major matrix.
+     * @param from   The first row to score (inclusive).
+     * @param to     The last row to score (exclusive).
+     * @param stride The number of elements between the starts of two rows.
+     * @param scores Receives the `to - from` scores.
+     */
+    @Override
+    public void calculateAll(double[] query, double[] matrix, int from, int to, int stride, double[] scores) {
+        checkBulkArguments(query, matrix, from, to, stride, scores);
+        int n = query.length;
+        double querySum = KERNELS.sum(query, 0, n);
+        double queryTerm = KERNELS.squares(query, 0, n) - querySum * querySum / n;
+        for (int r = from; r < to; r++) {
+            int offset = r * stride;
+            double sum = KERNELS.sum(matrix, offset, n);
+            double numerator = KERNELS.dot(query, matrix, offset, n) - querySum * sum / n;
+            double rowTerm = KERNELS.squares(matrix, offset, n) - sum * sum / n;
+            scores[r - from] = numerator / Math.sqrt(queryTerm * rowTerm);
+        }
+    }
 }
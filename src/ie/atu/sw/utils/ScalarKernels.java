@@ -0,0 +1,117 @@
+package ie.atu.sw.utils;
+
+/**
+ * Plain-loop implementation of `SimilarityKernels`, used when the Vector API
+ * is not available. Each kernel adds its terms in index order, so the results
+ * do not depend on the CPU.
+ */
+final class ScalarKernels extends SimilarityKernels {
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int offset, int length) {
+        double dot = 0.0;
+        for (int i = 0; i < length; i++) {
+            dot += a[i] * b[offset + i];
+        }
+        return dot;
+    }
+
+    @Override
+    public void dot4(double[] a, int aOffset, int aStride, double[] b, int offset, int length, double[] sums) {
+        int a0 = aOffset, a1 = a0 + aStride, a2 = a1 + aStride, a3 = a2 + aStride;
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        for (int i = 0; i < length; i++) {
+            double y = b[offset + i];
+            s0 += a[a0 + i] * y;
+            s1 += a[a1 + i] * y;
+            s2 += a[a2 + i] * y;
+            s3 += a[a3 + i] * y;
+        }
+        sums[0] = s0;
+        sums[1] = s1;
+        sums[2] = s2;
+        sums[3] = s3;
+    }
+
+    @Override
+    public double sum(double[] v, int offset, int length) {
+        double sum = 0.0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += v[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double squares(double[] v, int offset, int length) {
+        double squares = 0.0;
+        for (int i = offset; i < offset + length; i++) {
+            squares += v[i] * v[i];
+        }
+        return squares;
+    }
+
+    @Override
+    public double manhattan(double[] a, double[] b, int offset, int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            sum += Math.abs(a[i] - b[offset + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double euclideanSquares(double[] a, double[] b, int offset, int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            double diff = a[i] - b[offset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double chebyshev(double[] a, double[] b, int offset, int length) {
+        double max = 0.0;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, Math.abs(a[i] - b[offset + i]));
+        }
+        return max;
+    }
+
+    @Override
+    public void distances(double[] a, double[] b, int offset, int length, double[] sums) {
+        double dot = 0.0, l1 = 0.0, l2 = 0.0, linf = 0.0;
+        for (int i = 0; i < length; i++) {
+            double x = a[i];
+            double y = b[offset + i];
+            double diff = x - y;
+            dot += x * y;
+            l1 += Math.abs(diff);
+            l2 += diff * diff;
+            linf = Math.max(linf, Math.abs(diff));
+        }
+        sums[0] = dot;
+        sums[1] = l1;
+        sums[2] = l2;
+        sums[3] = linf;
+    }
+
+    @Override
+    public void minMax(double[] a, double[] b, int offset, int length, double[] sums) {
+        // Not fused with distances: with every reduction in one loop, C2 in
+        // JDK 21.0.1 crashes while compiling the callers (ShouldNotReachHere in
+        // typerr)
+        double min = 0.0, max = 0.0;
+        for (int i = 0; i < length; i++) {
+            min += Math.min(a[i], b[offset + i]);
+            max += Math.max(a[i], b[offset + i]);
+        }
+        sums[0] = min;
+        sums[1] = max;
+    }
+}
@@ -0,0 +1,141 @@
+package ie.atu.sw.utils;
+
+/**
+ * The inner loops behind every similarity algorithm: dot products, sums, L1,
+ * L2 and L-infinity distances and the min/max sums of the Jaccard similarity.
+ *
+ * Two implementations exist. `ScalarKernels` uses plain loops and works on any
+ * JVM. `VectorApiKernels` uses the SIMD instructions of the CPU through the
+ * incubating `jdk.incubator.vector` module; it is loaded reflectively, so when
+ * the JVM was not started with `--add-modules jdk.incubator.vector` (or the CPU
+ * has no vector registers for doubles) `get()` quietly returns the scalar
+ * kernels instead.
+ *
+ * Pairwise kernels read `length` components of `a` from index 0 and of `b` from
+ * `offset`, so `b` can be a row of a row-major matrix. They do not check
+ * lengths: callers validate the dimension once, e.g. per scan or when the
+ * embeddings are loaded, rather than once per vector pair.
+ */
+public abstract class SimilarityKernels {
+    private static final String VECTOR_API_KERNELS = "ie.atu.sw.utils.VectorApiKernels";
+
+    private static final class Holder {
+        private static final SimilarityKernels SCALAR = new ScalarKernels();
+        private static final SimilarityKernels FASTEST = load();
+    }
+
+    /**
+     * Gets the fastest kernels available in this JVM.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: The kernels are chosen once, when first requested.
+     *
+     * @return The Vector API kernels if available, the scalar ones otherwise.
+     */
+    public static SimilarityKernels get() {
+        return Holder.FASTEST;
+    }
+
+    /**
+     * Gets the scalar kernels, e.g. to compare them with `get()`.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: Returns a shared instance.
+     */
+    public static SimilarityKernels scalar() {
+        return Holder.SCALAR;
+    }
+
+    private static SimilarityKernels load() {
+        try {
+            return (SimilarityKernels) Class.forName(VECTOR_API_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return Holder.SCALAR; // The module is not resolved or the CPU lacks vector support
+        }
+    }
+
+    /**
+     * Gets a short description of the kernels, e.g. for diagnostics.
+     */
+    public abstract String getName();
+
+    /**
+     * Computes the dot product of `a` and a vector of `b`.
+     *
+     * Time Complexity: O(n)
+     */
+    public abstract double dot(double[] a, double[] b, int offset, int length);
+
+    /**
+     * Computes the dot products of four consecutive rows of `a` with one vector
+     * of `b`, reading the vector of `b` once for all four. This is the inner
+     * kernel of a matrix-matrix product.
+     *
+     * Time Complexity: O(n)
+     *
+     * @param a       The row-major matrix holding the four rows.
+     * @param aOffset The index of the first component of the first row.
+     * @param aStride The number of elements between the starts of two rows.
+     * @param sums    Receives the four dot products at indices 0 to 3.
+     */
+    public abstract void dot4(double[] a, int aOffset, int aStride, double[] b, int offset, int length,
+            double[] sums);
+
+    /**
+     * Computes the sum of `length` components of `v` starting at `offset`.
+     *
+     * Time Complexity: O(n)
+     */
+    public abstract double sum(double[] v, int offset, int length);
+
+    /**
+     * Computes the sum of the squares of `length` components of `v` starting at
+     * `offset`, i.e. the squared L2 norm.
+     *
+     * Time Complexity: O(n)
+     */
+    public abstract double squares(double[] v, int offset, int length);
+
+    /**
+     * Computes the L1 (Manhattan) distance between `a` and a vector of `b`.
+     *
+     * Time Complexity: O(n)
+     */
+    public abstract double manhattan(double[] a, double[] b, int offset, int length);
+
+    /**
+     * Computes the squared L2 (Euclidean) distance between `a` and a vector of
+     * `b`.
+     *
+     * Time Complexity: O(n)
+     */
+    public abstract double euclideanSquares(double[] a, double[] b, int offset, int length);
+
+    /**
+     * Computes the L-infinity (Chebyshev) distance between `a` and a vector of
+     * `b`.
+     *
+     * Time Complexity: O(n)
+     */
+    public abstract double chebyshev(double[] a, double[] b, int offset, int length);
+
+    /**
+     * Computes, in one pass, the dot product, L1 distance, squared L2 distance
+     * and L-infinity distance between `a` and a vector of `b`.
+     *
+     * Time Complexity: O(n)
+     *
+     * @param sums Receives the four sums, in that order, at indices 0 to 3.
+     */
+    public abstract void distances(double[] a, double[] b, int offset, int length, double[] sums);
+
+    /**
+     * Computes, in one pass, the sums of the component-wise minima and maxima of
+     * `a` and a vector of `b`.
+     *
+     * Time Complexity: O(n)
+     *
+     * @param sums Receives the sum of minima at index 0 and of maxima at index 1.
+     */
+    public abstract void minMax(double[] a, double[] b, int offset, int length, double[] sums);
+}
@@ -0,0 +1,223 @@
+package ie.atu.sw.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of `SimilarityKernels` on the incubating Vector API. Each
+ * loop processes as many doubles per instruction as the CPU's preferred vector
+ * width holds (4 with AVX2, 8 with AVX-512), keeping one partial sum per lane
+ * that is reduced at the end, and finishes the remaining components with a
+ * scalar tail. The order of the additions differs from `ScalarKernels`, so
+ * results agree to floating-point rounding rather than bit for bit.
+ *
+ * Only instantiated reflectively by `SimilarityKernels.get()`; loading this
+ * class fails when the `jdk.incubator.vector` module is not resolved.
+ */
+final class VectorApiKernels extends SimilarityKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    VectorApiKernels() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No vector registers for doubles");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Vector API (" + SPECIES.length() + " x double)";
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int offset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, offset + i);
+            acc = acc.add(x.mul(y));
+        }
+        double dot = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            dot += a[i] * b[offset + i];
+        }
+        return dot;
+    }
+
+    @Override
+    public void dot4(double[] a, int aOffset, int aStride, double[] b, int offset, int length, double[] sums) {
+        int a0 = aOffset, a1 = a0 + aStride, a2 = a1 + aStride, a3 = a2 + aStride;
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        DoubleVector acc2 = DoubleVector.zero(SPECIES);
+        DoubleVector acc3 = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, offset + i);
+            acc0 = acc0.add(DoubleVector.fromArray(SPECIES, a, a0 + i).mul(y));
+            acc1 = acc1.add(DoubleVector.fromArray(SPECIES, a, a1 + i).mul(y));
+            acc2 = acc2.add(DoubleVector.fromArray(SPECIES, a, a2 + i).mul(y));
+            acc3 = acc3.add(DoubleVector.fromArray(SPECIES, a, a3 + i).mul(y));
+        }
+        double s0 = acc0.reduceLanes(VectorOperators.ADD);
+        double s1 = acc1.reduceLanes(VectorOperators.ADD);
+        double s2 = acc2.reduceLanes(VectorOperators.ADD);
+        double s3 = acc3.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double y = b[offset + i];
+            s0 += a[a0 + i] * y;
+            s1 += a[a1 + i] * y;
+            s2 += a[a2 + i] * y;
+            s3 += a[a3 + i] * y;
+        }
+        sums[0] = s0;
+        sums[1] = s1;
+        sums[2] = s2;
+        sums[3] = s3;
+    }
+
+    @Override
+    public double sum(double[] v, int offset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, v, offset + i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += v[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double squares(double[] v, int offset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, v, offset + i);
+            acc = acc.add(x.mul(x));
+        }
+        double squares = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            squares += v[offset + i] * v[offset + i];
+        }
+        return squares;
+    }
+
+    @Override
+    public double manhattan(double[] a, double[] b, int offset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, offset + i);
+            acc = acc.add(x.sub(y).abs());
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += Math.abs(a[i] - b[offset + i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double euclideanSquares(double[] a, double[] b, int offset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, a, i)
+                    .sub(DoubleVector.fromArray(SPECIES, b, offset + i));
+            acc = acc.add(diff.mul(diff));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double diff = a[i] - b[offset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double chebyshev(double[] a, double[] b, int offset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, offset + i);
+            acc = acc.max(x.sub(y).abs());
+        }
+        double max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, Math.abs(a[i] - b[offset + i]));
+        }
+        return max;
+    }
+
+    @Override
+    public void distances(double[] a, double[] b, int offset, int length, double[] sums) {
+        DoubleVector dot = DoubleVector.zero(SPECIES);
+        DoubleVector l1 = DoubleVector.zero(SPECIES);
+        DoubleVector l2 = DoubleVector.zero(SPECIES);
+        DoubleVector linf = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, offset + i);
+            DoubleVector diff = x.sub(y);
+            DoubleVector abs = diff.abs();
+            dot = dot.add(x.mul(y));
+            l1 = l1.add(abs);
+            l2 = l2.add(diff.mul(diff));
+            linf = linf.max(abs);
+        }
+        double d = dot.reduceLanes(VectorOperators.ADD);
+        double s1 = l1.reduceLanes(VectorOperators.ADD);
+        double s2 = l2.reduceLanes(VectorOperators.ADD);
+        double m = linf.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            double x = a[i];
+            double y = b[offset + i];
+            double diff = x - y;
+            d += x * y;
+            s1 += Math.abs(diff);
+            s2 += diff * diff;
+            m = Math.max(m, Math.abs(diff));
+        }
+        sums[0] = d;
+        sums[1] = s1;
+        sums[2] = s2;
+        sums[3] = m;
+    }
+
+    @Override
+    public void minMax(double[] a, double[] b, int offset, int length, double[] sums) {
+        DoubleVector min = DoubleVector.zero(SPECIES);
+        DoubleVector max = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, offset + i);
+            min = min.add(x.min(y));
+            max = max.add(x.max(y));
+        }
+        double lower = min.reduceLanes(VectorOperators.ADD);
+        double upperSum = max.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            lower += Math.min(a[i], b[offset + i]);
+            upperSum += Math.max(a[i], b[offset + i]);
+        }
+        sums[0] = lower;
+        sums[1] = upperSum;
+    }
+}
@@ -0,0 +1,207 @@
+package ie.atu.sw.utils;
+
+/**
+ * Accumulates every sum needed by the built-in similarity algorithms in a
+ * single pass over a pair of vectors. The sums that only depend on the query
+ * vector are computed once with {@link #setQuery(double[])} and reused for
+ * every candidate.
+ */
+public class VectorMetrics {
+    private static final SimilarityKernels KERNELS = SimilarityKernels.get();
+
+    private final double[] scratch = new double[4];
+    private int length;
+    private double querySum;
+    private double querySquares;
+
+    private double dot;
+    private double candidateSum;
+    private double candidateSquares;
+    private double manhattan;
+    private double euclideanSquares;
+    private double chebyshev;
+    private double minSum;
+    private double maxSum;
+
+    /**
+     * Precomputes the sums that only depend on the query vector.
+     *
+     * Time Complexity: O(n)
+     * - Rationale: Iterates twice through the query vector of size `n`.
+     *
+     * @param query The query vector.
+     */
+    public void setQuery(double[] query) {
+        this.length = query.length;
+        this.querySum = KERNELS.sum(query, 0, query.length);
+        this.querySquares = KERNELS.squares(query, 0, query.length);
+    }
+
+    /**
+     * Computes the pairwise sums between the query and a candidate vector.
+     *
+     * Time Complexity: O(n)
+     * - Rationale: Sums up the candidate, then see
+     * `accumulate(double[], double[], int, double, double, boolean)`.
+     *
+     * @param query     The query vector passed to {@link #setQuery(double[])}.
+     * @param candidate The candidate vector.
+     * @param distances True to also accumulate L1, L2, L-infinity and min/max
+     *                  sums.
+     */
+    public void accumulate(double[] query, double[] candidate, boolean distances) {
+        if (query.length != candidate.length) {
+            throw new IllegalArgumentException("Vectors must have the same length");
+        }
+        accumulate(query, candidate, 0, distances);
+    }
+
+    /**
+     * Computes the pairwise sums between the query and a candidate stored in a
+     * row-major matrix, without copying the row. The candidate has as many
+     * components as the query; the caller checks this once for the whole
+     * matrix.
+     *
+     * Time Complexity: O(n)
+     * - Rationale: Sums up the candidate, then see
+     * `accumulate(double[], double[], int, double, double, boolean)`.
+     *
+     * @param query     The query vector passed to {@link #setQuery(double[])}.
+     * @param data      The matrix holding the candidate.
+     * @param offset    The index of the first component of the candidate.
+     * @param distances True to also accumulate L1, L2, L-infinity and min/max
+     *                  sums.
+     */
+    public void accumulate(double[] query, double[] data, int offset, boolean distances) {
+        accumulate(query, data, offset, KERNELS.sum(data, offset, query.length),
+                KERNELS.squares(data, offset, query.length), distances);
+    }
+
+    /**
+     * Computes the pairwise sums between the query and a candidate stored in a
+     * row-major matrix whose sum and sum of squares were precomputed, so that
+     * only the cross terms are accumulated. The candidate has as many
+     * components as the query; the caller checks this once for the whole
+     * matrix.
+     *
+     * Time Complexity: O(n)
+     * - Rationale: Iterates once through both vectors of size `n` using the
+     * fastest `SimilarityKernels`; without the distance sums this is a single
+     * dot product, from which Cosine and Pearson are both derived. The Jaccard
+     * min/max sums follow from the L1 distance and the vector sums.
+     *
+     * @param query            The query vector passed to
+     *                         {@link #setQuery(double[])}.
+     * @param data             The matrix holding the candidate.
+     * @param offset           The index of the first component of the
+     *                         candidate.
+     * @param candidateSum     The precomputed sum of the candidate components.
+     * @param candidateSquares The precomputed sum of the squared candidate
+     *                         components.
+     * @param distances        True to also accumulate L1, L2, L-infinity and
+     *                         min/max sums.
+     */
+    public void accumulate(double[] query, double[] data, int offset, double candidateSum, double candidateSquares,
+            boolean distances) {
+        this.candidateSum = candidateSum;
+        this.candidateSquares = candidateSquares;
+        if (distances) {
+            KERNELS.distances(query, data, offset, query.length, scratch);
+            this.dot = scratch[0];
+            this.manhattan = scratch[1];
+            this.euclideanSquares = scratch[2];
+            this.chebyshev = scratch[3];
+            // min(x, y) + max(x, y) = x + y and max(x, y) - min(x, y) = |x - y|
+            double total = querySum + candidateSum;
+            this.minSum = (total - manhattan) / 2;
+            this.maxSum = (total + manhattan) / 2;
+        } else {
+            this.dot = KERNELS.dot(query, data, offset, query.length);
+            this.manhattan = 0.0;
+            this.euclideanSquares = 0.0;
+            this.chebyshev = 0.0;
+            this.minSum = 0.0;
+            this.maxSum = 0.0;
+        }
+    }
+
+    /**
+     * Sets the pairwise sums directly, for callers that compute them from
+     * another representation of the candidate (e.g. quantized codes).
+     *
+     * Time Complexity: O(1)
+     * - Rationale: Assigns three fields.
+     *
+     * @param dot              The dot product of query and candidate.
+     * @param candidateSum     The sum of the candidate components.
+     * @param candidateSquares The sum of the squared candidate components.
+     */
+    public void setProductSums(double dot, double candidateSum, double candidateSquares) {
+        this.dot = dot;
+        this.candidateSum = candidateSum;
+        this.candidateSquares = candidateSquares;
+    }
+
+    /**
+     * Sets the distance sums directly, for callers that compute them from
+     * another representation of the candidate (e.g. quantized codes).
+     *
+     * Time Complexity: O(1)
+     * - Rationale: Assigns five fields.
+     *
+     * @param manhattan        The sum of absolute differences.
+     * @param euclideanSquares The sum of squared differences.
+     * @param chebyshev        The largest absolute difference.
+     * @param minSum           The sum of component-wise minima.
+     * @param maxSum           The sum of component-wise maxima.
+     */
+    public void setDistanceSums(double manhattan, double euclideanSquares, double chebyshev, double minSum,
+            double maxSum) {
+        this.manhattan = manhattan;
+        this.euclideanSquares = euclideanSquares;
+        this.chebyshev = chebyshev;
+        this.minSum = minSum;
+        this.maxSum = maxSum;
+    }
+
+    public double cosineSimilarity() {
+        return dot / (Math.sqrt(querySquares) * Math.sqrt(candidateSquares));
+    }
+
+    public double euclideanDistance() {
+        return Math.sqrt(euclideanSquares);
+    }
+
+    public double manhattanDistance() {
+        return manhattan;
+    }
+
+    public double chebyshevDistance() {
+        return chebyshev;
+    }
+
+    public double jaccardSimilarity() {
+        return minSum / maxSum;
+    }
+
+    /**
+     * Derives the Pearson correlation from the raw sums, using the identity
+     * sum((x - mx)(y - my)) = sum(xy) - sum(x)sum(y)/n, so that no second pass
+     * over the centered vectors is needed. The subtraction cancels when the
+     * mean is large relative to the spread, so the score may differ in the
+     * last digits from the centered form of `VectorUtils`, and a variance can
+     * round slightly below zero; it is clamped at 0 so that it cannot turn the
+     * square root into NaN.
+     *
+     * Time Complexity: O(1)
+     * - Rationale: A fixed number of arithmetic operations on the stored sums.
+     *
+     * @return The Pearson correlation coefficient.
+     */
+    public double pearsonCorrelation() {
+        double numerator = dot - querySum * candidateSum / length;
+        double denominator1 = Math.max(0.0, querySquares - querySum * querySum / length);
+        double denominator2 = Math.max(0.0, candidateSquares - candidateSum * candidateSum / length);
+        return numerator / Math.sqrt(denominator1 * denominator2);
+    }
+}
@@ -2,9 +2,11 @@ package ie.atu.sw.utils;
 
 /**
  * Utility class for performing vector-based operations such as calculating
- * distances and similarities between vectors.
+ * distances and similarities between vectors. The loops run on the fastest
+ * available `SimilarityKernels`.
  */
 public class VectorUtils {
+    private static final SimilarityKernels KERNELS = SimilarityKernels.get();
 
     /**
      * Calculates the Euclidean distance between two vectors.
@@ -19,20 +21,15 @@ public class VectorUtils {
      */
     public static double euclideanDistance(double[] vector1, double[] vector2) {
         validateEqualLength(vector1, vector2);
-        double sum = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            double diff = vector1[i] - vector2[i];
-            sum += diff * diff;
-        }
-        return Math.sqrt(sum);
+        return Math.sqrt(KERNELS.euclideanSquares(vector1, vector2, 0, vector1.length));
     }
 
     /**
      * Calculates the cosine similarity between two vectors.
      *
      * Time Complexity: O(n)
-     * - Rationale: Iterates through both vectors of size `n` once to compute the
-     * dot product and vector norms.
+     * - Rationale: Computes the dot product and both squared norms of the
+     * vectors of size `n`.
      *
      * @param vector1 The first vector.
      * @param vector2 The second vector.
@@ -40,12 +37,9 @@ public class VectorUtils {
      */
     public static double cosineSimilarity(double[] vector1, double[] vector2) {
         validateEqualLength(vector1, vector2);
-        double dot = 0.0, normA = 0.0, normB = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            dot += vector1[i] * vector2[i];
-            normA += vector1[i] * vector1[i];
-            normB += vector2[i] * vector2[i];
-        }
+        double dot = KERNELS.dot(vector1, vector2, 0, vector1.length);
+        double normA = KERNELS.squares(vector1, 0, vector1.length);
+        double normB = KERNELS.squares(vector2, 0, vector2.length);
         return dot / (Math.sqrt(normA) * Math.sqrt(normB));
     }
 
@@ -53,8 +47,10 @@ public class VectorUtils {
      * Calculates the Jaccard similarity between two vectors.
      *
      * Time Complexity: O(n)
-     * - Rationale: Iterates through both vectors of size `n` once to compute the
-     * intersection and union.
+     * - Rationale: Computes the sums of both vectors of size `n` and their L1
+     * distance. Since min(x, y) + max(x, y) = x + y and max(x, y) - min(x, y) =
+     * |x - y|, the intersection and union follow from these without allocating
+     * a buffer for the min/max sums.
      *
      * @param vector1 The first vector.
      * @param vector2 The second vector.
@@ -62,13 +58,10 @@ public class VectorUtils {
      */
     public static double jaccardSimilarity(double[] vector1, double[] vector2) {
         validateEqualLength(vector1, vector2);
-        double intersection = 0.0;
-        double union = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            intersection += Math.min(vector1[i], vector2[i]);
-            union += Math.max(vector1[i], vector2[i]);
-        }
-        return intersection / union;
+        int n = vector1.length;
+        double total = KERNELS.sum(vector1, 0, n) + KERNELS.sum(vector2, 0, n);
+        double manhattan = KERNELS.manhattan(vector1, vector2, 0, n);
+        return (total - manhattan) / (total + manhattan); // Intersection over union
     }
 
     /**
@@ -84,19 +77,17 @@ public class VectorUtils {
      */
     public static double manhattanDistance(double[] vector1, double[] vector2) {
         validateEqualLength(vector1, vector2);
-        double sum = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            sum += Math.abs(vector1[i] - vector2[i]);
-        }
-        return sum;
+        return KERNELS.manhattan(vector1, vector2, 0, vector1.length);
     }
 
     /**
      * Calculates the Pearson correlation coefficient between two vectors.
      *
      * Time Complexity: O(n)
-     * - Rationale: Iterates through both vectors of size `n` to compute the mean,
-     * numerator, and denominators.
+     * - Rationale: Computes the means of both vectors of size `n`, then iterates
+     * through them once more to accumulate the centered terms. Subtracting the
+     * means before multiplying avoids the cancellation of the one-pass
+     * sum(xy) - sum(x)sum(y)/n form, which can turn a tiny denominator negative.
      *
      * @param vector1 The first vector.
      * @param vector2 The second vector.
@@ -104,10 +95,11 @@ public class VectorUtils {
      */
     public static double pearsonCorrelation(double[] vector1, double[] vector2) {
         validateEqualLength(vector1, vector2);
-        double mean1 = mean(vector1);
-        double mean2 = mean(vector2);
+        int n = vector1.length;
+        double mean1 = KERNELS.sum(vector1, 0, n) / n;
+        double mean2 = KERNELS.sum(vector2, 0, n) / n;
         double numerator = 0.0, denominator1 = 0.0, denominator2 = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
+        for (int i = 0; i < n; i++) {
             double diff1 = vector1[i] - mean1;
             double diff2 = vector2[i] - mean2;
             numerator += diff1 * diff2;
@@ -130,29 +122,7 @@ public class VectorUtils {
      */
     public static double chebyshevDistance(double[] vector1, double[] vector2) {
         validateEqualLength(vector1, vector2);
-        double max = 0.0;
-        for (int i = 0; i < vector1.length; i++) {
-            max = Math.max(max, Math.abs(vector1[i] - vector2[i]));
-        }
-        return max;
-    }
-
-    /**
-     * Calculates the mean of a vector.
-     *
-     * Time Complexity: O(n)
-     * - Rationale: Iterates through the vector of size `n` to compute the sum and
-     * divide by its length.
-     *
-     * @param vector The input vector.
-     * @return The mean of the vector.
-     */
-    private static double mean(double[] vector) {
-        double sum = 0.0;
-        for (double val : vector) {
-            sum += val;
-        }
-        return sum / vector.length;
+        return KERNELS.chebyshev(vector1, vector2, 0, vector1.length);
     }
 
     /**
@@ -0,0 +1,131 @@
+package ie.atu.sw;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import ie.atu.sw.embedding.DataBase;
+
+/**
+ * Generates the small, seeded input files the tests load through `DataBase`,
+ * so that no embeddings have to be downloaded. Every vocabulary has the same
+ * words; only the vectors depend on the seed, so two files give different
+ * replacements for the same text.
+ */
+public final class TestData {
+	public static final int COMMON_WORDS = 60;
+	public static final int RARE_WORDS = 400;
+	public static final int DIMENSION = 24;
+
+	// Words whose lowercase is not plain ASCII, and the forms they appear in
+	private static final String[] SPECIAL_WORDS = { "café", "naïve", "straße", "σοφία", "ωμέγα", "ǆungla", "𝒜lpha" };
+	private static final String[] SPECIAL_FORMS = { "CAFÉ", "Naïve", "STRASSE", "Straße", "ΣΟΦΊΑ", "Σοφία",
+			"ΩΜΈΓΑ", "ǅungla", "Ǆungla", "𝒜LPHA", "İstanbul", "ΟΔΟΣ" };
+	private static final String PUNCTUATION = ".,;:!?'\"()-";
+
+	private TestData() {
+	}
+
+	public static String commonWord(int i) {
+		return "common" + i;
+	}
+
+	public static String rareWord(int i) {
+		return "rare" + i;
+	}
+
+	/**
+	 * Writes a text embeddings file ("word v1 v2 ...") with a vector for every
+	 * common, rare and special word.
+	 *
+	 * @param seed Seed of the vector components.
+	 * @return The file.
+	 */
+	public static Path writeEmbeddings(Path directory, String name, long seed) throws IOException {
+		Path file = directory.resolve(name);
+		Random random = new Random(seed);
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < COMMON_WORDS; i++) {
+				writeRow(writer, commonWord(i), random);
+			}
+			for (int i = 0; i < RARE_WORDS; i++) {
+				writeRow(writer, rareWord(i), random);
+			}
+			for (String word : SPECIAL_WORDS) {
+				writeRow(writer, word, random);
+			}
+		}
+		return file;
+	}
+
+	private static void writeRow(BufferedWriter writer, String word, Random random) throws IOException {
+		writer.write(word);
+		for (int i = 0; i < DIMENSION; i++) {
+			writer.write(' ');
+			writer.write(Float.toString((float) (random.nextDouble() * 2 - 1)));
+		}
+		writer.newLine();
+	}
+
+	/**
+	 * Writes a Google-1000 file with the common words `from` to `to - 1`, plus
+	 * one word without a vector.
+	 *
+	 * @return The file.
+	 */
+	public static Path writeCommonWords(Path directory, String name, int from, int to) throws IOException {
+		StringBuilder lines = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			lines.append(commonWord(i)).append('\n');
+		}
+		lines.append("unembedded\n");
+		return Files.writeString(directory.resolve(name), lines, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Loads an embeddings file and a Google-1000 file into a new database.
+	 */
+	public static DataBase load(Path embeddings, Path commonWords) throws IOException {
+		DataBase database = new DataBase();
+		database.loadWordEmbeddings(embeddings.toString());
+		database.loadGoogleWords(commonWords.toString());
+		return database;
+	}
+
+	/**
+	 * Generates a line of text mixing vocabulary words in random case, unknown
+	 * words, special forms, punctuation and runs of blanks.
+	 *
+	 * @param random Source of the choices.
+	 * @param tokens Number of tokens on the line.
+	 */
+	public static String line(Random random, int tokens) {
+		StringBuilder line = new StringBuilder();
+		for (int t = 0; t < tokens; t++) {
+			switch (random.nextInt(10)) {
+				case 0 -> line.append(PUNCTUATION.charAt(random.nextInt(PUNCTUATION.length())));
+				case 1 -> line.append(List.of(" ", "  ", "\t", "  ").get(random.nextInt(4)));
+				case 2 -> line.append(SPECIAL_FORMS[random.nextInt(SPECIAL_FORMS.length)]);
+				case 3 -> line.append("unknown").append(random.nextInt(50));
+				case 4 -> line.append(mixCase(random, commonWord(random.nextInt(COMMON_WORDS))));
+				default -> line.append(mixCase(random, rareWord(random.nextInt(RARE_WORDS))));
+			}
+			if (random.nextInt(3) > 0) {
+				line.append(' ');
+			}
+		}
+		return line.toString();
+	}
+
+	private static String mixCase(Random random, String word) {
+		return switch (random.nextInt(4)) {
+			case 0 -> word.toUpperCase();
+			case 1 -> Character.toUpperCase(word.charAt(0)) + word.substring(1);
+			default -> word;
+		};
+	}
+}
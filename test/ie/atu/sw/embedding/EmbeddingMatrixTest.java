@@ -0,0 +1,118 @@
+package ie.atu.sw.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that every storage precision keeps its rows within its rounding
+ * error, and reads the same rows on the heap, after a conversion, after a
+ * parallel parse and from a snapshot.
+ */
+class EmbeddingMatrixTest {
+	private static final int ROWS = 500;
+	private static final int DIMENSION = 40;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void rowsStayWithinTheRoundingErrorOfTheirPrecision() {
+		double[][] vectors = randomVectors(new Random(21));
+		for (EmbeddingMatrix.Precision precision : EmbeddingMatrix.Precision.values()) {
+			EmbeddingMatrix matrix = build(precision, vectors);
+			for (int r = 0; r < ROWS; r++) {
+				double maxAbs = 0.0;
+				for (double x : vectors[r]) {
+					maxAbs = Math.max(maxAbs, Math.abs(x));
+				}
+				double[] row = matrix.getVector(matrix.indexOf("word" + r));
+				for (int i = 0; i < DIMENSION; i++) {
+					double error = Math.abs(row[i] - vectors[r][i]);
+					double bound = switch (precision) {
+						case FLOAT32 -> Math.ulp((float) vectors[r][i]);
+						case BFLOAT16 -> Math.abs(vectors[r][i]) / 256;
+						case INT8 -> maxAbs / 254 * 1.0001;
+					};
+					assertTrue(error <= bound, precision + " row " + r + " component " + i + " is off by " + error);
+					assertEquals(row[i], matrix.get(matrix.indexOf("word" + r), i), precision.toString());
+				}
+			}
+		}
+	}
+
+	@Test
+	void int8UsesAnEighthOfTheBytesOfDoubles() {
+		EmbeddingMatrix matrix = build(EmbeddingMatrix.Precision.INT8, randomVectors(new Random(22)));
+		long doubles = 8L * ROWS * DIMENSION;
+		long components = matrix.getMemoryBytes() - matrix.getVocabulary().getMemoryBytes() - 8L * ROWS;
+		assertEquals(doubles / 8, components, "Bytes besides the vocabulary, norms and scales");
+	}
+
+	@Test
+	void conversionsAndSnapshotsKeepTheRows() throws Exception {
+		double[][] vectors = randomVectors(new Random(23));
+		for (EmbeddingMatrix.Precision precision : EmbeddingMatrix.Precision.values()) {
+			EmbeddingMatrix matrix = build(precision, vectors);
+			EmbeddingMatrix widened = matrix.withPrecision(EmbeddingMatrix.Precision.FLOAT32);
+			Path file = directory.resolve(precision + ".bin");
+			EmbeddingSnapshot.write(matrix, file);
+			EmbeddingMatrix mapped = EmbeddingSnapshot.open(file);
+			assertEquals(precision, mapped.getPrecision());
+
+			EmbeddingMatrix.Builder merged = new EmbeddingMatrix.Builder(precision, DIMENSION);
+			EmbeddingMatrix.Builder part = new EmbeddingMatrix.Builder(precision, DIMENSION);
+			for (int r = 0; r < ROWS; r++) {
+				(r < ROWS / 2 ? merged : part).add("word" + r, vectors[r], DIMENSION);
+			}
+			merged.addAll(part);
+			EmbeddingMatrix parts = merged.build();
+
+			for (int r = 0; r < ROWS; r++) {
+				int row = matrix.indexOf("word" + r);
+				// Float32 holds a bfloat16 component exactly, an int8 one to float precision
+				double[] expected = matrix.getVector(row);
+				double[] actual = widened.getVector(widened.indexOf("word" + r));
+				for (int i = 0; i < DIMENSION; i++) {
+					assertEquals(expected[i], actual[i], Math.ulp((float) expected[i]), precision + " row " + r);
+				}
+			}
+			for (EmbeddingMatrix other : new EmbeddingMatrix[] { mapped, parts }) {
+				assertEquals(ROWS, other.size());
+				for (int r = 0; r < ROWS; r++) {
+					int row = matrix.indexOf("word" + r);
+					int otherRow = other.indexOf("word" + r);
+					assertArrayEquals(matrix.getVector(row), other.getVector(otherRow), precision + " row " + r);
+					assertEquals(matrix.getNorm(row), other.getNorm(otherRow), precision + " norm " + r);
+				}
+			}
+		}
+	}
+
+	private static EmbeddingMatrix build(EmbeddingMatrix.Precision precision, double[][] vectors) {
+		EmbeddingMatrix.Builder builder = new EmbeddingMatrix.Builder(precision);
+		for (int r = 0; r < vectors.length; r++) {
+			builder.add("word" + r, vectors[r], DIMENSION);
+		}
+		return builder.build();
+	}
+
+	private static double[][] randomVectors(Random random) {
+		double[][] vectors = new double[ROWS][DIMENSION];
+		for (double[] vector : vectors) {
+			// Rows of very different magnitudes, as the scale is per row
+			double magnitude = Math.pow(10, random.nextInt(7) - 3);
+			for (int i = 0; i < DIMENSION; i++) {
+				vector[i] = random.nextGaussian() * magnitude;
+			}
+		}
+		vectors[0] = new double[DIMENSION]; // An all-zero row
+		return vectors;
+	}
+}
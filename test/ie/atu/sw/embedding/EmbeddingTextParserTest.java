@@ -0,0 +1,172 @@
+package ie.atu.sw.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks how the lines of a text embeddings file become rows: the fastText
+ * header, malformed lines, invalid values and rows of another dimension, and
+ * that a file parsed in several ranges gives what reading it line by line with
+ * `String.split` gives.
+ */
+class EmbeddingTextParserTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void skipsTheHeaderOfAFastTextFile() throws IOException {
+		EmbeddingTextParser parser = parser("words.vec", """
+				3 4
+				the 0.1 0.2 0.3 0.4
+				of -1 -2 -3 -4
+				and 1e-3 2E2 3.5 -0.0
+				""");
+		EmbeddingMatrix matrix = parser.parse();
+
+		assertEquals(3, matrix.size());
+		assertEquals(4, matrix.getDimension());
+		assertEquals(0, parser.getSkipped());
+		assertEquals(-1, matrix.indexOf("3"));
+		assertArrayEquals(new double[] { -1, -2, -3, -4 }, matrix.getVector(matrix.indexOf("of")));
+		assertArrayEquals(new double[] { (float) 1e-3, 200, 3.5, -0.0 }, matrix.getVector(matrix.indexOf("and")));
+	}
+
+	@Test
+	void keepsAFirstRowThatIsNotAHeader() throws IOException {
+		// A word that is a number; a header-like line that is not the first is a short row
+		EmbeddingTextParser parser = parser("words.txt", """
+				1984 0.5 0.25
+				the 1 2
+				3 4
+				""");
+		EmbeddingMatrix matrix = parser.parse();
+
+		assertEquals(2, matrix.size());
+		assertEquals(1, parser.getSkipped());
+		assertEquals(2, matrix.getDimension());
+		assertArrayEquals(new double[] { 0.5, 0.25 }, matrix.getVector(matrix.indexOf("1984")));
+	}
+
+	@Test
+	void skipsMalformedLinesAndReadsInvalidValuesAsZero() throws IOException {
+		EmbeddingTextParser parser = parser("words.txt", "The 1 2 3\r\n"
+				+ "lonely\n" // No value
+				+ "\n"
+				+ "cat 1 abc 3\r" // An invalid value
+				+ "dog 1 2\n" // Another dimension
+				+ "bird,4,\t5 6\n"
+				+ " 7 8 9\n" // A leading separator makes the word empty
+				+ "the 9 9 9");
+		EmbeddingMatrix matrix = parser.parse();
+
+		assertEquals(8, parser.getLines());
+		assertEquals(2, parser.getMalformed());
+		assertEquals(1, parser.getSkipped());
+		assertEquals(3, parser.getDimension());
+		assertEquals(4, matrix.size());
+		assertArrayEquals(new double[] { 9, 9, 9 }, matrix.getVector(matrix.indexOf("the")), "Last duplicate wins");
+		assertEquals(0, matrix.indexOf("the"), "Duplicates keep their first row");
+		assertArrayEquals(new double[] { 1, 0, 3 }, matrix.getVector(matrix.indexOf("cat")));
+		assertArrayEquals(new double[] { 4, 5, 6 }, matrix.getVector(matrix.indexOf("bird")));
+		assertArrayEquals(new double[] { 7, 8, 9 }, matrix.getVector(matrix.indexOf("")));
+		assertEquals(-1, matrix.indexOf("dog"));
+		assertEquals(-1, matrix.indexOf("lonely"));
+	}
+
+	@Test
+	void parallelRangesMatchALineByLineRead() throws IOException {
+		// More than one 16 MB parsing range, with every kind of line in each
+		Random random = new Random(41);
+		Path file = directory.resolve("large.txt");
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("30000 50\n");
+			for (int i = 0; i < 30_000; i++) {
+				switch (random.nextInt(50)) {
+					case 0 -> writer.write("word" + random.nextInt(100));
+					case 1 -> writer.write("short 1 2 3");
+					case 2 -> writer.write("bad" + i + " x" + " 1".repeat(49));
+					default -> {
+						writer.write((random.nextBoolean() ? "Word" : "word") + random.nextInt(20_000));
+						for (int d = 0; d < 50; d++) {
+							writer.write(random.nextBoolean() ? " " : ",");
+							writer.write(Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(9) - 4)));
+						}
+					}
+				}
+				writer.write(random.nextInt(10) == 0 ? "\r\n" : "\n");
+			}
+		}
+
+		assertTrue(Files.size(file) > 16L * 1024 * 1024, "The file must span several ranges");
+
+		EmbeddingTextParser parser = new EmbeddingTextParser(file, EmbeddingMatrix.Precision.FLOAT32);
+		EmbeddingMatrix matrix = parser.parse();
+		Map<String, double[]> expected = readLineByLine(file);
+		assertEquals(expected.size(), matrix.size());
+		int row = 0;
+		for (Map.Entry<String, double[]> entry : expected.entrySet()) {
+			assertEquals(row, matrix.indexOf(entry.getKey()), entry.getKey());
+			double[] values = entry.getValue();
+			for (int d = 0; d < values.length; d++) {
+				values[d] = (float) values[d];
+			}
+			assertArrayEquals(values, matrix.getVector(row), entry.getKey());
+			row++;
+		}
+	}
+
+	/**
+	 * Reads a file the way the loader did before it was parallel, skipping a
+	 * fastText header.
+	 */
+	private static Map<String, double[]> readLineByLine(Path file) throws IOException {
+		Map<String, double[]> rows = new LinkedHashMap<>();
+		int dimension = -1;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			if (line != null && !line.matches("\\d+ \\d+")) {
+				dimension = readLine(line, rows, dimension);
+			}
+			while ((line = reader.readLine()) != null) {
+				dimension = readLine(line, rows, dimension);
+			}
+		}
+		return rows;
+	}
+
+	private static int readLine(String line, Map<String, double[]> rows, int dimension) {
+		String[] parts = line.split("[,\\s]+");
+		if (parts.length < 2 || (dimension >= 0 && parts.length - 1 != dimension)) {
+			return dimension;
+		}
+		double[] values = new double[parts.length - 1];
+		for (int i = 1; i < parts.length; i++) {
+			try {
+				values[i - 1] = Double.parseDouble(parts[i]);
+			} catch (NumberFormatException e) {
+				values[i - 1] = 0.0;
+			}
+		}
+		rows.put(parts[0].toLowerCase(), values);
+		return values.length;
+	}
+
+	private EmbeddingTextParser parser(String name, String content) throws IOException {
+		Path file = Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+		return new EmbeddingTextParser(file, EmbeddingMatrix.Precision.FLOAT32);
+	}
+}
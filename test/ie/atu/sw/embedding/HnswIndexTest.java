@@ -0,0 +1,107 @@
+package ie.atu.sw.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the graph the index builds concurrently: its links and its recall
+ * against an exact scan of the candidates.
+ */
+class HnswIndexTest {
+	private static final int CANDIDATES = 5_000;
+	private static final int DIMENSION = 16;
+	private static final int MAX_LEVEL = 32; // Far above any level drawn for the candidates
+	private static final int K = 10;
+
+	@Test
+	void everyLinkIsMutualUnlessTheListIsFull() {
+		CandidateStore store = randomStore(new Random(10));
+		int m = 6;
+		for (HnswIndex.Metric metric : HnswIndex.Metric.values()) {
+			HnswIndex index = HnswIndex.build(store, metric, m, 40);
+			int missing = 0;
+			for (int node = 0; node < store.size(); node++) {
+				for (int level = 0; level <= MAX_LEVEL; level++) {
+					for (int neighbour : index.neighbours(node, level)) {
+						int[] back = index.neighbours(neighbour, level);
+						int self = node;
+						// Pruning a full list is the only way to drop a back link
+						if (back.length < (level == 0 ? 2 * m : m) && Arrays.stream(back).noneMatch(n -> n == self)) {
+							missing++;
+						}
+					}
+				}
+			}
+			assertEquals(0, missing, metric + " links without their back link");
+		}
+	}
+
+	@Test
+	void recallAgainstExactScan() {
+		Random random = new Random(9);
+		CandidateStore store = randomStore(random);
+		for (HnswIndex.Metric metric : HnswIndex.Metric.values()) {
+			HnswIndex index = HnswIndex.build(store, metric, 8, 100);
+			int found = 0;
+			int queries = 300;
+			for (int q = 0; q < queries; q++) {
+				double[] query = randomVector(random);
+				Set<Integer> exact = exactNearest(store, metric, query);
+				for (int node : index.search(query, K, 50)) {
+					found += exact.contains(node) ? 1 : 0;
+				}
+			}
+			double recall = (double) found / (queries * K);
+			assertTrue(recall >= 0.95, metric + " recall@" + K + " is " + recall);
+		}
+	}
+
+	private static CandidateStore randomStore(Random random) {
+		EmbeddingMatrix.Builder builder = new EmbeddingMatrix.Builder(EmbeddingMatrix.Precision.FLOAT32);
+		Set<String> words = new HashSet<>();
+		for (int i = 0; i < CANDIDATES; i++) {
+			builder.add("word" + i, randomVector(random), DIMENSION);
+			words.add("word" + i);
+		}
+		return CandidateStore.build(words, builder.build());
+	}
+
+	private static double[] randomVector(Random random) {
+		double[] vector = new double[DIMENSION];
+		for (int d = 0; d < DIMENSION; d++) {
+			vector[d] = random.nextGaussian();
+		}
+		return vector;
+	}
+
+	private static Set<Integer> exactNearest(CandidateStore store, HnswIndex.Metric metric, double[] query) {
+		TopKCollector nearest = new TopKCollector(K, false);
+		for (int c = 0; c < store.size(); c++) {
+			double[] candidate = store.getVector(c);
+			double dot = 0;
+			double squares = 0;
+			double queryNorm = 0;
+			double candidateNorm = 0;
+			for (int d = 0; d < DIMENSION; d++) {
+				dot += query[d] * candidate[d];
+				squares += (query[d] - candidate[d]) * (query[d] - candidate[d]);
+				queryNorm += query[d] * query[d];
+				candidateNorm += candidate[d] * candidate[d];
+			}
+			nearest.offer(c, metric == HnswIndex.Metric.COSINE ? 1 - dot / Math.sqrt(queryNorm * candidateNorm)
+					: Math.sqrt(squares));
+		}
+		Set<Integer> indices = new HashSet<>();
+		for (int i = 0; i < nearest.size(); i++) {
+			indices.add(nearest.indexAt(i));
+		}
+		return indices;
+	}
+}
@@ -0,0 +1,97 @@
+package ie.atu.sw.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
+import ie.atu.sw.utils.VectorMetrics;
+
+/**
+ * Checks the sums computed from the int8 codes against the exact sums, and
+ * that re-ranking a quantized scan picks the candidate an exact scan picks.
+ */
+class QuantizedCandidateStoreTest {
+	private static final int CANDIDATES = 1_000;
+	private static final int DIMENSION = 50;
+	private static final List<String> ALGORITHMS = List.of("Cosine", "Euclidean", "Jaccard", "Manhattan", "Pearson",
+			"Chebyshev");
+
+	@Test
+	void sumsStayWithinTheQuantizationError() {
+		Random random = new Random(31);
+		CandidateStore store = randomStore(random);
+		QuantizedCandidateStore quantized = QuantizedCandidateStore.build(store);
+		assertNotNull(quantized);
+		double maxAbs = 0.0;
+		for (int c = 0; c < store.size(); c++) {
+			for (double x : store.getVector(c)) {
+				maxAbs = Math.max(maxAbs, Math.abs(x));
+			}
+		}
+		// Query and candidate components are each rounded by at most half a step
+		double step = maxAbs / 127;
+
+		for (int q = 0; q < 100; q++) {
+			double[] query = randomVector(random);
+			QuantizedCandidateStore.Query codes = quantized.quantize(query);
+			VectorMetrics exact = new VectorMetrics();
+			VectorMetrics approximate = new VectorMetrics();
+			exact.setQuery(query);
+			approximate.setQuery(query);
+			for (int c = 0; c < store.size(); c++) {
+				exact.accumulate(query, store.getVector(c), true);
+				quantized.accumulate(approximate, codes, c, true);
+				assertEquals(exact.manhattanDistance(), approximate.manhattanDistance(), DIMENSION * step);
+				assertEquals(exact.chebyshevDistance(), approximate.chebyshevDistance(), step);
+				assertEquals(exact.euclideanDistance(), approximate.euclideanDistance(), Math.sqrt(DIMENSION) * step);
+			}
+		}
+	}
+
+	@Test
+	void rerankingPicksTheExactBest() {
+		Random random = new Random(32);
+		CandidateStore store = randomStore(random);
+		QuantizedCandidateStore quantized = QuantizedCandidateStore.build(store);
+		for (String name : ALGORITHMS) {
+			List<AbstractSimilarityAlgorithm> algorithms = List.of(SimilarityAlgorithmFactory.getAlgorithm(name));
+			ScoringEngine engine = new ScoringEngine(algorithms);
+			for (boolean mostSimilar : new boolean[] { true, false }) {
+				for (int q = 0; q < 100; q++) {
+					double[] query = randomVector(random);
+					double[] exact = engine.score(query, store);
+					double[] reranked = engine.rerank(query, store, engine.score(query, quantized), 10, mostSimilar);
+					assertEquals(ScoringEngine.findBest(exact, algorithms, store.size(), mostSimilar),
+							ScoringEngine.findBest(reranked, algorithms, store.size(), mostSimilar),
+							name + (mostSimilar ? " most" : " least") + " similar, query " + q);
+				}
+			}
+		}
+	}
+
+	private static CandidateStore randomStore(Random random) {
+		EmbeddingMatrix.Builder builder = new EmbeddingMatrix.Builder(EmbeddingMatrix.Precision.FLOAT32);
+		Set<String> words = new HashSet<>();
+		for (int i = 0; i < CANDIDATES; i++) {
+			builder.add("word" + i, randomVector(random), DIMENSION);
+			words.add("word" + i);
+		}
+		return CandidateStore.build(words, builder.build());
+	}
+
+	private static double[] randomVector(Random random) {
+		double[] vector = new double[DIMENSION];
+		for (int d = 0; d < DIMENSION; d++) {
+			vector[d] = random.nextGaussian();
+		}
+		return vector;
+	}
+}
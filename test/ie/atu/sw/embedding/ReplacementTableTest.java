@@ -0,0 +1,101 @@
+package ie.atu.sw.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ie.atu.sw.TestData;
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.menu.Simplify;
+import ie.atu.sw.settingmenu.Configuration;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
+
+/**
+ * Checks that a replacement table, written to a file and loaded back, gives
+ * every word of the vocabulary the replacement exact scoring gives it.
+ */
+class ReplacementTableTest {
+	private static final List<List<String>> SELECTIONS = List.of(List.of("Cosine"), List.of("Euclidean"),
+			List.of("Jaccard"), List.of("Manhattan"), List.of("Pearson"), List.of("Chebyshev"),
+			List.of("Cosine", "Euclidean"), List.of("Manhattan", "Pearson", "Chebyshev"));
+	private static final List<String> METHODS = List.of("most similar", "least similar");
+
+	@TempDir
+	Path directory;
+
+	private DataBase database;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		database = TestData.load(TestData.writeEmbeddings(directory, "embeddings.txt", 1),
+				TestData.writeCommonWords(directory, "google.txt", 0, TestData.COMMON_WORDS));
+	}
+
+	@Test
+	void tableMatchesExactScoring() throws IOException {
+		List<List<AbstractSimilarityAlgorithm>> selections = new ArrayList<>();
+		for (List<String> names : SELECTIONS) {
+			selections.add(names.stream().map(SimilarityAlgorithmFactory::getAlgorithm).toList());
+		}
+		EmbeddingMatrix embeddings = database.getEmbeddings();
+		Random random = new Random(3);
+		List<String> text = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			text.add(TestData.line(random, 40));
+		}
+
+		// Scored one word at a time, and a whole text at a time (batched)
+		List<String[]> expectedWords = new ArrayList<>();
+		List<List<String>> expectedText = new ArrayList<>();
+		for (List<AbstractSimilarityAlgorithm> algorithms : selections) {
+			for (String method : METHODS) {
+				Simplify simplify = simplify(algorithms, method);
+				String[] words = new String[embeddings.size()];
+				for (int row = 0; row < embeddings.size(); row++) {
+					words[row] = simplify.simplifyWord(embeddings.getWord(row));
+				}
+				expectedWords.add(words);
+				expectedText.add(text.stream().map(simplify::simplifyText).toList());
+			}
+		}
+
+		Path file = directory.resolve("table.bin");
+		database.buildReplacementTable(file.toString(), selections);
+		database.clearReplacementTable();
+		database.loadReplacementTable(file.toString());
+		ReplacementTable table = database.getReplacementTable();
+		assertNotNull(table);
+		assertEquals(2 * selections.size(), table.getKeys().size());
+
+		int expected = 0;
+		for (List<AbstractSimilarityAlgorithm> algorithms : selections) {
+			for (String method : METHODS) {
+				Simplify simplify = simplify(algorithms, method);
+				String[] words = expectedWords.get(expected);
+				for (int row = 0; row < embeddings.size(); row++) {
+					assertEquals(words[row], simplify.simplifyWord(embeddings.getWord(row)),
+							method + " " + algorithms + " of " + embeddings.getWord(row));
+				}
+				assertEquals(expectedText.get(expected), text.stream().map(simplify::simplifyText).toList(),
+						method + " " + algorithms);
+				expected++;
+			}
+		}
+	}
+
+	private Simplify simplify(List<AbstractSimilarityAlgorithm> algorithms, String method) {
+		Configuration config = new Configuration();
+		config.setSelectedAlgorithms(algorithms);
+		config.setReplacementMethod(method);
+		return new Simplify(database, config);
+	}
+}
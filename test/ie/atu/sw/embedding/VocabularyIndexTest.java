@@ -0,0 +1,102 @@
+package ie.atu.sw.embedding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the vocabulary against a `HashMap` from word to row, through several
+ * rehashes and across the ways words are added, and that looking a slice of a
+ * text up whatever its case finds the row that looking up the
+ * `String.toLowerCase` of the slice finds.
+ */
+class VocabularyIndexTest {
+	// Letters with case from several scripts, the characters whose lowercase
+	// depends on their context, a surrogate pair and characters without case
+	private static final int[] CODE_POINTS = "aAbBzZéÉßẞıIİiσςΣωΩжЖǅǆǄ𐐀𐐨 '-1".codePoints().toArray();
+
+	@Test
+	void behavesLikeAMapFromWordToRow() {
+		Random random = new Random(4);
+		VocabularyIndex index = new VocabularyIndex();
+		VocabularyIndex fromBytes = new VocabularyIndex(1);
+		Map<String, Integer> rows = new HashMap<>();
+		List<String> words = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			String word = randomWord(random);
+			Integer expected = rows.putIfAbsent(word, rows.size());
+			if (expected == null) {
+				expected = rows.size() - 1;
+				words.add(word);
+			}
+			assertEquals(expected, index.add(word), word);
+			byte[] bytes = ("<" + word + ">").getBytes(StandardCharsets.UTF_8);
+			assertEquals(expected, fromBytes.add(bytes, 1, bytes.length - 2), word);
+		}
+		index.trim();
+
+		VocabularyIndex merged = new VocabularyIndex();
+		for (int row = words.size() - 1; row >= 0; row--) {
+			assertEquals(words.size() - 1 - row, merged.add(index, row));
+		}
+		assertEquals(rows.size(), index.size());
+		assertEquals(rows.size(), merged.size());
+		for (int i = 0; i < 20_000; i++) {
+			String word = randomWord(random);
+			int expected = rows.getOrDefault(word, -1);
+			assertEquals(expected, index.indexOf(word), word);
+			assertEquals(expected, fromBytes.indexOf(new StringBuilder(word)), word);
+			assertEquals(expected < 0 ? -1 : words.size() - 1 - expected, merged.indexOf(word), word);
+		}
+		for (int row = 0; row < words.size(); row++) {
+			byte[] bytes = words.get(row).getBytes(StandardCharsets.UTF_8);
+			assertEquals(words.get(row), index.getWord(row));
+			assertArrayEquals(bytes, index.getWordBytes(row));
+			assertEquals(bytes.length, index.getWordLength(row));
+		}
+	}
+
+	@Test
+	void lookupIgnoringCaseMatchesLowerCasedLookup() {
+		Random random = new Random(5);
+		VocabularyIndex index = new VocabularyIndex();
+		List<String> words = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			String word = randomWord(random).toLowerCase();
+			index.add(word);
+			words.add(word);
+		}
+
+		for (int i = 0; i < 50_000; i++) {
+			String query = random.nextBoolean() ? randomCase(random, words.get(random.nextInt(words.size())))
+					: randomWord(random);
+			String text = "<" + query + ">";
+			assertEquals(index.indexOf(query.toLowerCase()), index.indexOfIgnoreCase(text, 1, text.length() - 1),
+					query);
+		}
+	}
+
+	private static String randomWord(Random random) {
+		StringBuilder word = new StringBuilder();
+		int length = 1 + random.nextInt(4);
+		for (int i = 0; i < length; i++) {
+			word.appendCodePoint(CODE_POINTS[random.nextInt(CODE_POINTS.length)]);
+		}
+		return word.toString();
+	}
+
+	private static String randomCase(Random random, String word) {
+		StringBuilder changed = new StringBuilder(word.length());
+		word.codePoints().forEach(c -> changed.appendCodePoint(
+				random.nextBoolean() ? Character.toUpperCase(c) : Character.toTitleCase(c)));
+		return changed.toString();
+	}
+}
@@ -0,0 +1,115 @@
+package ie.atu.sw.menu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ie.atu.sw.TestData;
+import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.settingmenu.Configuration;
+
+/**
+ * Reloads the embeddings and Google-1000 files while virtual threads keep
+ * simplifying texts through one shared `Simplify` and replacement cache. Each
+ * simplification must read one snapshot, so every output has to be the one
+ * computed single-threaded for one combination of the files, never a mix.
+ */
+class ConcurrentReloadTest {
+	private static final int READERS = 64;
+	private static final long DURATION_MILLIS = 3_000;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void everyOutputMatchesOneCombinationOfFiles() throws Exception {
+		List<Path> embeddings = List.of(TestData.writeEmbeddings(directory, "embeddings1.txt", 1),
+				TestData.writeEmbeddings(directory, "embeddings2.txt", 2));
+		List<Path> commonWords = List.of(
+				TestData.writeCommonWords(directory, "google1.txt", 0, TestData.COMMON_WORDS),
+				TestData.writeCommonWords(directory, "google2.txt", 0, TestData.COMMON_WORDS / 2));
+		Random random = new Random(17);
+		List<String> texts = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			texts.add(TestData.line(random, 60));
+		}
+
+		// The outputs of each text, one per combination of the files
+		List<Set<String>> expected = new ArrayList<>();
+		texts.forEach(text -> expected.add(new HashSet<>()));
+		Map<String, List<String>> combinations = new HashMap<>();
+		for (Path embeddingsFile : embeddings) {
+			for (Path commonWordsFile : commonWords) {
+				Simplify reference = new Simplify(TestData.load(embeddingsFile, commonWordsFile),
+						new Configuration());
+				List<String> outputs = texts.stream().map(reference::simplifyText).toList();
+				combinations.put(embeddingsFile.getFileName() + " + " + commonWordsFile.getFileName(), outputs);
+				for (int i = 0; i < texts.size(); i++) {
+					expected.get(i).add(outputs.get(i));
+				}
+			}
+		}
+		assertEquals(4, new HashSet<>(combinations.values()).size(), "The combinations must simplify differently");
+
+		DataBase database = TestData.load(embeddings.get(0), commonWords.get(0));
+		Simplify simplify = new Simplify(database, new Configuration(), new ReplacementCache(100));
+		Queue<String> mixed = new ConcurrentLinkedQueue<>();
+		Set<String> seen = ConcurrentHashMap.newKeySet();
+		AtomicInteger simplifications = new AtomicInteger();
+		long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+		int reloads = 0;
+		List<Future<?>> results = new ArrayList<>();
+
+		try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int r = 0; r < READERS; r++) {
+				int seed = r;
+				results.add(readers.submit(() -> {
+					Random choice = new Random(seed);
+					while (System.currentTimeMillis() < deadline) {
+						int i = choice.nextInt(texts.size());
+						String output = simplify.simplifyText(texts.get(i));
+						if (!expected.get(i).contains(output)) {
+							mixed.add(output);
+						}
+						seen.add(output);
+						simplifications.incrementAndGet();
+					}
+				}));
+			}
+			while (System.currentTimeMillis() < deadline) {
+				if (random.nextBoolean()) {
+					database.loadWordEmbeddings(embeddings.get(random.nextInt(2)).toString());
+				} else {
+					database.loadGoogleWords(commonWords.get(random.nextInt(2)).toString());
+				}
+				reloads++;
+			}
+		}
+		for (Future<?> result : results) {
+			result.get(); // Rethrows what a reader threw
+		}
+
+		assertTrue(mixed.isEmpty(), mixed.size() + " of " + simplifications + " outputs mixed two versions, e.g. "
+				+ mixed.peek());
+		assertTrue(reloads > 10, "Only " + reloads + " reloads");
+		assertTrue(seen.size() > texts.size(), "The readers never saw a reload");
+	}
+}
@@ -0,0 +1,106 @@
+package ie.atu.sw.menu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ie.atu.sw.abstractalgorithms.AbstractSimilarityAlgorithm;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
+
+/**
+ * Checks the keys, the LRU eviction and the version checks of the cache,
+ * which follows the newest database and configuration versions it is
+ * validated for.
+ */
+class ReplacementCacheTest {
+	private static final List<AbstractSimilarityAlgorithm> COSINE = List
+			.of(SimilarityAlgorithmFactory.getAlgorithm("Cosine"));
+	private static final List<AbstractSimilarityAlgorithm> EUCLIDEAN = List
+			.of(SimilarityAlgorithmFactory.getAlgorithm("Euclidean"));
+
+	@Test
+	void keysIncludeTheAlgorithmsAndTheMethod() {
+		ReplacementCache cache = new ReplacementCache(10);
+		cache.validate(1, 1, 10);
+		cache.put(1, 7, COSINE, "Most Similar", "six");
+		assertEquals("six", cache.get(1, 7, COSINE, "Most Similar"));
+		assertNull(cache.get(1, 7, EUCLIDEAN, "Most Similar"));
+		assertNull(cache.get(1, 7, COSINE, "Least Similar"));
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntry() {
+		ReplacementCache cache = new ReplacementCache(2);
+		cache.validate(1, 1, 2);
+		cache.put(1, 1, COSINE, "Most Similar", "1");
+		cache.put(1, 2, COSINE, "Most Similar", "2");
+		cache.get(1, 1, COSINE, "Most Similar");
+		cache.put(1, 3, COSINE, "Most Similar", "3");
+
+		assertEquals(2, cache.size());
+		assertEquals("1", cache.get(1, 1, COSINE, "Most Similar"));
+		assertNull(cache.get(1, 2, COSINE, "Most Similar"));
+		assertEquals(1, cache.getEvictions());
+
+		cache.validate(1, 1, 1); // Shrinking keeps the most recently used entry
+		assertEquals(1, cache.size());
+		assertEquals("1", cache.get(1, 1, COSINE, "Most Similar"));
+	}
+
+	@Test
+	void newVersionsClearTheCache() {
+		ReplacementCache cache = new ReplacementCache(10);
+		cache.validate(1, 1, 10);
+		cache.put(1, 7, COSINE, "Most Similar", "six");
+		cache.validate(1, 1, 10);
+		assertEquals(1, cache.size());
+		cache.validate(2, 1, 10);
+		assertEquals(0, cache.size());
+		cache.put(2, 7, COSINE, "Most Similar", "six");
+		cache.validate(2, 2, 10);
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void otherSnapshotsAreNeitherServedNorStored() {
+		ReplacementCache cache = new ReplacementCache(10);
+		cache.validate(2, 1, 10);
+		cache.put(2, 7, COSINE, "Most Similar", "six");
+		assertNull(cache.get(1, 7, COSINE, "Most Similar"));
+		cache.put(1, 8, COSINE, "Most Similar", "nine");
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void olderVersionsDoNotClearTheCache() {
+		ReplacementCache cache = new ReplacementCache(10);
+		cache.validate(2, 1, 10);
+		cache.put(2, 7, COSINE, "Most Similar", "seven");
+
+		cache.validate(1, 1, 10); // A simplification still on the previous snapshot
+		assertEquals("seven", cache.get(2, 7, COSINE, "Most Similar"));
+		assertNull(cache.get(1, 7, COSINE, "Most Similar"));
+		cache.put(1, 8, COSINE, "Most Similar", "eight");
+		assertEquals(1, cache.size());
+
+		cache.validate(3, 1, 10);
+		assertNull(cache.get(3, 7, COSINE, "Most Similar"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void newerConfigurationClearsTheCache() {
+		ReplacementCache cache = new ReplacementCache(10);
+		cache.validate(2, 1, 10);
+		cache.put(2, 7, COSINE, "Most Similar", "seven");
+		cache.validate(2, 0, 10);
+		assertEquals(1, cache.size());
+		cache.validate(2, 2, 10);
+		assertEquals(0, cache.size());
+	}
+}
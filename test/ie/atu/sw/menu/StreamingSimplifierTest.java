@@ -0,0 +1,80 @@
+package ie.atu.sw.menu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ie.atu.sw.TestData;
+import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.settingmenu.Configuration;
+
+/**
+ * Checks that streaming a file through the simplifier writes exactly what the
+ * batch mode writes for it.
+ */
+class StreamingSimplifierTest {
+	@TempDir
+	Path directory;
+
+	private Simplify simplify;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		DataBase database = TestData.load(TestData.writeEmbeddings(directory, "embeddings.txt", 1),
+				TestData.writeCommonWords(directory, "google.txt", 0, TestData.COMMON_WORDS));
+		simplify = new Simplify(database, new Configuration(), new ReplacementCache(1000));
+	}
+
+	@Test
+	void streamingMatchesBatch() throws Exception {
+		Random random = new Random(11);
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 2_000; i++) {
+			input.append(random.nextInt(20) == 0 ? "" : TestData.line(random, random.nextInt(30)));
+			input.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+		}
+		Path in = Files.writeString(directory.resolve("in.txt"), input, StandardCharsets.UTF_8);
+
+		assertEquals(batch(in), stream(in));
+	}
+
+	@Test
+	void overlongTokensMatchBatch() throws Exception {
+		Random random = new Random(13);
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			input.append(TestData.line(random, 10)).append(i % 2 == 0 ? " " : ". ");
+			// Exactly at, just past and far past the limit, e.g. hex or other encoded data
+			int length = List.of(StreamingSimplifier.MAX_TOKEN_LENGTH, StreamingSimplifier.MAX_TOKEN_LENGTH + 1,
+					10 * StreamingSimplifier.MAX_TOKEN_LENGTH + 7).get(i % 3);
+			for (int c = 0; c < length; c++) {
+				input.append("aZ09Éßσ".charAt(random.nextInt(7)));
+			}
+			input.append(i % 4 == 0 ? "\n" : " " + TestData.line(random, 10) + "\n");
+		}
+		Path in = Files.writeString(directory.resolve("in.txt"), input, StandardCharsets.UTF_8);
+
+		assertEquals(batch(in), stream(in));
+	}
+
+	String batch(Path in) throws Exception {
+		Path out = directory.resolve("batch.txt");
+		new BatchSimplifier(simplify).simplifyFile(in, out);
+		return Files.readString(out, StandardCharsets.UTF_8);
+	}
+
+	String stream(Path in) throws IOException {
+		Path out = directory.resolve("stream.txt");
+		new StreamingSimplifier(simplify).simplifyFile(in, out);
+		return Files.readString(out, StandardCharsets.UTF_8);
+	}
+}
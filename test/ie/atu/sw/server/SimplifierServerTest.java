@@ -0,0 +1,139 @@
+package ie.atu.sw.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ie.atu.sw.TestData;
+import ie.atu.sw.embedding.DataBase;
+import ie.atu.sw.menu.Simplify;
+import ie.atu.sw.settingmenu.Configuration;
+import ie.atu.sw.utils.SimilarityAlgorithmFactory;
+
+/**
+ * Starts the server on a free port and checks its responses: the simplified
+ * text with the default and with overridden algorithms and method, which must
+ * match `Simplify` run directly, the client errors, and the health report.
+ */
+class SimplifierServerTest {
+	private static final int MAX_BODY_BYTES = 1024 * 1024;
+
+	@TempDir
+	Path directory;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private DataBase database;
+	private SimplifierServer server;
+	private String text;
+
+	@BeforeEach
+	void startServer() throws Exception {
+		database = TestData.load(TestData.writeEmbeddings(directory, "embeddings.txt", 1),
+				TestData.writeCommonWords(directory, "google.txt", 0, TestData.COMMON_WORDS));
+		server = new SimplifierServer(database, new Configuration());
+		server.start(0);
+		text = TestData.line(new Random(3), 40);
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void simplifiesWithTheDefaults() throws Exception {
+		HttpResponse<String> response = post("/simplify", text);
+		assertEquals(200, response.statusCode(), response.body());
+		assertEquals(new Simplify(database, new Configuration()).simplifyText(text) + "\n", response.body());
+	}
+
+	@Test
+	void simplifiesWithTheRequestedAlgorithmsAndMethodWithoutPrinting() throws Exception {
+		Configuration config = new Configuration(new Configuration(),
+				List.of(SimilarityAlgorithmFactory.getAlgorithm("Euclidean"),
+						SimilarityAlgorithmFactory.getAlgorithm("Pearson")),
+				"Least Similar");
+		String expected = new Simplify(database, config).simplifyText(text) + "\n";
+
+		PrintStream console = System.out;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		HttpResponse<String> response;
+		System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+		try {
+			response = post("/simplify?algorithms=euclidean,%20Pearson&method=least+similar", text);
+		} finally {
+			System.setOut(console);
+		}
+		assertEquals(200, response.statusCode(), response.body());
+		assertEquals(expected, response.body());
+		assertEquals("", printed.toString(StandardCharsets.UTF_8), "A request must not print to the console");
+	}
+
+	@Test
+	void rejectsAnUnknownAlgorithmOrMethod() throws Exception {
+		HttpResponse<String> response = post("/simplify?algorithms=Cosine,Hamming", text);
+		assertEquals(400, response.statusCode());
+		assertTrue(response.body().startsWith("Unknown algorithm 'Hamming'"), response.body());
+
+		response = post("/simplify?method=Closest", text);
+		assertEquals(400, response.statusCode());
+		assertTrue(response.body().startsWith("Unknown method 'Closest'"), response.body());
+	}
+
+	@Test
+	void rejectsOtherHttpMethods() throws Exception {
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/simplify")).GET());
+		assertEquals(405, response.statusCode());
+		assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+
+		response = post("/health", "");
+		assertEquals(405, response.statusCode());
+		assertEquals("GET", response.headers().firstValue("Allow").orElse(null));
+	}
+
+	@Test
+	void rejectsATextOverTheSizeLimit() throws Exception {
+		assertEquals(200, post("/simplify", "a".repeat(MAX_BODY_BYTES)).statusCode());
+		assertEquals(413, post("/simplify", "a".repeat(MAX_BODY_BYTES + 1)).statusCode());
+	}
+
+	@Test
+	void reportsHealth() throws Exception {
+		HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/health")).GET());
+		assertEquals(200, response.statusCode());
+		assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+		DataBase.Snapshot data = database.snapshot();
+		assertEquals("{\"status\":\"UP\",\"embeddings\":" + data.embeddings().size() + ",\"commonWords\":"
+				+ data.commonWords().size() + ",\"candidates\":" + data.candidates().size() + "}\n",
+				response.body());
+		assertFalse(data.candidates().isEmpty());
+	}
+
+	private HttpResponse<String> post(String path, String body) throws Exception {
+		return send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)));
+	}
+
+	private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + server.getPort() + path);
+	}
+}
@@ -0,0 +1,73 @@
+package ie.atu.sw.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that lowering and comparing slices in place gives the same results
+ * as `String.toLowerCase` and `String.equalsIgnoreCase` on the sliced text.
+ */
+class CaseFoldingTest {
+
+    @Test
+    void lowersEveryCharacterLikeString() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            String text = "a" + (char) c + "b";
+            assertEquals(text.substring(1, 2).toLowerCase(), CaseFolding.toLowerCase(text, 1, 2),
+                    "U+" + Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    void lowersRandomSlicesLikeString() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            String text = randomText(random, 1 + random.nextInt(12));
+            int start = random.nextInt(text.length());
+            int end = start + random.nextInt(text.length() - start + 1);
+            assertEquals(text.substring(start, end).toLowerCase(), CaseFolding.toLowerCase(text, start, end),
+                    text);
+        }
+    }
+
+    @Test
+    void comparesLikeEqualsIgnoreCase() {
+        Random random = new Random(2);
+        for (int i = 0; i < 20_000; i++) {
+            String value = randomText(random, 1 + random.nextInt(6));
+            String other = random.nextBoolean() ? randomCase(random, value) : randomText(random, value.length());
+            String text = "x" + other + "y";
+            assertEquals(value.equalsIgnoreCase(other),
+                    CaseFolding.equalsIgnoreCase(value, text, 1, 1 + other.length()), value + " / " + other);
+        }
+    }
+
+    /**
+     * Generates text mixing ASCII, Latin, Greek and Cyrillic letters, the
+     * characters whose lowercase depends on their context and surrogate pairs.
+     */
+    static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            switch (random.nextInt(8)) {
+                case 0, 1, 2 -> text.append((char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(26)));
+                case 3 -> text.append((char) (0xC0 + random.nextInt(0x250 - 0xC0)));
+                case 4 -> text.append((char) (0x370 + random.nextInt(0x530 - 0x370)));
+                case 5 -> text.append(random.nextBoolean() ? 'İ' : 'Σ');
+                case 6 -> text.appendCodePoint(0x10400 + random.nextInt(0x50)); // Deseret, has case
+                default -> text.append(" .'\t".charAt(random.nextInt(4)));
+            }
+        }
+        return text.toString();
+    }
+
+    static String randomCase(Random random, String text) {
+        StringBuilder changed = new StringBuilder(text.length());
+        text.codePoints().forEach(c -> changed.appendCodePoint(
+                random.nextBoolean() ? Character.toUpperCase(c) : Character.toLowerCase(c)));
+        return changed.toString();
+    }
+}
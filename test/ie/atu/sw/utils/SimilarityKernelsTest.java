@@ -0,0 +1,136 @@
+package ie.atu.sw.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the Vector API kernels agree with the scalar ones, for lengths
+ * below, at and between multiples of the species length and for rows that do
+ * not start at index 0. The lanes add up in another order than the scalar
+ * loops, so the sums are compared within a tolerance.
+ */
+class SimilarityKernelsTest {
+    private static final int[] LENGTHS = { 0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 63, 64, 65, 100, 300, 301 };
+    private static final int[] OFFSETS = { 0, 1, 3, 8 };
+    private static final double TOLERANCE = 1e-12;
+
+    private static SimilarityKernels scalar;
+    private static SimilarityKernels vector;
+
+    @BeforeAll
+    static void loadKernels() {
+        scalar = SimilarityKernels.scalar();
+        vector = SimilarityKernels.get();
+        assertNotSame(scalar, vector, "The tests must run with --add-modules jdk.incubator.vector");
+    }
+
+    @Test
+    void singleVectorKernelsMatch() {
+        Random random = new Random(1);
+        for (int length : LENGTHS) {
+            for (int offset : OFFSETS) {
+                double[] v = randomRow(random, offset, length);
+                String where = where(length, offset);
+                assertClose(scalar.sum(v, offset, length), vector.sum(v, offset, length), length, "sum " + where);
+                assertClose(scalar.squares(v, offset, length), vector.squares(v, offset, length), length,
+                        "squares " + where);
+            }
+        }
+    }
+
+    @Test
+    void pairwiseKernelsMatch() {
+        Random random = new Random(2);
+        for (int length : LENGTHS) {
+            for (int offset : OFFSETS) {
+                double[] a = randomRow(random, 0, length);
+                double[] b = randomRow(random, offset, length);
+                String where = where(length, offset);
+                assertClose(scalar.dot(a, b, offset, length), vector.dot(a, b, offset, length), length,
+                        "dot " + where);
+                assertClose(scalar.manhattan(a, b, offset, length), vector.manhattan(a, b, offset, length), length,
+                        "manhattan " + where);
+                assertClose(scalar.euclideanSquares(a, b, offset, length),
+                        vector.euclideanSquares(a, b, offset, length), length, "euclideanSquares " + where);
+                // A maximum does not depend on the order, so it is exact
+                assertEquals(scalar.chebyshev(a, b, offset, length), vector.chebyshev(a, b, offset, length),
+                        "chebyshev " + where);
+            }
+        }
+    }
+
+    @Test
+    void fusedKernelsMatchTheirParts() {
+        Random random = new Random(3);
+        double[] expected = new double[4];
+        double[] actual = new double[4];
+        for (int length : LENGTHS) {
+            for (int offset : OFFSETS) {
+                double[] a = randomRow(random, 0, length);
+                double[] b = randomRow(random, offset, length);
+                String where = where(length, offset);
+
+                scalar.distances(a, b, offset, length, expected);
+                vector.distances(a, b, offset, length, actual);
+                assertClose(expected[0], actual[0], length, "distances dot " + where);
+                assertClose(expected[1], actual[1], length, "distances manhattan " + where);
+                assertClose(expected[2], actual[2], length, "distances euclideanSquares " + where);
+                assertEquals(expected[3], actual[3], "distances chebyshev " + where);
+                assertClose(scalar.dot(a, b, offset, length), actual[0], length, "distances vs dot " + where);
+
+                scalar.minMax(a, b, offset, length, expected);
+                vector.minMax(a, b, offset, length, actual);
+                assertClose(expected[0], actual[0], length, "minMax min " + where);
+                assertClose(expected[1], actual[1], length, "minMax max " + where);
+            }
+        }
+    }
+
+    @Test
+    void dot4MatchesFourDotProducts() {
+        Random random = new Random(4);
+        double[] expected = new double[4];
+        double[] actual = new double[4];
+        for (int length : LENGTHS) {
+            for (int offset : OFFSETS) {
+                int stride = length + offset; // Padding between the rows
+                int aOffset = offset + 1;
+                double[] a = randomRow(random, aOffset, 4 * stride);
+                double[] b = randomRow(random, offset, length);
+                String where = where(length, offset);
+
+                scalar.dot4(a, aOffset, stride, b, offset, length, expected);
+                vector.dot4(a, aOffset, stride, b, offset, length, actual);
+                for (int r = 0; r < 4; r++) {
+                    double[] row = new double[length];
+                    System.arraycopy(a, aOffset + r * stride, row, 0, length);
+                    assertClose(expected[r], actual[r], length, "dot4 row " + r + " " + where);
+                    assertClose(scalar.dot(row, b, offset, length), actual[r], length,
+                            "dot4 vs dot row " + r + " " + where);
+                }
+            }
+        }
+    }
+
+    private static double[] randomRow(Random random, int offset, int length) {
+        double[] row = new double[offset + length + 5]; // Trailing values the kernels must not read
+        for (int i = 0; i < row.length; i++) {
+            row[i] = random.nextDouble() * 2 - 1;
+        }
+        return row;
+    }
+
+    private static void assertClose(double expected, double actual, int length, String message) {
+        // Components lie in [-1, 1], so every partial sum is bounded by the length
+        assertEquals(expected, actual, TOLERANCE * Math.max(1, length), message);
+    }
+
+    private static String where(int length, int offset) {
+        return "(length " + length + ", offset " + offset + ")";
+    }
+}